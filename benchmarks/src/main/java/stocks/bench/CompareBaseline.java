@@ -0,0 +1,94 @@
+package stocks.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares a JMH JSON result file with a stored baseline and exits non-zero
+ * when any benchmark got slower than the tolerance allows.
+ * <pre>
+ *   java -cp target/benchmarks.jar stocks.bench.CompareBaseline results.json baseline.json [tolerance]
+ *   java -cp target/benchmarks.jar stocks.bench.CompareBaseline --update results.json baseline.json
+ * </pre>
+ * A benchmark is compared by its name plus parameters. Time modes count lower
+ * as better, throughput higher; a change only counts as a regression when it
+ * exceeds both the tolerance (default 0.10) and the combined score errors.
+ */
+public final class CompareBaseline {
+
+    private record Score(String mode, double score, double error, String unit) {
+    }
+
+    private CompareBaseline() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 3 && args[0].equals("--update")) {
+            Files.copy(Path.of(args[1]), Path.of(args[2]), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline " + args[2] + " updated from " + args[1]);
+            return;
+        }
+        if (args.length < 2) {
+            System.err.println("usage: CompareBaseline [--update] <results.json> <baseline.json> [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        if (!new File(args[1]).exists()) {
+            System.err.println("No baseline at " + args[1] + "; record one with --update");
+            System.exit(2);
+        }
+
+        Map<String, Score> results = read(args[0]);
+        Map<String, Score> baseline = read(args[1]);
+        int regressions = 0;
+        System.out.println(String.format("%-70s %14s %14s %9s", "benchmark", "baseline", "current", "change"));
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score current = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit().equals(current.unit())) {
+                System.out.println(String.format("%-70s %14s %14.3f %9s", entry.getKey(), "-", current.score(), "new"));
+                continue;
+            }
+            boolean higherIsBetter = current.mode().equals("thrpt");
+            double change = (current.score() - before.score()) / before.score();
+            double worse = higherIsBetter ? -change : change;
+            boolean beyondNoise = Math.abs(current.score() - before.score()) > current.error() + before.error();
+            boolean regressed = worse > tolerance && beyondNoise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-70s %14.3f %14.3f %+8.1f%% %s %s", entry.getKey(), before.score(),
+                    current.score(), change * 100, current.unit(), regressed ? "REGRESSION" : ""));
+        }
+        for (String missing : baseline.keySet()) {
+            if (!results.containsKey(missing)) {
+                System.out.println(String.format("%-70s %14s", missing, "not run"));
+            }
+        }
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than " + Math.round(tolerance * 100) + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(String file) throws Exception {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(new File(file))) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(param ->
+                    name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(name.toString(), new Score(run.path("mode").asText(), metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+}
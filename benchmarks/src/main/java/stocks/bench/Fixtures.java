@@ -0,0 +1,83 @@
+package stocks.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import stocks.models.StockData;
+
+/** Inputs shared by the benchmarks; generated data uses fixed seeds so runs are comparable. */
+final class Fixtures {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.ENGLISH);
+
+    private Fixtures() {
+    }
+
+    static String resource(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** A market list of {@code size} stocks, as published in a snapshot. */
+    static List<StockData> stocks(int size, long seed) {
+        Random random = new Random(seed);
+        List<StockData> stocks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double price = 5 + random.nextDouble() * 900;
+            double change = random.nextDouble() * 40 - 20;
+            stocks.add(new StockData("SYM" + i, "Company " + i + " Inc.",
+                    String.format("%.2f", price), String.format("%.2f", change),
+                    String.format("%+.2f%%", change / price * 100),
+                    String.format("%.3fM", random.nextDouble() * 120), String.format("%.3fM", random.nextDouble() * 120),
+                    String.format("%.3fB", random.nextDouble() * 3000), String.format("%.2f", 5 + random.nextDouble() * 75)));
+        }
+        return stocks;
+    }
+
+    /** Deep copy, so a fresh scrape can diverge from the previous one. */
+    static List<StockData> copy(List<StockData> stocks) {
+        List<StockData> copy = new ArrayList<>(stocks.size());
+        for (StockData s : stocks) {
+            copy.add(new StockData(s.getSymbol(), s.getName(), s.getPrice(), s.getChange(), s.getChangePercent(),
+                    s.getVolume(), s.getAvgVolume(), s.getMarketCap(), s.getPeRatio()));
+        }
+        return copy;
+    }
+
+    /** A GraphQL historicalData response with {@code days} bars, newest first as the API returns them. */
+    static String historicalDataResponse(int days, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder(days * 140).append("{\"data\":{\"historicalData\":[");
+        LocalDate date = LocalDate.of(2024, 12, 31);
+        double close = 150;
+        for (int i = 0; i < days; i++) {
+            double open = close * (1 + (random.nextDouble() - 0.5) * 0.02);
+            double high = Math.max(open, close) * (1 + random.nextDouble() * 0.01);
+            double low = Math.min(open, close) * (1 - random.nextDouble() * 0.01);
+            long volume = 1_000_000 + random.nextInt(50_000_000);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.US,
+                    "{\"date\":\"%s\",\"open\":\"%,.2f\",\"close\":\"%,.2f\",\"high\":\"%,.2f\",\"low\":\"%,.2f\",\"volume\":\"%,d\"}",
+                    date.format(DATE_FORMATTER), open, close, high, low, volume));
+            close = open;
+            date = date.minusDays(1);
+        }
+        return json.append("]}}").toString();
+    }
+}
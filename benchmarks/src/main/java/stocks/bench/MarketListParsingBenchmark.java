@@ -0,0 +1,57 @@
+package stocks.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import stocks.models.StockData;
+import stocks.scrappers.StockScraper;
+
+/**
+ * {@link StockScraper#parseStocks} on a saved market list page: HTML parsing
+ * plus row extraction as on every refresh, and extraction alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarketListParsingBenchmark {
+
+    private String html;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        html = Fixtures.resource("most-active.html");
+        document = Jsoup.parse(html, "https://finance.yahoo.com/markets/stocks/most-active/");
+    }
+
+    @Benchmark
+    public List<StockData> parsePage() {
+        return StockScraper.parseStocks(Jsoup.parse(html, "https://finance.yahoo.com/markets/stocks/most-active/"), null);
+    }
+
+    @Benchmark
+    public List<StockData> extractRows() {
+        return StockScraper.parseStocks(document, null);
+    }
+
+    @Benchmark
+    public List<StockData> extractOneSymbol() {
+        return StockScraper.parseStocks(document, document.select("table tbody tr").last().child(0).text());
+    }
+}
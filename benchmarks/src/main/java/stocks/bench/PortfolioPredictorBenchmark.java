@@ -0,0 +1,69 @@
+package stocks.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import stocks.services.HistoricalBars;
+import stocks.services.PredictorModel;
+import stocks.services.PredictorService;
+import weka.classifiers.functions.LinearRegression;
+
+/**
+ * Predictions for a set of symbols over two years of history each, as when
+ * several users ask for predictions at once: every response is parsed, sorted
+ * and trained on in turn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioPredictorBenchmark {
+
+    /** About two years of trading days. */
+    private static final int DAYS = 500;
+
+    @Param({"10", "50"})
+    int symbols;
+
+    private String[] responses;
+
+    @Setup
+    public void setUp() {
+        responses = new String[symbols];
+        for (int i = 0; i < symbols; i++) {
+            responses[i] = Fixtures.historicalDataResponse(DAYS, 100 + i);
+        }
+    }
+
+    @Benchmark
+    public void parseAll(Blackhole blackhole) throws Exception {
+        for (String response : responses) {
+            blackhole.consume(PredictorModel.parseBars(response));
+        }
+    }
+
+    @Benchmark
+    public void parseAndTrainAll(Blackhole blackhole) throws Exception {
+        for (String response : responses) {
+            HistoricalBars bars = PredictorModel.parseBars(response);
+            bars.sortByDate();
+            LinearRegression model = new LinearRegression();
+            model.buildClassifier(PredictorService.prepareDataset(bars));
+            blackhole.consume(model);
+        }
+    }
+}
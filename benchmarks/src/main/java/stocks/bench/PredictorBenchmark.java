@@ -0,0 +1,65 @@
+package stocks.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import stocks.services.HistoricalBars;
+import stocks.services.PredictorModel;
+import stocks.services.PredictorService;
+import weka.classifiers.functions.LinearRegression;
+
+/**
+ * The prediction path after the GraphQL call: parsing the historical data
+ * response and fitting the linear regression on it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictorBenchmark {
+
+    /** Trading days in the requested range (about one and five years). */
+    @Param({"250", "1250"})
+    int days;
+
+    private String response;
+    private HistoricalBars bars;
+
+    @Setup
+    public void setUp() throws Exception {
+        response = Fixtures.historicalDataResponse(days, 3);
+        bars = PredictorModel.parseBars(response);
+        bars.sortByDate();
+    }
+
+    @Benchmark
+    public List<PredictorModel> parseResponse() throws Exception {
+        return PredictorModel.parseResponse(response);
+    }
+
+    @Benchmark
+    public HistoricalBars parseBars() throws Exception {
+        return PredictorModel.parseBars(response);
+    }
+
+    @Benchmark
+    public LinearRegression train() throws Exception {
+        LinearRegression model = new LinearRegression();
+        model.buildClassifier(PredictorService.prepareDataset(bars));
+        return model;
+    }
+}
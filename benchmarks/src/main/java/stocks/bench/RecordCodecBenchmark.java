@@ -0,0 +1,146 @@
+package stocks.bench;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import stocks.models.ChatData;
+import stocks.models.GameData;
+import stocks.storage.CompactRecordCodec;
+import stocks.storage.RecordFormat;
+
+/**
+ * Encoding and decoding of stored records with the compact format against the
+ * JSON text it replaced ({@code stocks.records.format=json}). Encoded sizes
+ * are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordCodecBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private CompactRecordCodec<GameData> compactGames;
+    private CompactRecordCodec<GameData> jsonGames;
+    private CompactRecordCodec<List<ChatData>> compactConversations;
+    private CompactRecordCodec<List<ChatData>> jsonConversations;
+
+    private GameData game;
+    private List<ChatData> conversation;
+    private byte[] compactGame;
+    private byte[] jsonGame;
+    private byte[] compactConversation;
+    private byte[] jsonConversation;
+
+    @Setup
+    public void setUp() throws Exception {
+        Codec legacy = StringCodec.INSTANCE;
+        compactGames = new CompactRecordCodec<>(RecordFormat.GAME, legacy, MAPPER,
+                MAPPER.constructType(GameData.class), true);
+        jsonGames = new CompactRecordCodec<>(RecordFormat.GAME, legacy, MAPPER,
+                MAPPER.constructType(GameData.class), false);
+        compactConversations = new CompactRecordCodec<>(RecordFormat.listOf(RecordFormat.CHAT), legacy, MAPPER,
+                MAPPER.getTypeFactory().constructCollectionType(List.class, ChatData.class), true);
+        jsonConversations = new CompactRecordCodec<>(RecordFormat.listOf(RecordFormat.CHAT), legacy, MAPPER,
+                MAPPER.getTypeFactory().constructCollectionType(List.class, ChatData.class), false);
+
+        game = new GameData("1733184000000", "trader42@example.com", "NVDA", "138.25", true, 200);
+        conversation = new ArrayList<>();
+        Instant timestamp = Instant.parse("2024-12-03T14:30:00Z");
+        for (int i = 0; i < 50; i++) {
+            boolean fromAi = i % 2 == 1;
+            ChatData chat = new ChatData("AI:trader42@example.com", fromAi ? "AI" : "trader42@example.com",
+                    fromAi ? "trader42@example.com" : "AI",
+                    fromAi ? "NVDA closed at 138.25, up 1.8% on volume well above its 30-day average." : "How did NVDA do today?",
+                    true);
+            chat.setTimestamp(timestamp.plusSeconds(i * 7L));
+            conversation.add(chat);
+        }
+
+        compactGame = bytes(compactGames.getValueEncoder().encode(game));
+        jsonGame = bytes(jsonGames.getValueEncoder().encode(game));
+        compactConversation = bytes(compactConversations.getValueEncoder().encode(conversation));
+        jsonConversation = bytes(jsonConversations.getValueEncoder().encode(conversation));
+        System.out.println(String.format("%nEncoded bytes: game compact %d, json %d; 50-message conversation compact %d, json %d",
+                compactGame.length, jsonGame.length, compactConversation.length, jsonConversation.length));
+    }
+
+    private static byte[] bytes(ByteBuf buf) {
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        buf.release();
+        return bytes;
+    }
+
+    private static int encodedSize(ByteBuf buf) {
+        int size = buf.readableBytes();
+        buf.release();
+        return size;
+    }
+
+    @Benchmark
+    public int encodeGameCompact() throws Exception {
+        return encodedSize(compactGames.getValueEncoder().encode(game));
+    }
+
+    @Benchmark
+    public int encodeGameJson() throws Exception {
+        return encodedSize(jsonGames.getValueEncoder().encode(game));
+    }
+
+    @Benchmark
+    public Object decodeGameCompact() throws Exception {
+        return compactGames.getValueDecoder().decode(Unpooled.wrappedBuffer(compactGame), null);
+    }
+
+    @Benchmark
+    public Object decodeGameJson() throws Exception {
+        return compactGames.getValueDecoder().decode(Unpooled.wrappedBuffer(jsonGame), null);
+    }
+
+    @Benchmark
+    public int encodeConversationCompact() throws Exception {
+        return encodedSize(compactConversations.getValueEncoder().encode(conversation));
+    }
+
+    @Benchmark
+    public int encodeConversationJson() throws Exception {
+        return encodedSize(jsonConversations.getValueEncoder().encode(conversation));
+    }
+
+    @Benchmark
+    public Object decodeConversationCompact() throws Exception {
+        return compactConversations.getValueDecoder().decode(Unpooled.wrappedBuffer(compactConversation), null);
+    }
+
+    @Benchmark
+    public Object decodeConversationJson() throws Exception {
+        return compactConversations.getValueDecoder().decode(Unpooled.wrappedBuffer(jsonConversation), null);
+    }
+}
@@ -0,0 +1,70 @@
+package stocks.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import stocks.api.CachedBody;
+import stocks.api.StocksApi;
+import stocks.models.StockData;
+
+/**
+ * One category of the {@code StocksApi} refresh cycle after the scrape:
+ * merging the fresh list into the previous snapshot, serializing it, and
+ * preparing the served body (gzip and ETag). Each invocation merges into a
+ * fresh copy of the previous list, and that copy is part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotCycleBenchmark {
+
+    /** Share of stocks whose fields changed since the previous snapshot. */
+    @Param({"0.1", "1.0"})
+    double changed;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<StockData> previous;
+    private List<StockData> fresh;
+
+    @Setup
+    public void setUp() {
+        previous = Fixtures.stocks(50, 1);
+        fresh = Fixtures.copy(previous);
+        List<StockData> moved = Fixtures.stocks(50, 2);
+        int count = (int) Math.round(changed * fresh.size());
+        for (int i = 0; i < count; i++) {
+            fresh.get(i).setPrice(moved.get(i).getPrice());
+            fresh.get(i).setChange(moved.get(i).getChange());
+            fresh.get(i).setChangePercent(moved.get(i).getChangePercent());
+            fresh.get(i).setVolume(moved.get(i).getVolume());
+        }
+    }
+
+    @Benchmark
+    public List<StockData> merge() {
+        return StocksApi.merge("most-active", fresh, previous);
+    }
+
+    @Benchmark
+    public CachedBody mergeAndSerialize() throws Exception {
+        List<StockData> merged = StocksApi.merge("most-active", fresh, previous);
+        return CachedBody.of(objectMapper.writeValueAsBytes(merged), "v1");
+    }
+}
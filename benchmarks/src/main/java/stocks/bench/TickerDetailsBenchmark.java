@@ -0,0 +1,56 @@
+package stocks.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import stocks.models.TickerData;
+import stocks.scrappers.TickerDetailsScraper;
+
+/** {@link TickerDetailsScraper#processDataPoint} over one quote summary's worth of label/value pairs. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickerDetailsBenchmark {
+
+    private static final String[][] SUMMARY = {
+        {"Previous Close", "1,234.56"},
+        {"Open", "1,240.00"},
+        {"Bid", "1,238.10 x 800"},
+        {"Ask", "1,238.90 x 1200"},
+        {"Day's Range", "1,228.30 - 1,245.75"},
+        {"52 Week Range", "880.12 - 1,301.44"},
+        {"Volume", "12,345,678"},
+        {"Avg. Volume", "10,987,654"},
+        {"Market Cap (intraday)", "2.153T"},
+        {"Beta (5Y Monthly)", "1.24"},
+        {"PE Ratio (TTM)", "31.52"},
+        {"EPS (TTM)", "39.17"},
+        {"Earnings Date", "Jan 30, 2025 - Feb 3, 2025"},
+        {"Forward Dividend & Yield", "0.96 (0.08%)"},
+        {"Ex-Dividend Date", "Nov 8, 2024"},
+        {"1y Target Est", "1,350.00"},
+    };
+
+    private final TickerDetailsScraper scraper = new TickerDetailsScraper();
+
+    @Benchmark
+    public TickerData processSummary() {
+        TickerData tickerData = new TickerData();
+        for (String[] row : SUMMARY) {
+            scraper.processDataPoint(tickerData, row[0], row[1]);
+        }
+        return tickerData;
+    }
+}
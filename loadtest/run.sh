@@ -0,0 +1,113 @@
+#!/usr/bin/env bash
+# End-to-end load test: starts Redis (docker-compose), the replay server in place of
+# Yahoo Finance and the AI endpoint, and the packaged application, waits for it to be
+# ready, then runs LoadDriver. Extra arguments go to LoadDriver, e.g.
+#   loadtest/run.sh --rate 300 --duration 300 --max-error-rate 0.01 --max-p99-ms 800
+# Results are written to loadtest/target/run/results.json and the Redis batch counts
+# (GET /api/redis/batches) to batches.json; logs sit next to them.
+#
+# REDIS_LATENCY_MS routes Redis through toxiproxy (docker-compose profile "latency"),
+# which delays every reply by that much. COMPARE_PIPELINE=1 runs the load twice on an
+# emptied Redis, first with each request's cache commands pipelined and then with every
+# command sent on its own (stocks.redis.pipeline=false), and prints both summaries:
+#   REDIS_LATENCY_MS=5 COMPARE_PIPELINE=1 loadtest/run.sh --rate 200 --duration 120
+# Each run writes results-<mode>.json and batches-<mode>.json.
+set -euo pipefail
+cd "$(dirname "$0")"
+
+APP_PORT=${APP_PORT:-8080}
+REPLAY_PORT=${REPLAY_PORT:-8089}
+REPLAY_LATENCY_MS=${REPLAY_LATENCY_MS:-100}
+REDIS_LATENCY_MS=${REDIS_LATENCY_MS:-0}
+TOXIPROXY_URL=${TOXIPROXY_URL:-http://127.0.0.1:8474}
+APP_JAR=../target/quarkus-app/quarkus-run.jar
+
+if [ "$REDIS_LATENCY_MS" -gt 0 ]; then
+    REDIS_URL=${REDIS_URL:-redis://127.0.0.1:16379}
+else
+    REDIS_URL=${REDIS_URL:-redis://127.0.0.1:6379}
+fi
+
+if [ -z "${SKIP_REDIS:-}" ]; then
+    docker compose -f ../docker-compose.yml up -d redis
+    if [ "$REDIS_LATENCY_MS" -gt 0 ]; then
+        docker compose -f ../docker-compose.yml --profile latency up -d toxiproxy
+    fi
+fi
+if [ "$REDIS_LATENCY_MS" -gt 0 ]; then
+    for _ in $(seq 1 30); do
+        if curl -sf "$TOXIPROXY_URL/version" > /dev/null; then
+            break
+        fi
+        sleep 1
+    done
+    curl -sf -X DELETE "$TOXIPROXY_URL/proxies/redis" > /dev/null || true
+    curl -sf -X POST "$TOXIPROXY_URL/proxies" \
+        -d '{"name":"redis","listen":"0.0.0.0:16379","upstream":"redis:6379","enabled":true}' > /dev/null
+    curl -sf -X POST "$TOXIPROXY_URL/proxies/redis/toxics" \
+        -d "{\"name\":\"latency\",\"type\":\"latency\",\"stream\":\"downstream\",\"attributes\":{\"latency\":$REDIS_LATENCY_MS}}" > /dev/null
+    echo "Redis replies delayed by $REDIS_LATENCY_MS ms through toxiproxy"
+fi
+if [ ! -f "$APP_JAR" ]; then
+    (cd .. && ./mvnw -B package -DskipTests)
+fi
+mkdir -p target/classes target/run
+javac -d target/classes $(find src/main/java -name '*.java')
+
+java -cp target/classes stocks.loadtest.ReplayServer --port "$REPLAY_PORT" --latency-ms "$REPLAY_LATENCY_MS" \
+    > target/run/replay.log 2>&1 &
+REPLAY_PID=$!
+APP_PID=
+trap 'kill $APP_PID $REPLAY_PID 2>/dev/null || true' EXIT
+
+# run <pipeline> <file suffix> [LoadDriver arguments...]
+run() {
+    local pipeline=$1 suffix=$2
+    shift 2
+    rm -f target/run/profiles.pack
+    java -Dquarkus.http.host=127.0.0.1 -Dquarkus.http.port="$APP_PORT" \
+         -Dquarkus.redis.hosts="$REDIS_URL" \
+         -Dstocks.redis.pipeline="$pipeline" \
+         -Dstocks.upstream.yahoo-base-url="http://127.0.0.1:$REPLAY_PORT" \
+         -Dai.api.endpoint="http://127.0.0.1:$REPLAY_PORT/v1/chat/completions" -Dai.api.key=loadtest \
+         -Dstocks.profiles.store=local -Dstocks.profiles.local.path=target/run/profiles.pack \
+         -jar "$APP_JAR" > "target/run/app$suffix.log" 2>&1 &
+    APP_PID=$!
+
+    for _ in $(seq 1 120); do
+        if curl -sf "http://127.0.0.1:$APP_PORT/q/health/ready" > /dev/null; then
+            break
+        fi
+        sleep 1
+    done
+    curl -sf "http://127.0.0.1:$APP_PORT/q/health/ready" > /dev/null \
+        || { echo "Application did not become ready; see target/run/app$suffix.log" >&2; exit 1; }
+
+    local status=0
+    java -cp target/classes stocks.loadtest.LoadDriver --target "http://127.0.0.1:$APP_PORT" \
+        --out "target/run/results$suffix.json" "$@" || status=$?
+    curl -sf "http://127.0.0.1:$APP_PORT/api/redis/batches" > "target/run/batches$suffix.json" || true
+
+    kill "$APP_PID" 2>/dev/null || true
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+    return $status
+}
+
+if [ -z "${COMPARE_PIPELINE:-}" ]; then
+    run true "" "$@"
+    exit
+fi
+
+status=0
+for pipeline in true false; do
+    if [ -z "${SKIP_REDIS:-}" ]; then
+        # Both runs start cold so neither inherits the other's cache
+        docker compose -f ../docker-compose.yml exec -T redis redis-cli FLUSHALL > /dev/null
+    fi
+    [ "$pipeline" = true ] && mode=pipelined || mode=unpipelined
+    echo "== $mode (Redis latency $REDIS_LATENCY_MS ms) =="
+    run "$pipeline" "-$mode" "$@" || status=$?
+    echo "Redis batches: $(cat "target/run/batches-$mode.json" 2>/dev/null || echo unavailable)"
+done
+exit $status
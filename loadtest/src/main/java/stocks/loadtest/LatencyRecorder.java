@@ -0,0 +1,78 @@
+package stocks.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Latencies and outcomes of one scenario. Every sample is kept, which is
+ * fine for the few million requests of a test run and gives exact
+ * percentiles.
+ */
+final class LatencyRecorder {
+
+    private final String name;
+    private long[] micros = new long[4096];
+    private int count;
+    private long errors;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long latencyMicros, boolean ok) {
+        if (count == micros.length) {
+            micros = Arrays.copyOf(micros, count * 2);
+        }
+        micros[count++] = latencyMicros;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    /** Adds this recorder's samples and errors to {@code total}. */
+    synchronized void copyInto(LatencyRecorder total) {
+        synchronized (total) {
+            for (int i = 0; i < count; i++) {
+                total.record(micros[i], true);
+            }
+            total.errors += errors;
+        }
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(micros, count);
+        Arrays.sort(sorted);
+        return new Summary(name, count, errors, count / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count > 0 ? sorted[count - 1] / 1000.0 : 0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+
+    /** Latencies in milliseconds. */
+    record Summary(String name, long requests, long errors, double throughput,
+                   double p50, double p90, double p99, double p999, double max) {
+
+        double errorRate() {
+            return requests > 0 ? (double) errors / requests : 0;
+        }
+
+        String row() {
+            return String.format(Locale.US, "%-12s %9d %7d %6.2f%% %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f",
+                    name, requests, errors, errorRate() * 100, throughput, p50, p90, p99, p999, max);
+        }
+
+        String json() {
+            return String.format(Locale.US,
+                    "{\"scenario\":\"%s\",\"requests\":%d,\"errors\":%d,\"errorRate\":%.5f,\"throughput\":%.2f,"
+                    + "\"p50Ms\":%.3f,\"p90Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+                    name, requests, errors, errorRate(), throughput, p50, p90, p99, p999, max);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package stocks.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-model load generator: requests start on a fixed schedule at the
+ * configured rate whether or not earlier ones have finished, and latency is
+ * measured from the scheduled start. A slow server therefore shows up as
+ * latency instead of silently lowering the offered load.
+ * <pre>
+ *   java -cp target/classes stocks.loadtest.LoadDriver --target http://127.0.0.1:8080 \
+ *       --rate 200 --duration 120 --warmup 20 \
+ *       --mix markets=30,homepage=10,profile=5,ticker=15,history=15,prediction=5,games=10,chat=10 \
+ *       --out results.json --max-error-rate 0.01 --max-p99-ms 500
+ * </pre>
+ * Prints per-scenario throughput, error rate and latency percentiles, writes
+ * them as JSON with {@code --out}, and exits 1 when a gate is exceeded.
+ */
+public final class LoadDriver {
+
+    private static final String DEFAULT_MIX =
+            "markets=30,homepage=10,profile=5,ticker=15,history=15,prediction=5,games=10,chat=10";
+    private static final String DEFAULT_SYMBOLS = "AAPL,MSFT,NVDA,AMZN,GOOGL,META,TSLA,AMD,NFLX,INTC,JPM,XOM";
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Args options = new Args(args);
+        URI target = URI.create(options.value("target", "http://127.0.0.1:8080"));
+        double rate = options.doubleValue("rate", 100);
+        int durationSeconds = options.intValue("duration", 60);
+        int warmupSeconds = options.intValue("warmup", 10);
+        int maxInFlight = options.intValue("max-in-flight", 2000);
+        Duration timeout = Duration.ofMillis(options.intValue("timeout-ms", 10_000));
+
+        Map<String, Integer> mix = parseMix(options.value("mix", DEFAULT_MIX));
+        String[] weighted = weighted(mix);
+        Scenarios scenarios = new Scenarios(target,
+                Arrays.asList(options.value("symbols", DEFAULT_SYMBOLS).split(",")),
+                options.intValue("users", 200), timeout);
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        mix.keySet().forEach(name -> recorders.put(name, new LatencyRecorder(name)));
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(options.intValue("threads", 16));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(callbacks)
+                .build();
+
+        System.out.println(String.format(Locale.US, "Offering %.1f req/s to %s for %ds after %ds warm-up, mix %s",
+                rate, target, durationSeconds, warmupSeconds, mix));
+
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder dropped = new LongAdder();
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            String scenario = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+            boolean measured = scheduled >= measureFrom;
+            LatencyRecorder recorder = recorders.get(scenario);
+            if (inFlight.get() >= maxInFlight) {
+                // The driver itself is saturated; count it against the run rather than queue without bound
+                dropped.increment();
+                if (measured) {
+                    recorder.record(TimeUnit.NANOSECONDS.toMicros(timeout.toNanos()), false);
+                }
+                continue;
+            }
+
+            Scenarios.Call call = scenarios.next(scenario);
+            inFlight.incrementAndGet();
+            client.sendAsync(call.request(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        inFlight.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+                        boolean ok = failure == null && call.check().apply(response);
+                        recorder.record(latency, ok);
+                    });
+        }
+
+        // Let outstanding requests finish or time out
+        long drainUntil = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(50);
+        }
+        callbacks.shutdownNow();
+
+        List<LatencyRecorder.Summary> summaries = new ArrayList<>();
+        recorders.values().forEach(recorder -> summaries.add(recorder.summarize(durationSeconds)));
+        // Percentiles do not add up, so the total is recomputed from every sample
+        LatencyRecorder total = new LatencyRecorder("total");
+        recorders.values().forEach(recorder -> recorder.copyInto(total));
+        LatencyRecorder.Summary all = total.summarize(durationSeconds);
+
+        System.out.println(String.format("%-12s %9s %7s %7s %8s %9s %9s %9s %9s %9s",
+                "scenario", "requests", "errors", "err%", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        summaries.forEach(summary -> System.out.println(summary.row()));
+        System.out.println(all.row());
+        if (dropped.sum() > 0) {
+            System.out.println(dropped.sum() + " requests not sent: more than " + maxInFlight + " in flight");
+        }
+        if (inFlight.get() > 0) {
+            System.out.println(inFlight.get() + " requests still outstanding at the end");
+        }
+
+        if (options.has("out")) {
+            StringBuilder json = new StringBuilder("{\"target\":\"").append(target).append("\",")
+                    .append(String.format(Locale.US, "\"offeredRate\":%.2f,\"durationSeconds\":%d,", rate, durationSeconds))
+                    .append("\"total\":").append(all.json()).append(",\"scenarios\":[");
+            for (int i = 0; i < summaries.size(); i++) {
+                json.append(i > 0 ? "," : "").append(summaries.get(i).json());
+            }
+            Files.writeString(Path.of(options.value("out", null)), json.append("]}\n"));
+        }
+
+        boolean failed = false;
+        double maxErrorRate = options.doubleValue("max-error-rate", 1.0);
+        if (all.errorRate() > maxErrorRate) {
+            System.err.println(String.format(Locale.US, "Error rate %.2f%% is above %.2f%%",
+                    all.errorRate() * 100, maxErrorRate * 100));
+            failed = true;
+        }
+        if (options.has("max-p99-ms") && all.p99() > options.doubleValue("max-p99-ms", 0)) {
+            System.err.println(String.format(Locale.US, "p99 %.1f ms is above %s ms", all.p99(), options.value("max-p99-ms", null)));
+            failed = true;
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.split("=");
+            String name = pair[0].trim();
+            if (!Scenarios.NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown scenario " + name + "; known: " + Scenarios.NAMES);
+            }
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+            if (weight > 0) {
+                mix.put(name, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty mix");
+        }
+        return mix;
+    }
+
+    // One slot per unit of weight, so a uniform pick follows the mix
+    private static String[] weighted(Map<String, Integer> mix) {
+        List<String> slots = new ArrayList<>();
+        mix.forEach((name, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(name);
+            }
+        });
+        return slots.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,250 @@
+package stocks.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for finance.yahoo.com and the OpenAI-compatible chat
+ * endpoint, so the application can be loaded without touching either.
+ * <ul>
+ *   <li>{@code /markets/stocks/<category>/}: market list table</li>
+ *   <li>{@code /quote/<SYMBOL>}: quote summary</li>
+ *   <li>{@code /quote/<SYMBOL>/history?period1=&period2=}: daily bars for the period</li>
+ *   <li>{@code /quote/<SYMBOL>/profile}: company profile</li>
+ *   <li>{@code /v1/chat/completions}: a streamed canned reply</li>
+ * </ul>
+ * Saved pages are replayed from {@code --pages DIR} when present, named by the
+ * request path with '/' replaced by '_' (e.g. {@code _markets_stocks_most-active_.html});
+ * otherwise pages are generated with the markup the scrapers expect. Generated
+ * prices drift between requests so refreshes see changes. {@code --latency-ms}
+ * delays every response to model the real upstream.
+ * <pre>
+ *   java -cp target/classes stocks.loadtest.ReplayServer --port 8089 [--latency-ms 150] [--pages DIR]
+ * </pre>
+ */
+public final class ReplayServer {
+
+    private static final DateTimeFormatter HISTORY_DATE = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.ENGLISH);
+
+    private final Path pages;
+    private final long latencyMillis;
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+
+    private ReplayServer(Path pages, long latencyMillis) {
+        this.pages = pages;
+        this.latencyMillis = latencyMillis;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Args options = new Args(args);
+        int port = options.intValue("port", 8089);
+        ReplayServer replay = new ReplayServer(options.has("pages") ? Path.of(options.value("pages", null)) : null,
+                options.intValue("latency-ms", 0));
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 512);
+        server.createContext("/", replay::handle);
+        server.setExecutor(Executors.newFixedThreadPool(options.intValue("threads", 64)));
+        server.start();
+        System.out.println("Replay server listening on http://127.0.0.1:" + port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            replay.hits.forEach((route, count) -> System.out.println(route + ": " + count.sum() + " requests"));
+        }));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            URI uri = exchange.getRequestURI();
+            String path = uri.getPath();
+            String[] parts = path.split("/");
+
+            byte[] saved = saved(path);
+            if (saved != null) {
+                count("saved");
+                send(exchange, 200, "text/html; charset=utf-8", saved);
+            } else if (path.startsWith("/markets/stocks/") && parts.length >= 4) {
+                count("markets");
+                send(exchange, 200, "text/html; charset=utf-8", marketList(parts[3]));
+            } else if (path.startsWith("/quote/") && parts.length == 3) {
+                count("quote");
+                send(exchange, 200, "text/html; charset=utf-8", quote(parts[2]));
+            } else if (path.startsWith("/quote/") && parts.length == 4 && parts[3].equals("history")) {
+                count("history");
+                send(exchange, 200, "text/html; charset=utf-8", history(parts[2], uri.getQuery()));
+            } else if (path.startsWith("/quote/") && parts.length == 4 && parts[3].equals("profile")) {
+                count("profile");
+                send(exchange, 200, "text/html; charset=utf-8", profile(parts[2]));
+            } else if (path.equals("/v1/chat/completions")) {
+                count("chat");
+                exchange.getRequestBody().readAllBytes();
+                send(exchange, 200, "text/event-stream", chatCompletion());
+            } else {
+                count("unknown");
+                send(exchange, 404, "text/plain", ("No replay for " + path).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void count(String route) {
+        hits.computeIfAbsent(route, key -> new LongAdder()).increment();
+    }
+
+    private byte[] saved(String path) throws IOException {
+        if (pages == null) {
+            return null;
+        }
+        Path file = pages.resolve(path.replace('/', '_') + ".html");
+        return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] marketList(String category) {
+        // The same 50 symbols per category on every request; prices move a little each time
+        Random names = new Random(category.hashCode());
+        ThreadLocalRandom drift = ThreadLocalRandom.current();
+        StringBuilder html = new StringBuilder(64 * 1024)
+                .append("<!DOCTYPE html><html><head><title>").append(category)
+                .append("</title></head><body><div id=\"nimbus-app\"><table><tbody>\n");
+        for (int i = 0; i < 50; i++) {
+            String symbol = symbol(names);
+            double price = 10 + names.nextDouble() * 500 + drift.nextDouble(-1, 1);
+            double change = names.nextDouble() * 20 - 10 + drift.nextDouble(-0.2, 0.2);
+            double percent = change / price * 100;
+            html.append(String.format(Locale.US,
+                    "<tr><td><span class=\"symbol\">%1$s</span></td><td><div class=\"longName\">%1$s Corporation</div></td>"
+                    + "<td></td><td><span><div><fin-streamer data-test=\"change\" data-value=\"%2$.2f\">%2$.2f</fin-streamer>"
+                    + "<fin-streamer data-value=\"%4$.2f\">(%4$+.2f%%)</fin-streamer></div></span></td>"
+                    + "<td><fin-streamer data-test=\"colorChange\" data-value=\"%3$.2f\">%3$+.2f</fin-streamer></td>"
+                    + "<td>%4$+.2f%%</td><td>%5$.3fM</td><td>%6$.3fM</td><td>%7$.3fB</td><td>%8$.2f</td></tr>\n",
+                    symbol, price, change, percent, 1 + drift.nextDouble() * 80, 1 + names.nextDouble() * 80,
+                    1 + names.nextDouble() * 2000, 5 + names.nextDouble() * 60));
+        }
+        return html.append("</tbody></table></div></body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String symbol(Random random) {
+        int length = 2 + random.nextInt(3);
+        StringBuilder symbol = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            symbol.append((char) ('A' + random.nextInt(26)));
+        }
+        return symbol.toString();
+    }
+
+    private static byte[] quote(String symbol) {
+        Random random = new Random(symbol.hashCode());
+        double close = 20 + random.nextDouble() * 400;
+        String[][] rows = {
+            {"Previous Close", String.format(Locale.US, "%,.2f", close)},
+            {"Open", String.format(Locale.US, "%,.2f", close * 1.003)},
+            {"Bid", String.format(Locale.US, "%,.2f x 800", close * 0.999)},
+            {"Ask", String.format(Locale.US, "%,.2f x 1200", close * 1.001)},
+            {"Day's Range", String.format(Locale.US, "%,.2f - %,.2f", close * 0.98, close * 1.02)},
+            {"52 Week Range", String.format(Locale.US, "%,.2f - %,.2f", close * 0.7, close * 1.3)},
+            {"Volume", String.format(Locale.US, "%,d", 1_000_000 + random.nextInt(40_000_000))},
+            {"Avg. Volume", String.format(Locale.US, "%,d", 1_000_000 + random.nextInt(40_000_000))},
+            {"Market Cap (intraday)", String.format(Locale.US, "%.3fB", 1 + random.nextDouble() * 900)},
+            {"Beta (5Y Monthly)", String.format(Locale.US, "%.2f", 0.5 + random.nextDouble())},
+            {"PE Ratio (TTM)", String.format(Locale.US, "%.2f", 8 + random.nextDouble() * 40)},
+            {"EPS (TTM)", String.format(Locale.US, "%.2f", 1 + random.nextDouble() * 10)},
+            {"Earnings Date", "Jan 30, 2025 - Feb 3, 2025"},
+            {"Forward Dividend & Yield", "0.96 (0.08%)"},
+            {"Ex-Dividend Date", "Nov 8, 2024"},
+            {"1y Target Est", String.format(Locale.US, "%,.2f", close * 1.1)},
+        };
+        StringBuilder html = new StringBuilder(4096).append("<!DOCTYPE html><html><body><div id=\"nimbus-app\">"
+                + "<section><section><section><article><div class=\"container yf-dudngy\"><ul>");
+        for (String[] row : rows) {
+            html.append("<li><span class=\"label\">").append(row[0]).append("</span><span class=\"value\">")
+                    .append(row[1]).append("</span></li>");
+        }
+        return html.append("</ul></div></article></section></section></section></div></body></html>")
+                .toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] history(String symbol, String query) {
+        long period1 = 0;
+        long period2 = Instant.now().getEpochSecond();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.startsWith("period1=")) {
+                    period1 = Long.parseLong(pair.substring(8));
+                } else if (pair.startsWith("period2=")) {
+                    period2 = Long.parseLong(pair.substring(8));
+                }
+            }
+        }
+        LocalDate first = Instant.ofEpochSecond(period1).atZone(ZoneOffset.UTC).toLocalDate();
+        LocalDate day = Instant.ofEpochSecond(period2).atZone(ZoneOffset.UTC).toLocalDate();
+        if (first.isBefore(day.minusYears(5))) {
+            first = day.minusYears(5);
+        }
+
+        Random random = new Random(symbol.hashCode());
+        double close = 20 + random.nextDouble() * 400;
+        StringBuilder html = new StringBuilder(128 * 1024).append("<!DOCTYPE html><html><body><table><tbody>\n");
+        // Newest first, weekdays only, as the real page lists them
+        for (; !day.isBefore(first); day = day.minusDays(1)) {
+            if (day.getDayOfWeek().getValue() > 5) {
+                continue;
+            }
+            double open = close * (1 + (random.nextDouble() - 0.5) * 0.03);
+            double high = Math.max(open, close) * (1 + random.nextDouble() * 0.01);
+            double low = Math.min(open, close) * (1 - random.nextDouble() * 0.01);
+            html.append(String.format(Locale.US,
+                    "<tr><td>%s</td><td>%,.2f</td><td>%,.2f</td><td>%,.2f</td><td>%,.2f</td><td>%,.2f</td><td>%,d</td></tr>\n",
+                    day.format(HISTORY_DATE), open, high, low, close, close, 1_000_000 + random.nextInt(50_000_000)));
+            close = open;
+        }
+        return html.append("</tbody></table></body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] profile(String symbol) {
+        return ("<!DOCTYPE html><html><body><div id=\"nimbus-app\"><section><section><section><article>"
+                + "<section class=\"container yf-k4z9w\"><div class=\"top yf-k4z9w\"><div><div><section><h1>"
+                + symbol + " Corporation (" + symbol + ")</h1></section></div></div></div></section>"
+                + "<section></section><section></section><section></section>"
+                + "<section><section><p>" + symbol + " Corporation makes things that people buy. This profile is"
+                + " served by the load-test replay server.</p></section></section>"
+                + "</article></section></section></section></div></body></html>").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] chatCompletion() {
+        StringBuilder events = new StringBuilder();
+        for (String word : "This is a replayed reply from the load-test server .".split(" ")) {
+            events.append("data: {\"choices\":[{\"delta\":{\"content\":\"").append(word).append(" \"}}]}\n\n");
+        }
+        return events.append("data: [DONE]\n\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
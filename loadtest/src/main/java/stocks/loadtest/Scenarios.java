@@ -0,0 +1,126 @@
+package stocks.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * The request types of the traffic mix, each building one request against
+ * the application and judging its response.
+ * <ul>
+ *   <li>{@code markets}: REST market lists, revalidating with the last ETag like a polling client</li>
+ *   <li>{@code homepage}: the server-rendered /stocks page</li>
+ *   <li>{@code profile}: REST company profile</li>
+ *   <li>{@code ticker}, {@code history}, {@code prediction}: GraphQL market data</li>
+ *   <li>{@code games}: recording a game, listing a user's games, the leaderboard</li>
+ *   <li>{@code chat}: sending a user-to-user message and reading the feed</li>
+ * </ul>
+ */
+final class Scenarios {
+
+    static final List<String> NAMES =
+            List.of("markets", "homepage", "profile", "ticker", "history", "prediction", "games", "chat");
+
+    private static final List<String> CATEGORIES = List.of("most-active", "trending", "gainers", "losers");
+
+    private final URI target;
+    private final List<String> symbols;
+    private final int users;
+    private final Duration timeout;
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+
+    /** One request and how to tell whether it succeeded. */
+    record Call(HttpRequest request, Function<HttpResponse<String>, Boolean> check) {
+    }
+
+    Scenarios(URI target, List<String> symbols, int users, Duration timeout) {
+        this.target = target;
+        this.symbols = symbols;
+        this.users = users;
+        this.timeout = timeout;
+    }
+
+    Call next(String scenario) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String symbol = symbols.get(random.nextInt(symbols.size()));
+        String email = "loadtest-" + random.nextInt(users) + "@example.com";
+        LocalDate end = LocalDate.now();
+        switch (scenario) {
+            case "markets": {
+                String category = CATEGORIES.get(random.nextInt(CATEGORIES.size()));
+                HttpRequest.Builder request = get("/api/stocks/" + category).header("Accept-Encoding", "gzip");
+                String etag = etags.get(category);
+                if (etag != null) {
+                    request.header("If-None-Match", etag);
+                }
+                return new Call(request.build(), response -> {
+                    response.headers().firstValue("ETag").ifPresent(tag -> etags.put(category, tag));
+                    return response.statusCode() == 200 || response.statusCode() == 304;
+                });
+            }
+            case "homepage": {
+                String category = CATEGORIES.get(random.nextInt(CATEGORIES.size()));
+                return new Call(get("/stocks?category=" + category).header("Accept-Encoding", "gzip").build(),
+                        response -> response.statusCode() == 200 || response.statusCode() == 304);
+            }
+            case "profile":
+                return new Call(get("/api/stocks/profile?symbol=" + symbol).build(), Scenarios::isOk);
+            case "ticker":
+                return graphql("{ getTickerDetails(symbol: \"" + symbol + "\") { previousClose openPrice volume marketCap peRatio } }");
+            case "history":
+                return graphql("{ historicalData(symbol: \"" + symbol + "\", startDate: \"" + end.minusMonths(6)
+                        + "\", endDate: \"" + end + "\") { date open close volume } }");
+            case "prediction":
+                return graphql("{ predictStockPrice(symbol: \"" + symbol + "\", startDate: \"" + end.minusYears(1)
+                        + "\", endDate: \"" + end + "\") { symbol lastClosingPrice predictedClosingPrice predictedChange } }");
+            case "games": {
+                int pick = random.nextInt(3);
+                if (pick == 0) {
+                    return graphql("mutation { recordGame(email: \"" + email + "\", symbol: \"" + symbol
+                            + "\", userPrediction: \"" + (random.nextBoolean() ? "up" : "down") + "\") { gameId } }");
+                }
+                if (pick == 1) {
+                    return graphql("{ getGamesByUser(email: \"" + email + "\", limit: 20) { gameId symbol won coinsEarned } }");
+                }
+                return graphql("{ leaderboard(limit: 10) { email } }");
+            }
+            case "chat": {
+                String other = "loadtest-" + random.nextInt(users) + "@example.com";
+                if (random.nextBoolean()) {
+                    return graphql("mutation { sendMessage(senderEmail: \"" + email + "\", recipientEmail: \"" + other
+                            + "\", message: \"load test " + random.nextInt(1_000_000) + "\", isAI: false) }");
+                }
+                return graphql("{ getChatFeed(email: \"" + email + "\", limit: 20) { nextCursor messages { senderEmail message } } }");
+            }
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(target.resolve(path)).timeout(timeout).GET();
+    }
+
+    private Call graphql(String query) {
+        String body = "{\"query\":\"" + query.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(target.resolve("/graphql"))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        // GraphQL reports resolver failures with HTTP 200 and an "errors" member
+        return new Call(request, response -> isOk(response) && !response.body().contains("\"errors\""));
+    }
+
+    private static boolean isOk(HttpResponse<String> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+}
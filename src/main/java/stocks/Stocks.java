@@ -1,9 +1,16 @@
 package stocks;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -16,35 +23,101 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import stocks.api.CachedBody;
+import stocks.config.Upstreams;
+import stocks.services.MarketSnapshots;
+import stocks.services.StocksMetrics;
 
+/**
+ * The server-rendered homepage. Pages are rendered from the published market
+ * snapshots rather than by scraping per request, and each rendered page is
+ * kept per category, snapshot version and selected symbol until the category
+ * is republished. Repeat requests are served the stored bytes (gzipped when
+ * accepted) or a 304.
+ */
 @Path("/stocks")
 public class Stocks {
+    private static final Logger logger = Logger.getLogger(Stocks.class.getName());
+
+    private static final String HTML_UTF8 = MediaType.TEXT_HTML + ";charset=UTF-8";
 
     @Inject
     Template homepagestocks;
 
-    private static final Map<String, String> CATEGORY_URLS = Map.of(
-        "most-active", "https://finance.yahoo.com/markets/stocks/most-active/",
-        "trending", "https://finance.yahoo.com/markets/stocks/trending/",
-        "gainers", "https://finance.yahoo.com/markets/stocks/gainers/",
-        "losers", "https://finance.yahoo.com/markets/stocks/losers/"
-    );
-    
+    @Inject
+    MarketSnapshots marketSnapshots;
+
+    private static final Set<String> CATEGORIES = Set.of("most-active", "trending", "gainers", "losers");
+
+    // Rendered pages of one snapshot version of a category, by selected symbol
+    private record RenderedPages(long version, Map<String, CachedBody> bySymbol) {
+    }
+
+    private final Map<String, RenderedPages> rendered = new ConcurrentHashMap<>();
+
     @GET
     @Produces(MediaType.TEXT_HTML)
-    public String getStocks(
+    public Response getStocks(
         @QueryParam("category") @DefaultValue("most-active") String category,
-        @QueryParam("symbol") @DefaultValue("") String symbol
+        @QueryParam("symbol") @DefaultValue("") String symbol,
+        @Context HttpHeaders headers
     ) {
-        String url = CATEGORY_URLS.getOrDefault(category, CATEGORY_URLS.get("most-active"));
-        Map<String, StockData> stocks = fetchStocks(url);
-        
+        if (!CATEGORIES.contains(category)) {
+            category = "most-active";
+        }
+
+        MarketSnapshots.Snapshot snapshot = currentSnapshot(category);
+        if (snapshot == null || snapshot.stocks().isEmpty()) {
+            // Nothing published yet (cold start) or Redis unreachable: scrape for this request only
+            Map<String, StockData> stocks = fetchStocks(Upstreams.yahoo("/markets/stocks/" + category + "/"));
+            return Response.ok(render(category, symbol, stocks), HTML_UTF8).build();
+        }
+
+        String selected = symbol.isEmpty() ? snapshot.stocks().get(0).getSymbol() : symbol;
+        if (snapshot.version() == 0 || !contains(snapshot.stocks(), selected)) {
+            // Unversioned lists can change without the version changing, and unknown
+            // symbols would let callers grow the cache without bound
+            return Response.ok(render(category, selected, toViewModel(snapshot.stocks())), HTML_UTF8).build();
+        }
+
+        String selectedCategory = category;
+        RenderedPages pages = rendered.compute(category, (key, previous) -> {
+            if (previous != null && previous.version() == snapshot.version()) {
+                return previous;
+            }
+            if (previous != null) {
+                StocksMetrics.STOCKS_PAGES.evictions.increment(previous.bySymbol().size());
+            }
+            return new RenderedPages(snapshot.version(), new ConcurrentHashMap<>());
+        });
+        CachedBody page = pages.bySymbol().get(selected);
+        StocksMetrics.STOCKS_PAGES.record(page != null);
+        if (page == null) {
+            page = pages.bySymbol().computeIfAbsent(selected, key -> CachedBody.of(
+                    render(selectedCategory, key, toViewModel(snapshot.stocks())).getBytes(StandardCharsets.UTF_8)));
+        }
+        return page.respond(HTML_UTF8, headers);
+    }
+
+    private MarketSnapshots.Snapshot currentSnapshot(String category) {
+        try {
+            return marketSnapshots.current(category);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not read %s snapshot: %s", category, e.getMessage()));
+            return null;
+        }
+    }
+
+    private String render(String category, String symbol, Map<String, StockData> stocks) {
         // If no symbol is selected, use the first stock
         if (symbol.isEmpty() && !stocks.isEmpty()) {
             symbol = stocks.keySet().iterator().next();
         }
-        
+
         return this.homepagestocks
                 .data("selectedStock", symbol)
                 .data("selectedCategory", category)
@@ -52,13 +125,41 @@ public class Stocks {
                 .render();
     }
 
+    private static boolean contains(List<stocks.models.StockData> snapshot, String symbol) {
+        for (stocks.models.StockData stock : snapshot) {
+            if (symbol.equals(stock.getSymbol())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, StockData> toViewModel(List<stocks.models.StockData> snapshot) {
+        Map<String, StockData> view = new LinkedHashMap<>();
+        for (stocks.models.StockData stock : snapshot) {
+            if (view.size() >= 50) break; // Limit to top 50
+            if (stock.getSymbol() != null && !stock.getSymbol().isEmpty()) {
+                view.put(stock.getSymbol(), new StockData(
+                    stock.getName(), stock.getPrice(), stock.getChange(), stock.getChangePercent(),
+                    stock.getVolume(), stock.getAvgVolume(), stock.getMarketCap(), stock.getPeRatio()
+                ));
+            }
+        }
+        return view;
+    }
+
     private Map<String, StockData> fetchStocks(String url) {
         Map<String, StockData> stocks = new LinkedHashMap<>();
         
         try {
-            Document doc = Jsoup.connect(url)
+            long start = System.nanoTime();
+            Connection.Response response = Jsoup.connect(url)
                               .userAgent("Mozilla/5.0")
-                              .get();
+                              .execute();
+            StocksMetrics.recordSince(StocksMetrics.YAHOO_MARKETS.fetch, start);
+
+            start = System.nanoTime();
+            Document doc = response.parse();
             
             Elements stockRows = doc.select("table tbody tr");
             
@@ -88,8 +189,10 @@ public class Stocks {
                     continue; // Skip problematic entries
                 }
             }
+            StocksMetrics.recordSince(StocksMetrics.YAHOO_MARKETS.parse, start);
         } catch (IOException e) {
-            e.printStackTrace();
+            StocksMetrics.YAHOO_MARKETS.errors.increment();
+            logger.log(Level.WARNING, String.format("Error fetching %s: %s", url, e.getMessage()));
         }
         
         return stocks;
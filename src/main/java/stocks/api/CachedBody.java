@@ -0,0 +1,98 @@
+package stocks.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * A response body prepared once and served many times: kept both as is and
+ * gzip-compressed, with a strong ETag derived from the content. Serving it is
+ * a header check and a byte copy.
+ */
+public final class CachedBody {
+
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final String etag;
+
+    private CachedBody(byte[] identity, byte[] gzip, String etag) {
+        this.identity = identity;
+        this.gzip = gzip;
+        this.etag = etag;
+    }
+
+    public static CachedBody of(byte[] body) {
+        return of(body, null);
+    }
+
+    /**
+     * As {@link #of(byte[])}, with the ETag prefixed by {@code version}, e.g. a
+     * snapshot version. The content hash stays in the tag so it remains unique
+     * even if the version counter starts over.
+     */
+    public static CachedBody of(byte[] body, String version) {
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(body);
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String tag = HexFormat.of().formatHex(digest, 0, 12);
+            if (version != null) {
+                tag = version + "-" + tag;
+            }
+            return new CachedBody(body, compressed.toByteArray(), tag);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error preparing response body", e);
+        }
+    }
+
+    /**
+     * 304 if the client already has this body, otherwise the gzip or the plain
+     * bytes depending on Accept-Encoding. The two encodings get distinct ETags,
+     * as strong validators must.
+     */
+    public Response respond(String mediaType, HttpHeaders headers) {
+        String identityTag = '"' + etag + '"';
+        String gzipTag = '"' + etag + "-gz\"";
+        String ifNoneMatch = headers.getHeaderString(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(identityTag) || tag.equals(gzipTag)) {
+                    return Response.notModified().tag(tag.equals(gzipTag) ? etag + "-gz" : etag)
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+                }
+            }
+        }
+
+        String acceptEncoding = headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+        boolean useGzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        Response.ResponseBuilder response = Response.ok(useGzip ? gzip : identity, mediaType)
+                .header(HttpHeaders.ETAG, useGzip ? gzipTag : identityTag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                // Clients may keep it but must check back; the check is usually a 304
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (useGzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.build();
+    }
+
+    public int size() {
+        return identity.length;
+    }
+
+    public int compressedSize() {
+        return gzip.length;
+    }
+}
@@ -1,32 +1,30 @@
 package stocks.api;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import org.eclipse.microprofile.graphql.DefaultValue;
 import org.eclipse.microprofile.graphql.GraphQLApi;
 import org.eclipse.microprofile.graphql.Mutation;
 import org.eclipse.microprofile.graphql.Name;
 import org.eclipse.microprofile.graphql.Query;
-import org.redisson.api.RMapCache;
-import org.redisson.api.RedissonClient;
-
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.inject.Inject;
 import stocks.models.ChatData;
+import stocks.models.ChatFeed;
+import stocks.models.ChatPage;
+import stocks.services.AIReplyService;
+import stocks.services.ChatStore;
 
 @GraphQLApi
 public class ChatApi {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Inject
-    RedissonClient redissonClient;
+    ChatStore chatStore;
 
     @Inject
-    ObjectMapper objectMapper;
+    AIReplyService aiReplyService;
 
     /**
      * Retrieve all chat messages for a given user.
@@ -36,30 +34,28 @@ public class ChatApi {
     @Query("getChatsByUser")
     public List<ChatData> getChatsByUser(@Name("email") String email) {
         try {
-            RMapCache<String, String> cache = redissonClient.getMapCache("chatsCache");
-            List<ChatData> result = new ArrayList<>();
-
-            // Iterate through each conversation
-            for (String chatId : cache.keySet()) {
-                String json = cache.get(chatId);
-                if (json == null) continue;
-                List<ChatData> conversation = objectMapper.readValue(json, new TypeReference<List<ChatData>>() {});
-                
-                // Collect messages where the user is involved
-                for (ChatData msg : conversation) {
-                    if (email.equals(msg.getSenderEmail()) ||
-                       (msg.getRecipientEmail() != null && email.equals(msg.getRecipientEmail()))) {
-                        result.add(msg);
-                    }
-                }
-            }
-
-            return result;
+            // Only the user's own conversations are read, via the per-user index
+            return chatStore.findByUser(email);
         } catch (Exception e) {
             throw new RuntimeException("Error fetching chats for user", e);
         }
     }
 
+    /**
+     * Latest messages across all of a user's conversations, newest first.
+     * Omit {@code before} for the first page, then pass each page's nextCursor.
+     */
+    @Query("getChatFeed")
+    public ChatFeed getChatFeed(@Name("email") String email,
+                                @Name("before") String before,
+                                @Name("limit") @DefaultValue("50") int limit) {
+        try {
+            return chatStore.feed(email, before, Math.min(limit, MAX_PAGE_SIZE));
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching chat feed", e);
+        }
+    }
+
     /**
      * Send a message. If a conversation between the sender and recipient already exists,
      * it will use the same chatId. If not, it will create a new one.
@@ -73,11 +69,9 @@ public class ChatApi {
                               @Name("message") String message,
                               @Name("isAI") boolean isAI) {
         try {
-            RMapCache<String, String> cache = redissonClient.getMapCache("chatsCache");
-
             // If it's AI chat, the recipientEmail is always "AI"
             if (isAI) {
-                recipientEmail = "AI";
+                recipientEmail = AIReplyService.AI_SENDER;
             } else {
                 if (recipientEmail == null || recipientEmail.isEmpty()) {
                     throw new RuntimeException("recipientEmail must be provided for user-to-user chats");
@@ -85,23 +79,17 @@ public class ChatApi {
             }
 
             // Create a stable chatId using sorted emails
-            String chatId = generateChatId(senderEmail, recipientEmail);
+            String chatId = ChatStore.chatIdFor(senderEmail, recipientEmail);
 
-            // Try to fetch existing conversation
-            String existingConversationJson = cache.get(chatId);
-            List<ChatData> conversation;
-            if (existingConversationJson != null) {
-                conversation = objectMapper.readValue(existingConversationJson, new TypeReference<List<ChatData>>() {});
-            } else {
-                conversation = new ArrayList<>();
-            }
-
-            // Add the new message
+            // Append the new message to the conversation log
             ChatData chat = new ChatData(chatId, senderEmail, recipientEmail, message, isAI);
-            conversation.add(chat);
+            chatStore.append(chat);
 
-            // Store the updated conversation back into the cache
-            cache.put(chatId, objectMapper.writeValueAsString(conversation), 30, TimeUnit.DAYS);
+            // The reply is generated in the background; clients can watch it arrive
+            // on /api/chats/ai/stream and it is appended to the log once complete
+            if (isAI) {
+                aiReplyService.start(chatId, senderEmail);
+            }
 
             return "Message sent successfully";
         } catch (Exception e) {
@@ -113,41 +101,30 @@ public class ChatApi {
 public List<ChatData> getChatsByParticipants(@Name("senderEmail") String senderEmail, 
                                               @Name("recipientEmail") String recipientEmail) {
     try {
-        RMapCache<String, String> cache = redissonClient.getMapCache("chatsCache");
-        List<ChatData> result = new ArrayList<>();
-
         // Generate the chatId for the given participants
-        String chatId = generateChatId(senderEmail, recipientEmail);
-        
-        // Fetch the conversation for this chatId
-        String json = cache.get(chatId);
-        if (json == null) {
-            return result; // Return empty if no conversation exists
-        }
+        String chatId = ChatStore.chatIdFor(senderEmail, recipientEmail);
 
-        // Convert the stored conversation data into List<ChatData>
-        List<ChatData> conversation = objectMapper.readValue(json, new TypeReference<List<ChatData>>() {});
-
-        // Add all messages from the conversation
-        result.addAll(conversation);
-
-        return result;
+        // Empty if no conversation exists
+        return chatStore.readAll(chatId);
     } catch (Exception e) {
         throw new RuntimeException("Error fetching chats for participants", e);
     }
 }
 
-
     /**
-     * Generate a stable chatId for two participants by sorting their identifiers.
-     * For user-to-user: "alice@example.com" and "bob@example.com"
-     * chatId might look like: "alice@example.com:bob@example.com"
-     * For user-to-AI: "alice@example.com" and "AI"
-     * chatId might look like: "AI:alice@example.com" (alphabetically sorted)
+     * Page backwards through a conversation. Omit {@code before} for the latest
+     * messages, then pass each page's nextCursor to get the one before it.
      */
-    private String generateChatId(String user1, String user2) {
-        return Stream.of(user1, user2)
-                     .sorted()
-                     .collect(Collectors.joining(":"));
+    @Query("getChatPage")
+    public ChatPage getChatPage(@Name("senderEmail") String senderEmail,
+                                @Name("recipientEmail") String recipientEmail,
+                                @Name("before") Integer before,
+                                @Name("limit") @DefaultValue("50") int limit) {
+        try {
+            String chatId = ChatStore.chatIdFor(senderEmail, recipientEmail);
+            return chatStore.page(chatId, before, Math.min(limit, MAX_PAGE_SIZE));
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching chat page", e);
+        }
     }
 }
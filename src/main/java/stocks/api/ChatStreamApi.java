@@ -0,0 +1,56 @@
+package stocks.api;
+
+import java.util.List;
+
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import stocks.models.ChatData;
+import stocks.services.AIReplyService;
+import stocks.services.ChatStore;
+
+/**
+ * Server-sent events for AI replies. After {@code sendMessage(isAI: true)} the
+ * client opens {@code /api/chats/ai/stream?email=...} and receives the reply
+ * as it is generated.
+ */
+@Path("/api/chats/ai")
+public class ChatStreamApi {
+
+    @Inject
+    AIReplyService aiReplyService;
+
+    @Inject
+    ChatStore chatStore;
+
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.TEXT_PLAIN)
+    @Blocking // the finished-reply fallback reads Redis synchronously
+    public Multi<String> stream(@QueryParam("email") String email) {
+        if (email == null || email.isEmpty()) {
+            throw new BadRequestException("email is required");
+        }
+        String chatId = ChatStore.chatIdFor(email, AIReplyService.AI_SENDER);
+        Multi<String> reply = aiReplyService.inFlight(chatId);
+        if (reply != null) {
+            return reply;
+        }
+
+        // Nothing generating: the reply already finished, send it whole
+        List<ChatData> latest = chatStore.page(chatId, null, 1).getMessages();
+        if (!latest.isEmpty() && AIReplyService.AI_SENDER.equals(latest.get(0).getSenderEmail())) {
+            return Multi.createFrom().item(latest.get(0).getMessage());
+        }
+        return Multi.createFrom().empty();
+    }
+}
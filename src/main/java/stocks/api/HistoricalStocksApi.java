@@ -1,39 +1,63 @@
 package stocks.api;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import org.eclipse.microprofile.graphql.GraphQLApi;
 import org.eclipse.microprofile.graphql.Name;
 import org.eclipse.microprofile.graphql.Query;
-import org.redisson.Redisson;
 import org.redisson.api.RMapCache;
 import org.redisson.api.RedissonClient;
-import org.redisson.config.Config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.inject.Inject;
 import stocks.models.HistoricalStockData;
 import stocks.scrappers.HistoricalStockScraper;
+import stocks.services.BatchLoader;
+import stocks.services.CacheBatch;
+import stocks.services.CacheBatches;
+import stocks.services.HotSymbols;
+import stocks.services.MarketContextAssembler;
+import stocks.services.StocksMetrics;
 
 @GraphQLApi
 public class HistoricalStocksApi {
+    private static final Logger logger = Logger.getLogger(HistoricalStocksApi.class.getName());
 
-    private static final RedissonClient redissonClient;
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    static {
-        Config config = new Config();
-        config.useSingleServer()
-                .setAddress("redis://localhost:6379")
-                .setConnectionPoolSize(10)
-                .setConnectionMinimumIdleSize(2);
-        redissonClient = Redisson.create(config);
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    RequestLoaders loaders;
+
+    @Inject
+    CacheBatches cacheBatches;
+
+    @Inject
+    HotSymbols hotSymbols;
+
+    private record HistoryKey(String symbol, LocalDate start, LocalDate end, String cacheKey) {
     }
 
+    /**
+     * All ranges requested by one query are looked up in Redis with a single
+     * multi-get; only the misses are scraped, each distinct range once and
+     * concurrently with the others.
+     */
     @Query("historicalData")
-    public List<HistoricalStockData> getHistoricalData(
+    public CompletionStage<List<HistoricalStockData>> getHistoricalData(
         @Name("symbol") String symbol,
         @Name("startDate") String startDate,
         @Name("endDate") String endDate
@@ -44,30 +68,53 @@ public class HistoricalStocksApi {
 
         LocalDate start = LocalDate.parse(startDate);
         LocalDate end = LocalDate.parse(endDate);
+        hotSymbols.record(symbol);
 
-        String cacheKey = generateCacheKey(symbol, startDate, endDate);
-        return getCachedResponse(cacheKey, symbol, start, end);
+        HistoryKey key = new HistoryKey(symbol, start, end, generateCacheKey(symbol, startDate, endDate));
+        // Resolve both loaders now: the request scope is not active on the thread completing the lookup
+        BatchLoader<HistoryKey, List<HistoricalStockData>> fresh = loaders.perKey("historicalFresh", this::fetchFresh);
+        return loaders.bulk("historicalCached", this::getCachedResponses).load(key)
+                .thenCompose(cached -> cached != null ? CompletableFuture.completedFuture(cached) : fresh.load(key));
     }
 
-    private List<HistoricalStockData> getCachedResponse(String cacheKey, String symbol, LocalDate start, LocalDate end) {
-        try {
-            RMapCache<String, String> cache = redissonClient.getMapCache("historicalStocksCache");
-
-            String cachedData = cache.get(cacheKey);
-
-            if (cachedData != null) {
-                System.out.println("Using data from Redis cache for key: " + cacheKey);
-                return objectMapper.readValue(
-                    cachedData, 
+    private Map<HistoryKey, List<HistoricalStockData>> getCachedResponses(Set<HistoryKey> keys) throws Exception {
+        RMapCache<String, String> cache = redissonClient.getMapCache("historicalStocksCache");
+        Set<String> cacheKeys = keys.stream().map(HistoryKey::cacheKey).collect(Collectors.toSet());
+        Map<String, String> cachedData = cache.getAll(cacheKeys);
+
+        Map<HistoryKey, List<HistoricalStockData>> found = new HashMap<>();
+        for (HistoryKey key : keys) {
+            String json = cachedData.get(key.cacheKey());
+            StocksMetrics.HISTORICAL.record(json != null);
+            if (json != null) {
+                logger.log(Level.FINE, () -> String.format("Using data from Redis cache for key: %s", key.cacheKey()));
+                found.put(key, objectMapper.readValue(
+                    json,
                     objectMapper.getTypeFactory().constructCollectionType(List.class, HistoricalStockData.class)
-                );
+                ));
             }
+        }
+        return found;
+    }
 
-            System.out.println("Fetching fresh data from source for key: " + cacheKey);
-            List<HistoricalStockData> freshData = HistoricalStockScraper.fetchHistoricalData(symbol, start, end);
+    private List<HistoricalStockData> fetchFresh(HistoryKey key) {
+        try {
+            logger.log(Level.FINE, () -> String.format("Fetching fresh data from source for key: %s", key.cacheKey()));
+            List<HistoricalStockData> freshData = HistoricalStockScraper.fetchHistoricalData(key.symbol(), key.start(), key.end());
 
             // Cache the result for 4 hours
-            cache.put(cacheKey, objectMapper.writeValueAsString(freshData), 4, TimeUnit.HOURS);
+            CacheBatch writes = cacheBatches.create();
+            writes.put("historicalStocksCache", key.cacheKey(), objectMapper.writeValueAsString(freshData), 4, TimeUnit.HOURS);
+
+            // Ranges reaching the present also become the symbol's latest bars for AI prompt context
+            // (the scraper returns newest first)
+            if (!key.end().isBefore(LocalDate.now().minusDays(7)) && !freshData.isEmpty()) {
+                List<HistoricalStockData> newest =
+                        freshData.subList(0, Math.min(MarketContextAssembler.LATEST_HISTORY_BARS, freshData.size()));
+                writes.put(MarketContextAssembler.LATEST_HISTORY_CACHE, key.symbol().toUpperCase(),
+                        objectMapper.writeValueAsString(newest), 4, TimeUnit.HOURS);
+            }
+            writes.flush();
 
             return freshData;
         } catch (Exception e) {
@@ -0,0 +1,45 @@
+package stocks.api;
+
+import java.util.List;
+
+import org.eclipse.microprofile.graphql.DefaultValue;
+import org.eclipse.microprofile.graphql.Description;
+import org.eclipse.microprofile.graphql.GraphQLApi;
+import org.eclipse.microprofile.graphql.Name;
+import org.eclipse.microprofile.graphql.Query;
+
+import jakarta.inject.Inject;
+import stocks.models.LeaderboardEntry;
+import stocks.models.LeaderboardPeriod;
+import stocks.services.LeaderboardService;
+
+@GraphQLApi
+public class LeaderboardApi {
+
+    @Inject
+    LeaderboardService leaderboardService;
+
+    @Query("leaderboard")
+    @Description("Top players by coins earned in the period.")
+    public List<LeaderboardEntry> getLeaderboard(
+            @Name("period") @DefaultValue("ALL_TIME") LeaderboardPeriod period,
+            @Name("limit") @DefaultValue("10") int limit) {
+        try {
+            return leaderboardService.top(period, limit);
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching leaderboard", e);
+        }
+    }
+
+    @Query("leaderboardRank")
+    @Description("A player's rank and coins in the period, or null if they have not scored.")
+    public LeaderboardEntry getLeaderboardRank(
+            @Name("email") String email,
+            @Name("period") @DefaultValue("ALL_TIME") LeaderboardPeriod period) {
+        try {
+            return leaderboardService.rankOf(period, email);
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching leaderboard rank", e);
+        }
+    }
+}
@@ -1,33 +1,74 @@
 package stocks.api;
 
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.eclipse.microprofile.graphql.GraphQLApi;
 import org.eclipse.microprofile.graphql.Query;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.smallrye.graphql.api.Context;
 import jakarta.inject.Inject;
+import stocks.services.MarketContextAssembler;
 import stocks.services.PredictionResponse;
 import stocks.services.PredictorService;
 
 @GraphQLApi
 public class PredictorApi {
+    private static final Logger logger = Logger.getLogger(PredictorApi.class.getName());
 
     @Inject
     PredictorService predictorService;
 
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    RequestLoaders loaders;
+
+    private record PredictionKey(String symbol, String startDate, String endDate) {
+    }
+
+    /**
+     * Identical predictions in one query are computed once; different ones run
+     * concurrently.
+     */
     @Query("predictStockPrice")
     public CompletionStage<PredictionResponse> predictStockPrice(String symbol, String startDate, String endDate, Context context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                return predictorService.predictStockPrice(symbol, startDate, endDate);
-            } catch (Exception e) {
-                // You might want to handle exceptions more gracefully
-                PredictionResponse errorResponse = new PredictionResponse();
-                errorResponse.setError("Error: " + e.getMessage());
-                return errorResponse;
-            }
-        });
+        return loaders.perKey("predictions", this::predict)
+                .load(new PredictionKey(symbol, startDate, endDate));
+    }
+
+    private PredictionResponse predict(PredictionKey key) {
+        try {
+            PredictionResponse response = predictorService.predictStockPrice(key.symbol(), key.startDate(), key.endDate());
+            remember(response);
+            return response;
+        } catch (Exception e) {
+            // You might want to handle exceptions more gracefully
+            PredictionResponse errorResponse = new PredictionResponse();
+            errorResponse.setError("Error: " + e.getMessage());
+            return errorResponse;
+        }
+    }
+
+    // Keeps the latest prediction per symbol around for AI prompt context
+    private void remember(PredictionResponse response) {
+        try {
+            RMapCache<String, String> cache = redissonClient.getMapCache(MarketContextAssembler.LATEST_PREDICTIONS_CACHE);
+            cache.fastPutAsync(response.getSymbol().toUpperCase(), objectMapper.writeValueAsString(response),
+                    1, TimeUnit.DAYS);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not cache prediction for %s: %s",
+                    response.getSymbol(), e.getMessage()));
+        }
     }
 }
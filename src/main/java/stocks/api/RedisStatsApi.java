@@ -0,0 +1,63 @@
+package stocks.api;
+
+import java.util.Map;
+
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodes;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import stocks.config.RedisConfig;
+import stocks.models.RedisBatchStats;
+import stocks.models.RedisPoolStats;
+import stocks.services.CacheBatches;
+
+@Path("/api/redis")
+public class RedisStatsApi {
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    RedisConfig redisConfig;
+
+    @Inject
+    CacheBatches cacheBatches;
+
+    @GET
+    @Path("/pool")
+    @Produces(MediaType.APPLICATION_JSON)
+    public RedisPoolStats getPoolStats() {
+        RedisPoolStats stats = new RedisPoolStats();
+        stats.setConnectionPoolSize(redisConfig.getConnectionPoolSize());
+        stats.setConnectionMinimumIdleSize(redisConfig.getConnectionMinimumIdleSize());
+        stats.setSubscriptionConnectionPoolSize(redisConfig.getSubscriptionConnectionPoolSize());
+        stats.setSharedEventLoop(redissonClient.getConfig().getEventLoopGroup() != null);
+
+        try {
+            Map<String, String> clients = redissonClient.getRedisNodes(RedisNodes.SINGLE)
+                    .getInstance().info(RedisNode.InfoSection.CLIENTS);
+            stats.setConnectedClients(parseCount(clients.get("connected_clients")));
+            stats.setBlockedClients(parseCount(clients.get("blocked_clients")));
+            stats.setMaxClients(parseCount(clients.get("maxclients")));
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading Redis client stats", e);
+        }
+        return stats;
+    }
+
+    @GET
+    @Path("/batches")
+    @Produces(MediaType.APPLICATION_JSON)
+    public RedisBatchStats getBatchStats() {
+        return cacheBatches.stats();
+    }
+
+    private static long parseCount(String value) {
+        return value != null ? Long.parseLong(value.trim()) : 0;
+    }
+}
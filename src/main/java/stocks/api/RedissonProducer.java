@@ -1,23 +1,78 @@
 package stocks.api;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.JsonJacksonCodec;
 import org.redisson.config.Config;
 
+import io.vertx.core.Vertx;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
 import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import stocks.config.RedisConfig;
 
+/**
+ * The one Redisson client of the application. Everything that talks to Redis
+ * injects it, so the JVM has a single connection pool and, by default, no
+ * event loop threads of its own: Redis I/O runs on the Vert.x event loops
+ * Quarkus already has.
+ */
 @ApplicationScoped
 public class RedissonProducer {
+    private static final Logger logger = Logger.getLogger(RedissonProducer.class.getName());
+
+    @Inject
+    RedisConfig redisConfig;
+
+    @Inject
+    Vertx vertx;
 
     @Produces
     @ApplicationScoped
     public RedissonClient produceRedissonClient() {
+        Config config = config();
+        logger.log(Level.INFO, String.format("Connecting to Redis at %s (pool %d, min idle %d, shared event loop %b)",
+                redisConfig.getAddress(), redisConfig.getConnectionPoolSize(),
+                redisConfig.getConnectionMinimumIdleSize(), config.getEventLoopGroup() != null));
+        return Redisson.create(config);
+    }
+
+    /** The client settings from {@link RedisConfig}. */
+    Config config() {
         Config config = new Config();
         config.useSingleServer()
-                .setAddress("redis://localhost:6379")
-                .setConnectionPoolSize(10)
-                .setConnectionMinimumIdleSize(2);
-        return Redisson.create(config);
+                .setAddress(redisConfig.getAddress())
+                .setPassword(redisConfig.getPassword())
+                .setDatabase(redisConfig.getDatabase())
+                .setConnectionPoolSize(redisConfig.getConnectionPoolSize())
+                .setConnectionMinimumIdleSize(redisConfig.getConnectionMinimumIdleSize())
+                .setSubscriptionConnectionPoolSize(redisConfig.getSubscriptionConnectionPoolSize())
+                .setTimeout(redisConfig.getTimeoutMillis());
+        config.setThreads(redisConfig.getThreads());
+
+        switch (redisConfig.getCodec().toLowerCase()) {
+            case "json" -> config.setCodec(new JsonJacksonCodec());
+            case "string" -> config.setCodec(new StringCodec());
+            case "default" -> { }
+            default -> throw new IllegalArgumentException("Unknown stocks.redis.codec: " + redisConfig.getCodec());
+        }
+
+        // Redisson's default NIO transport can only share an NIO event loop group
+        if (redisConfig.isShareEventLoop() && !vertx.isNativeTransportEnabled()) {
+            config.setEventLoopGroup(vertx.nettyEventLoopGroup());
+        } else {
+            config.setNettyThreads(redisConfig.getNettyThreads());
+        }
+        return config;
+    }
+
+    // A shared event loop group is left running: it belongs to Vert.x
+    void closeRedissonClient(@Disposes RedissonClient redissonClient) {
+        redissonClient.shutdown();
     }
 }
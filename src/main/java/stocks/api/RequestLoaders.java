@@ -0,0 +1,39 @@
+package stocks.api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.RequestScoped;
+import stocks.services.BatchLoader;
+
+/**
+ * The batch loaders of one GraphQL request, by name. Resolvers ask for their
+ * loader here instead of calling scrapers or Redis directly, so a query that
+ * mentions the same symbol in several fields loads it once and different
+ * symbols are loaded together.
+ */
+@RequestScoped
+public class RequestLoaders {
+
+    @ConfigProperty(name = "stocks.graphql.batch-window-ms", defaultValue = "2")
+    long windowMillis;
+
+    private final Map<String, BatchLoader<?, ?>> loaders = new ConcurrentHashMap<>();
+
+    /** A loader whose keys are fetched together by {@code bulkFunction}. */
+    @SuppressWarnings("unchecked")
+    public <K, V> BatchLoader<K, V> bulk(String name, BatchLoader.BulkFunction<K, V> bulkFunction) {
+        return (BatchLoader<K, V>) loaders.computeIfAbsent(name,
+                key -> BatchLoader.bulk(bulkFunction, Infrastructure.getDefaultWorkerPool(), windowMillis));
+    }
+
+    /** A loader whose distinct keys are fetched one call each, concurrently. */
+    @SuppressWarnings("unchecked")
+    public <K, V> BatchLoader<K, V> perKey(String name, BatchLoader.KeyFunction<K, V> keyFunction) {
+        return (BatchLoader<K, V>) loaders.computeIfAbsent(name,
+                key -> BatchLoader.perKey(keyFunction, Infrastructure.getDefaultWorkerPool(), windowMillis));
+    }
+}
@@ -1,59 +1,71 @@
 package stocks.api;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
-import org.redisson.Redisson;
-import org.redisson.api.RMapCache;
-import org.redisson.api.RedissonClient;
-import org.redisson.config.Config;
-
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import stocks.config.Upstreams;
 import stocks.models.StockData;
 import stocks.scrappers.StockScraper;
+import stocks.services.LeaderLeases;
+import stocks.services.LogSampler;
+import stocks.services.MarketSnapshots;
+import stocks.services.StocksMetrics;
 
 @Singleton
 @Path("/api/stocks")
 public class StocksApi {
-    private static final String BASE_URL = "https://finance.yahoo.com/markets/stocks/";
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
-    
-    private final RedissonClient redissonClient;
-    private final ObjectMapper objectMapper;
-    private ScheduledExecutorService scheduler;
+    private static final Logger logger = Logger.getLogger(StocksApi.class.getName());
+    private static final List<String> CATEGORIES = List.of("most-active", "trending", "gainers", "losers");
+    private static final String LEASE_PREFIX = "scrape:";
+    // Field-level change lines: a few per minute for spot checks, the rest only counted
+    private static final LogSampler updateSampler = new LogSampler(20, 1, TimeUnit.MINUTES);
     
-    public StocksApi() {
-        Config config = new Config();
-        config.useSingleServer()
-                .setAddress("redis://localhost:6379")
-                .setConnectionPoolSize(10)
-                .setConnectionMinimumIdleSize(2);
-        this.redissonClient = Redisson.create(config);
-        this.objectMapper = new ObjectMapper();
+    @Inject
+    LeaderLeases leaderLeases;
+
+    @Inject
+    MarketSnapshots marketSnapshots;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    // Each snapshot version serialized once, shared by every unfiltered request for the category
+    private record SerializedSnapshot(long version, CachedBody body) {
     }
+
+    private final Map<String, SerializedSnapshot> serialized = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
     
     @PostConstruct
     public void init() {
         scheduler = Executors.newScheduledThreadPool(1);
         scheduler.scheduleAtFixedRate(this::updateAllStocks, 0, 1, TimeUnit.MINUTES);
-        String timestamp = LocalDateTime.now().format(formatter);
-        System.out.println(String.format("[%s] Stock update scheduler initialized", timestamp));
+        logger.log(Level.INFO, "Stock update scheduler initialized");
     }
     
     @PreDestroy
@@ -63,161 +75,184 @@ public class StocksApi {
             if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
                 scheduler.shutdownNow();
             }
-            redissonClient.shutdown();
+            // Let another replica take over without waiting for the leases to expire
+            CATEGORIES.forEach(category -> leaderLeases.release(LEASE_PREFIX + category));
         } catch (InterruptedException e) {
             scheduler.shutdownNow();
             Thread.currentThread().interrupt();
         }
     }
     
+    /**
+     * Refreshes the categories this node leads. Every replica runs this each
+     * minute, but a category is scraped only by the holder of its lease; the
+     * others just renew nothing and serve the published snapshot.
+     */
     private void updateAllStocks() {
+        long start = System.nanoTime();
         try {
-            updateStockCategory("most-active", BASE_URL + "most-active/", null);
-            updateStockCategory("trending", BASE_URL + "trending/", null);
-            updateStockCategory("gainers", BASE_URL + "gainers/", null);
-            updateStockCategory("losers", BASE_URL + "losers/", null);
-        } catch (Exception e) {
-            String timestamp = LocalDateTime.now().format(formatter);
-            System.err.println(String.format("[%s] Error updating stocks: %s", 
-                timestamp, e.getMessage()));
-        }
-    }
-    
-    private void updateStockCategory(String category, String url, String filterSymbol) {
-        try {
-            getCachedResponse(category, url, filterSymbol);
+            Map<String, Long> tokens = new LinkedHashMap<>();
+            Map<String, List<StockData>> fresh = new LinkedHashMap<>();
+            for (String category : CATEGORIES) {
+                long token = leaderLeases.tryAcquire(LEASE_PREFIX + category);
+                if (token == 0) {
+                    continue;
+                }
+                try {
+                    fresh.put(category, StockScraper.fetchStocks(Upstreams.yahoo("/markets/stocks/" + category + "/"), null));
+                    tokens.put(category, token);
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, String.format("Error updating %s: %s", category, e.getMessage()));
+                }
+            }
+            if (fresh.isEmpty()) {
+                return;
+            }
+
+            Map<String, MarketSnapshots.Snapshot> previous = marketSnapshots.readAll(fresh.keySet());
+            Map<String, List<StockData>> merged = new LinkedHashMap<>();
+            fresh.forEach((category, stocks) -> {
+                MarketSnapshots.Snapshot last = previous.get(category);
+                merged.put(category, merge(category, stocks, last != null ? last.stocks() : null));
+            });
+            for (String fenced : marketSnapshots.publishAll(merged, tokens)) {
+                logger.log(Level.WARNING, String.format("Lost the %s lease before publishing; snapshot dropped", fenced));
+            }
+            long suppressed = updateSampler.drainSuppressed();
+            if (suppressed > 0 && logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, String.format("%d more field updates not logged", suppressed));
+            }
         } catch (Exception e) {
-            String timestamp = LocalDateTime.now().format(formatter);
-            System.err.println(String.format("[%s] Error updating %s: %s", 
-                timestamp, category, e.getMessage()));
+            logger.log(Level.WARNING, String.format("Error updating stocks: %s", e.getMessage()));
+        } finally {
+            StocksMetrics.recordSince(StocksMetrics.REFRESH_CYCLE, start);
         }
     }
     
     @GET
     @Path("/most-active")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<StockData> getMostActive(@QueryParam("symbol") String symbol) {
-        return getCachedResponse("most-active", BASE_URL + "most-active/", symbol);
+    public Response getMostActive(@QueryParam("symbol") String symbol, @Context HttpHeaders headers) {
+        return getCachedResponse("most-active", Upstreams.yahoo("/markets/stocks/most-active/"), symbol, headers);
     }
     
     @GET
     @Path("/trending")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<StockData> getTrending(@QueryParam("symbol") String symbol) {
-        return getCachedResponse("trending", BASE_URL + "trending/", symbol);
+    public Response getTrending(@QueryParam("symbol") String symbol, @Context HttpHeaders headers) {
+        return getCachedResponse("trending", Upstreams.yahoo("/markets/stocks/trending/"), symbol, headers);
     }
     
     @GET
     @Path("/gainers")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<StockData> getGainers(@QueryParam("symbol") String symbol) {
-        return getCachedResponse("gainers", BASE_URL + "gainers/", symbol);
+    public Response getGainers(@QueryParam("symbol") String symbol, @Context HttpHeaders headers) {
+        return getCachedResponse("gainers", Upstreams.yahoo("/markets/stocks/gainers/"), symbol, headers);
     }
     
     @GET
     @Path("/losers")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<StockData> getLosers(@QueryParam("symbol") String symbol) {
-        return getCachedResponse("losers", BASE_URL + "losers/", symbol);
+    public Response getLosers(@QueryParam("symbol") String symbol, @Context HttpHeaders headers) {
+        return getCachedResponse("losers", Upstreams.yahoo("/markets/stocks/losers/"), symbol, headers);
     }
     
-    private void logUpdate(String symbol, String field, String oldValue, String newValue) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        System.out.println(String.format("[%s] Updating %s - %s: %s -> %s", 
-            timestamp, symbol, field, oldValue, newValue));
+    // Called for every changed field of every stock each minute: guarded before anything is formatted
+    private static void logUpdate(String symbol, String field, String oldValue, String newValue) {
+        if (logger.isLoggable(Level.FINE) && updateSampler.sample()) {
+            logger.log(Level.FINE, String.format("Updating %s - %s: %s -> %s", symbol, field, oldValue, newValue));
+        }
     }
     
-    private List<StockData> getCachedResponse(String key, String url, String filterSymbol) {
+    /**
+     * Serves the published snapshot, filtered to {@code filterSymbol} if given.
+     * The whole list is serialized once per snapshot version and answered from
+     * those bytes, or with a 304 when the client already has that version.
+     * Only before the first snapshot exists (or if Redis is unreachable) is the
+     * page scraped on the request path.
+     */
+    private Response getCachedResponse(String category, String url, String filterSymbol, HttpHeaders headers) {
+        MarketSnapshots.Snapshot current = null;
         try {
-            RMapCache<String, String> cache = redissonClient.getMapCache("stocksCache");
-            String cacheKey = key + (filterSymbol != null ? ":" + filterSymbol : "");
-            
-            List<StockData> freshData = StockScraper.fetchStocks(url, filterSymbol);
-            String cachedData = cache.get(cacheKey);
-            
-            if (cachedData != null) {
-                List<StockData> cachedStocks = objectMapper.readValue(
-                    cachedData, 
-                    new TypeReference<List<StockData>>() {}
-                );
-                
-                boolean hasUpdates = false;
-                
-                Map<String, StockData> cachedStocksMap = cachedStocks.stream()
-                    .collect(Collectors.toMap(StockData::getSymbol, stock -> stock));
-                    
-                for (StockData freshStock : freshData) {
-                    String symbol = freshStock.getSymbol();
-                    StockData cachedStock = cachedStocksMap.get(symbol);
-                    
-                    if (cachedStock != null) {
-                        if (!cachedStock.getPrice().equals(freshStock.getPrice())) {
-                            logUpdate(symbol, "price", cachedStock.getPrice(), freshStock.getPrice());
-                            cachedStock.setPrice(freshStock.getPrice());
-                            hasUpdates = true;
-                        }
-                        if (!cachedStock.getName().equals(freshStock.getName())) {
-                            logUpdate(symbol, "name", cachedStock.getName(), freshStock.getName());
-                            cachedStock.setName(freshStock.getName());
-                            hasUpdates = true;
-                        }
-                        if (!cachedStock.getChange().equals(freshStock.getChange())) {
-                            logUpdate(symbol, "change", cachedStock.getChange(), freshStock.getChange());
-                            cachedStock.setChange(freshStock.getChange());
-                            hasUpdates = true;
-                        }
-                        if (!cachedStock.getChangePercent().equals(freshStock.getChangePercent())) {
-                            logUpdate(symbol, "changePercent", cachedStock.getChangePercent(), freshStock.getChangePercent());
-                            cachedStock.setChangePercent(freshStock.getChangePercent());
-                            hasUpdates = true;
-                        }
-                        if (!cachedStock.getVolume().equals(freshStock.getVolume())) {
-                            logUpdate(symbol, "volume", cachedStock.getVolume(), freshStock.getVolume());
-                            cachedStock.setVolume(freshStock.getVolume());
-                            hasUpdates = true;
-                        }
-                        if (!cachedStock.getAvgVolume().equals(freshStock.getAvgVolume())) {
-                            logUpdate(symbol, "avgVolume", cachedStock.getAvgVolume(), freshStock.getAvgVolume());
-                            cachedStock.setAvgVolume(freshStock.getAvgVolume());
-                            hasUpdates = true;
-                        }
-                        if (!cachedStock.getMarketCap().equals(freshStock.getMarketCap())) {
-                            logUpdate(symbol, "marketCap", cachedStock.getMarketCap(), freshStock.getMarketCap());
-                            cachedStock.setMarketCap(freshStock.getMarketCap());
-                            hasUpdates = true;
-                        }
-                        if (!cachedStock.getPeRatio().equals(freshStock.getPeRatio())) {
-                            logUpdate(symbol, "peRatio", cachedStock.getPeRatio(), freshStock.getPeRatio());
-                            cachedStock.setPeRatio(freshStock.getPeRatio());
-                            hasUpdates = true;
-                        }
-                    } else {
-                        String timestamp = LocalDateTime.now().format(formatter);
-                        System.out.println(String.format("[%s] Adding new stock: %s", 
-                            timestamp, symbol));
-                        cachedStocks.add(freshStock);
-                        hasUpdates = true;
-                    }
-                }
-                
-                if (hasUpdates) {
-                    cache.put(cacheKey, objectMapper.writeValueAsString(cachedStocks), 
-                             20, TimeUnit.MILLISECONDS);
-                }
-                
-                return cachedStocks;
+            current = marketSnapshots.current(category);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not read %s snapshot: %s", category, e.getMessage()));
+        }
+        if (current == null) {
+            try {
+                return Response.ok(StockScraper.fetchStocks(url, filterSymbol), MediaType.APPLICATION_JSON).build();
+            } catch (Exception e) {
+                throw new RuntimeException("Error fetching data or interacting with Redis", e);
+            }
+        }
+        if (filterSymbol == null || filterSymbol.isEmpty()) {
+            return serialize(category, current).respond(MediaType.APPLICATION_JSON, headers);
+        }
+        return Response.ok(current.stocks().stream()
+            .filter(stock -> filterSymbol.equals(stock.getSymbol()))
+            .collect(Collectors.toList()), MediaType.APPLICATION_JSON).build();
+    }
+
+    private CachedBody serialize(String category, MarketSnapshots.Snapshot snapshot) {
+        return serialized.compute(category, (key, previous) -> {
+            // Version 0 marks a list published before versions existed; it may change under the same number
+            if (previous != null && snapshot.version() != 0 && previous.version() == snapshot.version()) {
+                StocksMetrics.STOCKS_BODIES.hits.increment();
+                return previous;
+            }
+            StocksMetrics.STOCKS_BODIES.misses.increment();
+            if (previous != null) {
+                StocksMetrics.STOCKS_BODIES.evictions.increment();
+            }
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(snapshot.stocks());
+                return new SerializedSnapshot(snapshot.version(), CachedBody.of(json, "v" + snapshot.version()));
+            } catch (Exception e) {
+                throw new RuntimeException("Error serializing " + category + " snapshot", e);
             }
-            
-            String timestamp = LocalDateTime.now().format(formatter);
-            System.out.println(String.format("[%s] Initial cache population for key: %s", 
-                timestamp, cacheKey));
-            cache.put(cacheKey, objectMapper.writeValueAsString(freshData), 
-                     24, TimeUnit.HOURS);
-            
+        }).body();
+    }
+    
+    /**
+     * The list to publish for a fresh scrape: {@code freshData} as scraped, so
+     * symbols that dropped out of the category are gone. {@code cachedStocks},
+     * the previous snapshot (or null), is only compared against to log what
+     * changed and is left untouched.
+     */
+    public static List<StockData> merge(String category, List<StockData> freshData, List<StockData> cachedStocks) {
+        if (cachedStocks == null) {
+            logger.log(Level.INFO, String.format("Initial snapshot for %s", category));
             return freshData;
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching data or interacting with Redis", e);
+        }
+        Map<String, StockData> cachedStocksMap = new HashMap<>();
+        for (StockData stock : cachedStocks) {
+            cachedStocksMap.put(stock.getSymbol(), stock);
+        }
+        for (StockData freshStock : freshData) {
+            String symbol = freshStock.getSymbol();
+            StockData cachedStock = cachedStocksMap.remove(symbol);
+            if (cachedStock == null) {
+                logger.log(Level.FINE, () -> String.format("Adding new stock: %s", symbol));
+                continue;
+            }
+            logIfChanged(symbol, "price", cachedStock.getPrice(), freshStock.getPrice());
+            logIfChanged(symbol, "name", cachedStock.getName(), freshStock.getName());
+            logIfChanged(symbol, "change", cachedStock.getChange(), freshStock.getChange());
+            logIfChanged(symbol, "changePercent", cachedStock.getChangePercent(), freshStock.getChangePercent());
+            logIfChanged(symbol, "volume", cachedStock.getVolume(), freshStock.getVolume());
+            logIfChanged(symbol, "avgVolume", cachedStock.getAvgVolume(), freshStock.getAvgVolume());
+            logIfChanged(symbol, "marketCap", cachedStock.getMarketCap(), freshStock.getMarketCap());
+            logIfChanged(symbol, "peRatio", cachedStock.getPeRatio(), freshStock.getPeRatio());
+        }
+        for (String symbol : cachedStocksMap.keySet()) {
+            logger.log(Level.FINE, () -> String.format("Dropping stock no longer in %s: %s", category, symbol));
+        }
+        return freshData;
+    }
+
+    private static void logIfChanged(String symbol, String field, String oldValue, String newValue) {
+        if (!Objects.equals(oldValue, newValue)) {
+            logUpdate(symbol, field, oldValue, newValue);
         }
     }
-}
\ No newline at end of file
+}
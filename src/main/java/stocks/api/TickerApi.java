@@ -1,22 +1,72 @@
 package stocks.api;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import org.eclipse.microprofile.graphql.Description;
 import org.eclipse.microprofile.graphql.GraphQLApi;
 import org.eclipse.microprofile.graphql.Query;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.inject.Inject;
 import stocks.models.TickerData;
 import stocks.scrappers.TickerDetailsScraper;
+import stocks.services.HotSymbols;
+import stocks.services.MarketContextAssembler;
 
 @GraphQLApi
 public class TickerApi {
+    private static final Logger logger = Logger.getLogger(TickerApi.class.getName());
+    private static final long TICKER_DETAILS_TTL_MINUTES = 15;
 
     @Inject
     TickerDetailsScraper tickerDetailsScraper;
 
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    RequestLoaders loaders;
+
+    @Inject
+    HotSymbols hotSymbols;
+
+    /**
+     * Every symbol in a query is scraped once, concurrently with the other
+     * symbols of the same query.
+     */
     @Query("getTickerDetails")
     @Description("Fetches detailed information for a given stock ticker symbol.")
-    public TickerData getTickerDetails(String symbol) {
-        return tickerDetailsScraper.fetchTickerDetails(symbol.toUpperCase());
+    public CompletionStage<TickerData> getTickerDetails(String symbol) {
+        hotSymbols.record(symbol);
+        return loaders.perKey("tickerDetails", this::fetch).load(symbol.toUpperCase());
+    }
+
+    private TickerData fetch(String upperSymbol) {
+        TickerData details = tickerDetailsScraper.fetchTickerDetails(upperSymbol);
+        remember(upperSymbol, details);
+        return details;
+    }
+
+    // Keeps the latest details around for AI prompt context
+    private void remember(String symbol, TickerData details) {
+        if (details == null) {
+            return;
+        }
+        try {
+            RMapCache<String, String> cache = redissonClient.getMapCache(MarketContextAssembler.TICKER_DETAILS_CACHE);
+            cache.fastPutAsync(symbol, objectMapper.writeValueAsString(details),
+                    TICKER_DETAILS_TTL_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not cache ticker details for %s: %s", symbol, e.getMessage()));
+        }
     }
 }
@@ -1,96 +1,120 @@
 package stocks.api;
 
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
+import org.eclipse.microprofile.graphql.DefaultValue;
+import org.eclipse.microprofile.graphql.Description;
 import org.eclipse.microprofile.graphql.GraphQLApi;
 import org.eclipse.microprofile.graphql.Mutation;
 import org.eclipse.microprofile.graphql.Name;
 import org.eclipse.microprofile.graphql.Query;
-import org.redisson.api.RList;
-import org.redisson.api.RMapCache;
-import org.redisson.api.RedissonClient;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.microprofile.graphql.Source;
 
 import jakarta.inject.Inject;
 import stocks.models.ChatData;
 import stocks.models.GameData;
 import stocks.models.UserData;
+import stocks.models.UserDirectoryPage;
+import stocks.services.ChatStore;
+import stocks.services.GameStore;
+import stocks.services.UserStore;
 
 @GraphQLApi
 public class UserApi {
 
     @Inject
-    RedissonClient redissonClient;
-    
+    UserStore userStore;
+
+    @Inject
+    GameStore gameStore;
+
+    @Inject
+    ChatStore chatStore;
+
     @Inject
-    ObjectMapper objectMapper;
+    RequestLoaders loaders;
+
+    private static final int MAX_EMAILS_PAGE = 1000;
+    private static final int MAX_DIRECTORY_PAGE = 100;
+    private static final int MAX_JOINED = 500;
 
     @Query("getAllUserEmails")
-public List<String> getAllUserEmails() {
+public List<String> getAllUserEmails(@Name("after") String after,
+                                     @Name("limit") @DefaultValue("1000") int limit) {
     try {
-        RMapCache<String, String> userCache = redissonClient.getMapCache("usersCache");
-        return userCache.keySet().stream()
-                .collect(Collectors.toList());
+        // Served from the sorted directory index, one page at a time
+        return userStore.emails(null, after, Math.max(1, Math.min(limit, MAX_EMAILS_PAGE)));
     } catch (Exception e) {
         throw new RuntimeException("Error fetching user emails", e);
     }
 }
 
-
-    @Query("getUser")
-    public UserData getUser(@Name("email") String email) {
+    /**
+     * Users ordered by email, optionally only those whose email starts with
+     * {@code prefix} (recipient autocomplete). Pass nextCursor as {@code after}
+     * for the following page.
+     */
+    @Query("userDirectory")
+    public UserDirectoryPage userDirectory(@Name("prefix") String prefix,
+                                           @Name("after") String after,
+                                           @Name("limit") @DefaultValue("20") int limit) {
         try {
-            RMapCache<String, String> userCache = redissonClient.getMapCache("usersCache");
-            String userDataJson = userCache.get(email);
-
-            if (userDataJson != null) {
-                UserData user = objectMapper.readValue(userDataJson, UserData.class);
-
-                // Fetch associated games
-                RList<String> gamesList = redissonClient.getList("games");
-                List<GameData> userGames = gamesList.stream()
-                        .map(gameJson -> {
-                            try {
-                                GameData game = objectMapper.readValue(gameJson, GameData.class);
-                                return game.getEmail().equals(email) ? game : null;
-                            } catch (Exception e) {
-                                return null;
-                            }
-                        })
-                        .filter(game -> game != null)
-                        .collect(Collectors.toList());
-                user.setGames(userGames);
-
-                // Fetch associated chats
-                RList<String> chatsList = redissonClient.getList("chats");
-                List<ChatData> userChats = chatsList.stream()
-                        .map(chatJson -> {
-                            try {
-                                ChatData chat = objectMapper.readValue(chatJson, ChatData.class);
-                                // Check if the user is the sender or the recipient
-                                return (chat.getSenderEmail().equals(email)
-                                        || (chat.getRecipientEmail() != null && chat.getRecipientEmail().equals(email)))
-                                        ? chat : null;
-                            } catch (Exception e) {
-                                return null;
-                            }
-                        })
-                        .filter(chat -> chat != null)
-                        .collect(Collectors.toList());
-                user.setChats(userChats);
-
-                return user;
-            }
-
-            throw new RuntimeException("User not found for email: " + email);
+            return userStore.directory(prefix, after, Math.max(1, Math.min(limit, MAX_DIRECTORY_PAGE)));
         } catch (Exception e) {
-            throw new RuntimeException("Error fetching user details", e);
+            throw new RuntimeException("Error fetching user directory", e);
         }
     }
 
+
+    /**
+     * Users named several times in one query (or by several aliases) are read
+     * once; all the users of a query come back from a single multi-get.
+     */
+    @Query("getUser")
+    public CompletionStage<UserData> getUser(@Name("email") String email) {
+        // games and chats are resolved below, only if the query selects them
+        return loaders.bulk("users", userStore::findAll).load(email)
+                .thenApply(user -> {
+                    if (user == null) {
+                        throw new RuntimeException("User not found for email: " + email);
+                    }
+                    return user;
+                })
+                .exceptionally(e -> {
+                    throw new RuntimeException("Error fetching user details", e instanceof CompletionException ? e.getCause() : e);
+                });
+    }
+
+    /**
+     * Resolves {@code UserData.games} for every user in the response with a
+     * single batch against the per-user game indexes.
+     */
+    @Name("games")
+    @Description("The user's most recent games, newest first")
+    public List<List<GameData>> games(@Source List<UserData> users,
+                                      @Name("limit") @DefaultValue("100") int limit) {
+        return gameStore.latestByUsers(emailsOf(users), Math.max(1, Math.min(limit, MAX_JOINED)));
+    }
+
+    /**
+     * Resolves {@code UserData.chats} for every user in the response: one batch
+     * for the users' conversation indexes, one for the conversations' latest
+     * messages.
+     */
+    @Name("chats")
+    @Description("The user's most recent messages across conversations, newest first")
+    public List<List<ChatData>> chats(@Source List<UserData> users,
+                                      @Name("limit") @DefaultValue("100") int limit) {
+        return chatStore.latestByUsers(emailsOf(users), Math.max(1, Math.min(limit, MAX_JOINED)));
+    }
+
+    private static List<String> emailsOf(List<UserData> users) {
+        return users.stream().map(UserData::getEmail).collect(Collectors.toList());
+    }
+
     @Mutation("createUser")
     public String createUser(
             @Name("email") String email,
@@ -105,13 +129,10 @@ public List<String> getAllUserEmails() {
             }
 
             UserData user = new UserData(email, password, displayName, photoURL, birthdate, null, null);
-            RMapCache<String, String> cache = redissonClient.getMapCache("usersCache");
-
-            if (cache.containsKey(email)) {
+            if (!userStore.create(user)) {
                 throw new RuntimeException("User already exists with email: " + email);
             }
 
-            cache.put(email, objectMapper.writeValueAsString(user), 24, TimeUnit.HOURS);
             return "User created successfully";
         } catch (Exception e) {
             throw new RuntimeException("Error creating user", e);
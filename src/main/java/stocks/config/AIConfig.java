@@ -1,31 +1,56 @@
 package stocks.config;
 
+import java.util.Optional;
+
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
 public class AIConfig {
-    
+
     @ConfigProperty(name = "ai.api.endpoint")
     String apiEndpoint;
-    
+
     @ConfigProperty(name = "ai.api.key")
-    String apiKey;
-    
+    Optional<String> apiKey;
+
     @ConfigProperty(name = "ai.model", defaultValue = "gpt-3.5-turbo")
     String model;
 
+    // How much of the conversation goes into a prompt
+    @ConfigProperty(name = "ai.history.max-messages", defaultValue = "20")
+    int maxHistoryMessages;
+
+    @ConfigProperty(name = "ai.history.max-chars", defaultValue = "8000")
+    int maxHistoryChars;
+
+    @ConfigProperty(name = "ai.request.timeout-seconds", defaultValue = "60")
+    int requestTimeoutSeconds;
+
     // Getters
     public String getApiEndpoint() {
         return apiEndpoint;
     }
 
+    /** Null when no key is configured, e.g. against a local stub. */
     public String getApiKey() {
-        return apiKey;
+        return apiKey.orElse(null);
     }
 
     public String getModel() {
         return model;
     }
-}
\ No newline at end of file
+
+    public int getMaxHistoryMessages() {
+        return maxHistoryMessages;
+    }
+
+    public int getMaxHistoryChars() {
+        return maxHistoryChars;
+    }
+
+    public int getRequestTimeoutSeconds() {
+        return requestTimeoutSeconds;
+    }
+}
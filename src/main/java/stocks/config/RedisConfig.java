@@ -0,0 +1,97 @@
+package stocks.config;
+
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Settings of the application's single Redisson client (see
+ * {@code RedissonProducer}).
+ */
+@ApplicationScoped
+public class RedisConfig {
+
+    @ConfigProperty(name = "stocks.redis.address", defaultValue = "redis://localhost:6379")
+    String address;
+
+    @ConfigProperty(name = "stocks.redis.password")
+    Optional<String> password;
+
+    @ConfigProperty(name = "stocks.redis.database", defaultValue = "0")
+    int database;
+
+    @ConfigProperty(name = "stocks.redis.connection-pool-size", defaultValue = "24")
+    int connectionPoolSize;
+
+    @ConfigProperty(name = "stocks.redis.connection-minimum-idle-size", defaultValue = "4")
+    int connectionMinimumIdleSize;
+
+    @ConfigProperty(name = "stocks.redis.subscription-connection-pool-size", defaultValue = "4")
+    int subscriptionConnectionPoolSize;
+
+    @ConfigProperty(name = "stocks.redis.timeout-ms", defaultValue = "3000")
+    int timeoutMillis;
+
+    // default (Redisson's own), json or string; existing data stays in the codec it was written with
+    @ConfigProperty(name = "stocks.redis.codec", defaultValue = "default")
+    String codec;
+
+    // Run Redis I/O on the Quarkus (Vert.x) event loops instead of a separate Netty group
+    @ConfigProperty(name = "stocks.redis.share-event-loop", defaultValue = "true")
+    boolean shareEventLoop;
+
+    // Only used when the event loop is not shared; 0 lets Redisson pick
+    @ConfigProperty(name = "stocks.redis.netty-threads", defaultValue = "0")
+    int nettyThreads;
+
+    // Threads completing RFutures and running listeners
+    @ConfigProperty(name = "stocks.redis.threads", defaultValue = "4")
+    int threads;
+
+    public String getAddress() {
+        return address;
+    }
+
+    /** Null when Redis needs no password. */
+    public String getPassword() {
+        return password.orElse(null);
+    }
+
+    public int getDatabase() {
+        return database;
+    }
+
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public int getConnectionMinimumIdleSize() {
+        return connectionMinimumIdleSize;
+    }
+
+    public int getSubscriptionConnectionPoolSize() {
+        return subscriptionConnectionPoolSize;
+    }
+
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public boolean isShareEventLoop() {
+        return shareEventLoop;
+    }
+
+    public int getNettyThreads() {
+        return nettyThreads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
@@ -0,0 +1,34 @@
+package stocks.config;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Base URL of the Yahoo Finance site the scrapers read, from
+ * {@code stocks.upstream.yahoo-base-url}. The scrapers are static, so this is
+ * looked up from MicroProfile Config on first use rather than injected. Load
+ * tests point it at the local replay server.
+ */
+public final class Upstreams {
+
+    private static final String DEFAULT_YAHOO = "https://finance.yahoo.com";
+
+    private static volatile String yahoo;
+
+    private Upstreams() {
+    }
+
+    /** {@code path} (starting with '/') on the configured Yahoo Finance host. */
+    public static String yahoo(String path) {
+        String base = yahoo;
+        if (base == null) {
+            base = ConfigProvider.getConfig()
+                    .getOptionalValue("stocks.upstream.yahoo-base-url", String.class)
+                    .orElse(DEFAULT_YAHOO);
+            if (base.endsWith("/")) {
+                base = base.substring(0, base.length() - 1);
+            }
+            yahoo = base;
+        }
+        return base + path;
+    }
+}
@@ -0,0 +1,36 @@
+package stocks.models;
+
+import java.util.List;
+
+import org.eclipse.microprofile.graphql.Description;
+import org.eclipse.microprofile.graphql.Type;
+
+@Type("ChatFeed")
+@Description("Messages from all of a user's conversations, newest first.")
+public class ChatFeed {
+    private List<ChatData> messages;
+    private String nextCursor;
+
+    public ChatFeed() {
+    }
+
+    public ChatFeed(List<ChatData> messages, String nextCursor) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ChatData> getMessages() { return messages; }
+    public void setMessages(List<ChatData> messages) { this.messages = messages; }
+
+    @Description("Pass as 'before' to fetch older messages; null when there are none")
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    @Override
+    public String toString() {
+        return "ChatFeed{" +
+                "messages=" + (messages != null ? messages.size() : 0) +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package stocks.models;
+
+import java.util.List;
+
+import org.eclipse.microprofile.graphql.Description;
+import org.eclipse.microprofile.graphql.Type;
+
+@Type("ChatPage")
+@Description("A page of a conversation, oldest message first.")
+public class ChatPage {
+    private List<ChatData> messages;
+    private Integer nextCursor;
+
+    public ChatPage() {
+    }
+
+    public ChatPage(List<ChatData> messages, Integer nextCursor) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ChatData> getMessages() { return messages; }
+    public void setMessages(List<ChatData> messages) { this.messages = messages; }
+
+    @Description("Pass as 'before' to fetch the older page; null when this page starts the conversation")
+    public Integer getNextCursor() { return nextCursor; }
+    public void setNextCursor(Integer nextCursor) { this.nextCursor = nextCursor; }
+
+    @Override
+    public String toString() {
+        return "ChatPage{" +
+                "messages=" + (messages != null ? messages.size() : 0) +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
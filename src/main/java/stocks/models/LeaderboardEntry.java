@@ -0,0 +1,41 @@
+package stocks.models;
+
+import org.eclipse.microprofile.graphql.Description;
+import org.eclipse.microprofile.graphql.Type;
+
+@Type("LeaderboardEntry")
+@Description("A player's position on a leaderboard.")
+public class LeaderboardEntry {
+    private int rank;
+    private String email;
+    private long coins;
+
+    public LeaderboardEntry() {
+    }
+
+    public LeaderboardEntry(int rank, String email, long coins) {
+        this.rank = rank;
+        this.email = email;
+        this.coins = coins;
+    }
+
+    @Description("1-based position, highest coins first")
+    public int getRank() { return rank; }
+    public void setRank(int rank) { this.rank = rank; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    @Description("Coins earned in the period")
+    public long getCoins() { return coins; }
+    public void setCoins(long coins) { this.coins = coins; }
+
+    @Override
+    public String toString() {
+        return "LeaderboardEntry{" +
+                "rank=" + rank +
+                ", email='" + email + '\'' +
+                ", coins=" + coins +
+                '}';
+    }
+}
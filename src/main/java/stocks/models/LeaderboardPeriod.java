@@ -0,0 +1,12 @@
+package stocks.models;
+
+import org.eclipse.microprofile.graphql.Description;
+import org.eclipse.microprofile.graphql.Enum;
+
+@Enum("LeaderboardPeriod")
+@Description("Time window a leaderboard ranks coins over.")
+public enum LeaderboardPeriod {
+    DAILY,
+    WEEKLY,
+    ALL_TIME
+}
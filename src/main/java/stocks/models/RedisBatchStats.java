@@ -0,0 +1,33 @@
+package stocks.models;
+
+/**
+ * Totals for pipelined cache batches since startup. Every batch is one round
+ * trip, so {@code commands - batches} is the number of round trips saved.
+ */
+public class RedisBatchStats {
+    private long batches;
+    private long commands;
+    private long largestBatch;
+
+    public RedisBatchStats() {
+    }
+
+    public RedisBatchStats(long batches, long commands, long largestBatch) {
+        this.batches = batches;
+        this.commands = commands;
+        this.largestBatch = largestBatch;
+    }
+
+    public long getBatches() { return batches; }
+    public void setBatches(long batches) { this.batches = batches; }
+
+    public long getCommands() { return commands; }
+    public void setCommands(long commands) { this.commands = commands; }
+
+    public long getLargestBatch() { return largestBatch; }
+    public void setLargestBatch(long largestBatch) { this.largestBatch = largestBatch; }
+
+    public double getAverageBatchSize() {
+        return batches > 0 ? (double) commands / batches : 0;
+    }
+}
@@ -0,0 +1,46 @@
+package stocks.models;
+
+/**
+ * Connection pool settings of this instance next to what the Redis server
+ * reports in {@code INFO CLIENTS}. The server counts are for all instances
+ * sharing the server.
+ */
+public class RedisPoolStats {
+    private int connectionPoolSize;
+    private int connectionMinimumIdleSize;
+    private int subscriptionConnectionPoolSize;
+    private boolean sharedEventLoop;
+    private long connectedClients;
+    private long blockedClients;
+    private long maxClients;
+
+    public RedisPoolStats() {
+    }
+
+    public int getConnectionPoolSize() { return connectionPoolSize; }
+    public void setConnectionPoolSize(int connectionPoolSize) { this.connectionPoolSize = connectionPoolSize; }
+
+    public int getConnectionMinimumIdleSize() { return connectionMinimumIdleSize; }
+    public void setConnectionMinimumIdleSize(int connectionMinimumIdleSize) { this.connectionMinimumIdleSize = connectionMinimumIdleSize; }
+
+    public int getSubscriptionConnectionPoolSize() { return subscriptionConnectionPoolSize; }
+    public void setSubscriptionConnectionPoolSize(int subscriptionConnectionPoolSize) { this.subscriptionConnectionPoolSize = subscriptionConnectionPoolSize; }
+
+    public boolean isSharedEventLoop() { return sharedEventLoop; }
+    public void setSharedEventLoop(boolean sharedEventLoop) { this.sharedEventLoop = sharedEventLoop; }
+
+    public long getConnectedClients() { return connectedClients; }
+    public void setConnectedClients(long connectedClients) { this.connectedClients = connectedClients; }
+
+    public long getBlockedClients() { return blockedClients; }
+    public void setBlockedClients(long blockedClients) { this.blockedClients = blockedClients; }
+
+    /** 0 when the server does not report a limit. */
+    public long getMaxClients() { return maxClients; }
+    public void setMaxClients(long maxClients) { this.maxClients = maxClients; }
+
+    /** Share of the server's client slots in use, 0 when there is no known limit. */
+    public double getServerUtilization() {
+        return maxClients > 0 ? (double) connectedClients / maxClients : 0;
+    }
+}
@@ -3,6 +3,7 @@ package stocks.models;
 
 import java.util.List;
 
+import org.eclipse.microprofile.graphql.Ignore;
 import org.eclipse.microprofile.graphql.Type;
 
 @Type
@@ -42,9 +43,12 @@ public class UserData {
     public String getBirthdate() { return birthdate; }
     public void setBirthdate(String birthdate) { this.birthdate = birthdate; }
 
+    // Resolved per request by UserApi from the per-user indexes
+    @Ignore
     public List<GameData> getGames() { return games; }
     public void setGames(List<GameData> games) { this.games = games; }
 
+    @Ignore
     public List<ChatData> getChats() { return chats; }
     public void setChats(List<ChatData> chats) { this.chats = chats; }
 
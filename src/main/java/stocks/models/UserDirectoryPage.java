@@ -0,0 +1,36 @@
+package stocks.models;
+
+import java.util.List;
+
+import org.eclipse.microprofile.graphql.Description;
+import org.eclipse.microprofile.graphql.Type;
+
+@Type("UserDirectoryPage")
+@Description("A page of the user directory, ordered by email.")
+public class UserDirectoryPage {
+    private List<UserSummary> users;
+    private String nextCursor;
+
+    public UserDirectoryPage() {
+    }
+
+    public UserDirectoryPage(List<UserSummary> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserSummary> getUsers() { return users; }
+    public void setUsers(List<UserSummary> users) { this.users = users; }
+
+    @Description("Pass as 'after' to fetch the next page; null on the last page")
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    @Override
+    public String toString() {
+        return "UserDirectoryPage{" +
+                "users=" + (users != null ? users.size() : 0) +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package stocks.models;
+
+import org.eclipse.microprofile.graphql.Description;
+import org.eclipse.microprofile.graphql.Type;
+
+@Type("UserSummary")
+@Description("The public part of a user, as shown in the user directory.")
+public class UserSummary {
+    private String email;
+    private String displayName;
+    private String photoURL;
+
+    public UserSummary() {
+    }
+
+    public UserSummary(String email, String displayName, String photoURL) {
+        this.email = email;
+        this.displayName = displayName;
+        this.photoURL = photoURL;
+    }
+
+    public static UserSummary of(UserData user) {
+        return new UserSummary(user.getEmail(), user.getDisplayName(), user.getPhotoURL());
+    }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getDisplayName() { return displayName; }
+    public void setDisplayName(String displayName) { this.displayName = displayName; }
+
+    public String getPhotoURL() { return photoURL; }
+    public void setPhotoURL(String photoURL) { this.photoURL = photoURL; }
+
+    @Override
+    public String toString() {
+        return "UserSummary{" +
+                "email='" + email + '\'' +
+                ", displayName='" + displayName + '\'' +
+                '}';
+    }
+}
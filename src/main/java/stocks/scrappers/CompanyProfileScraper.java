@@ -1,28 +1,41 @@
 package stocks.scrappers;
 
 import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
+import stocks.config.Upstreams;
 import stocks.models.CompanyProfile;
+import stocks.services.StocksMetrics;
 
 public class CompanyProfileScraper {
+    private static final Logger logger = Logger.getLogger(CompanyProfileScraper.class.getName());
 
     public static CompanyProfile fetchCompanyProfile(String symbol) {
         try {
-            String url = String.format("https://finance.yahoo.com/quote/%s/profile", symbol);
-            Document doc = Jsoup.connect(url).userAgent("Mozilla/5.0").get();
+            String url = Upstreams.yahoo(String.format("/quote/%s/profile", symbol));
+            long start = System.nanoTime();
+            Connection.Response response = Jsoup.connect(url).userAgent("Mozilla/5.0").execute();
+            StocksMetrics.recordSince(StocksMetrics.YAHOO_PROFILE.fetch, start);
+
+            start = System.nanoTime();
+            Document doc = response.parse();
             
             Element nameElement = doc.selectFirst("#nimbus-app > section > section > section > article > section.container.yf-k4z9w > div.top.yf-k4z9w > div > div > section > h1");
             String name = nameElement != null ? nameElement.text() : "Name not found";
 
            Element descriptionElement = doc.selectFirst("#nimbus-app > section > section > section > article > section:nth-child(5) > section:nth-child(1) > p");
            String description = descriptionElement != null ? descriptionElement.text() : "Description not available";
+            StocksMetrics.recordSince(StocksMetrics.YAHOO_PROFILE.parse, start);
             return new CompanyProfile(name, description);
         } catch (IOException e) {
-            e.printStackTrace();
+            StocksMetrics.YAHOO_PROFILE.errors.increment();
+            logger.log(Level.WARNING, String.format("Error fetching profile of %s: %s", symbol, e.getMessage()));
             return new CompanyProfile("Error fetching data", "Unable to retrieve company profile due to an I/O error.");
         }
     }
@@ -5,15 +5,21 @@ import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
+import stocks.config.Upstreams;
 import stocks.models.HistoricalStockData;
+import stocks.services.StocksMetrics;
 
 public class HistoricalStockScraper {
+    private static final Logger logger = Logger.getLogger(HistoricalStockScraper.class.getName());
 
     public static List<HistoricalStockData> fetchHistoricalData(String symbol, LocalDate startDate, LocalDate endDate) {
         List<HistoricalStockData> historicalData = new ArrayList<>();
@@ -23,14 +29,19 @@ public class HistoricalStockScraper {
             long period1 = startDate.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
             long period2 = endDate.atTime(23, 59, 59).toEpochSecond(ZoneOffset.UTC);
 
-            String url = String.format(
-                "https://finance.yahoo.com/quote/%s/history?period1=%d&period2=%d&interval=1d",
+            String url = Upstreams.yahoo(String.format(
+                "/quote/%s/history?period1=%d&period2=%d&interval=1d",
                 symbol, period1, period2
-            );
+            ));
 
-            Document doc = Jsoup.connect(url)
+            long start = System.nanoTime();
+            Connection.Response response = Jsoup.connect(url)
                     .userAgent("Mozilla/5.0")
-                    .get();
+                    .execute();
+            StocksMetrics.recordSince(StocksMetrics.YAHOO_HISTORY.fetch, start);
+
+            start = System.nanoTime();
+            Document doc = response.parse();
 
             Elements rows = doc.select("table tbody tr");
 
@@ -56,8 +67,10 @@ public class HistoricalStockScraper {
                 } catch (Exception ignored) {
                 }
             }
+            StocksMetrics.recordSince(StocksMetrics.YAHOO_HISTORY.parse, start);
         } catch (IOException e) {
-            e.printStackTrace();
+            StocksMetrics.YAHOO_HISTORY.errors.increment();
+            logger.log(Level.WARNING, String.format("Error fetching history of %s: %s", symbol, e.getMessage()));
         }
 
         return historicalData;
@@ -9,15 +9,23 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import stocks.models.StockData;
+import stocks.services.LogSampler;
+import stocks.services.StocksMetrics;
 
 public class StockScraper {
+    private static final Logger logger = Logger.getLogger(StockScraper.class.getName());
+    // The market-hours schedule ticks every millisecond; one line per second is plenty
+    private static final LogSampler tickSampler = new LogSampler(1, 1, TimeUnit.SECONDS);
     private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     private static ScheduledFuture<?> currentTask;
     
@@ -52,10 +60,12 @@ public class StockScraper {
         currentTask = scheduler.scheduleAtFixedRate(() -> {
             try {
                 List<StockData> stocks = fetchStocks(url, filterSymbol);
-                System.out.println("Fetched " + stocks.size() + " stocks at: " + LocalDateTime.now() +
-                                 " (Interval: " + (isMarketHours ? "1ms" : "30min") + ")");
+                if (logger.isLoggable(Level.FINE) && tickSampler.sample()) {
+                    logger.log(Level.FINE, String.format("Fetched %d stocks (Interval: %s, %d ticks not logged)",
+                            stocks.size(), isMarketHours ? "1ms" : "30min", tickSampler.drainSuppressed()));
+                }
             } catch (Exception e) {
-                e.printStackTrace();
+                logger.log(Level.WARNING, String.format("Scheduled scrape of %s failed: %s", url, e.getMessage()));
             }
         }, 0, interval, TimeUnit.MILLISECONDS);
     }
@@ -77,54 +87,65 @@ public class StockScraper {
     }
 
     public static List<StockData> fetchStocks(String url, String filterSymbol) {
-        List<StockData> stocks = new ArrayList<>();
-        
         try {
-            Document doc = Jsoup.connect(url)
+            long start = System.nanoTime();
+            Connection.Response response = Jsoup.connect(url)
                             .userAgent("Mozilla/5.0")
                             .timeout(5000) // Added timeout
-                            .get();
-            
-            Elements stockRows = doc.select("table tbody tr");
+                            .execute();
+            StocksMetrics.recordSince(StocksMetrics.YAHOO_MARKETS.fetch, start);
+
+            start = System.nanoTime();
+            List<StockData> stocks = parseStocks(response.parse(), filterSymbol);
+            StocksMetrics.recordSince(StocksMetrics.YAHOO_MARKETS.parse, start);
+            return stocks;
+        } catch (IOException e) {
+            StocksMetrics.YAHOO_MARKETS.errors.increment();
+            logger.log(Level.WARNING, String.format("Error fetching %s: %s", url, e.getMessage()));
+            return new ArrayList<>();
+        }
+    }
+
+    /** Extracts up to 50 stocks from a Yahoo market list page, or just {@code filterSymbol} if given. */
+    public static List<StockData> parseStocks(Document doc, String filterSymbol) {
+        List<StockData> stocks = new ArrayList<>();
+        Elements stockRows = doc.select("table tbody tr");
+        
+        for (Element row : stockRows) {
+            if (stocks.size() >= 50) break;
             
-            for (Element row : stockRows) {
-                if (stocks.size() >= 50) break;
+            try {
+                String symbol = row.select("td:nth-child(1)").text();
                 
-                try {
-                    String symbol = row.select("td:nth-child(1)").text();
-                    
-                    if (filterSymbol != null && !filterSymbol.isEmpty() && !symbol.equals(filterSymbol)) {
-                        continue;
-                    }
-                    
-                    String name = row.select("td:nth-child(2)").text();
-                    String price = row.select("td:nth-child(4) fin-streamer[data-test=change]").attr("data-value");
-                    String change = row.select("fin-streamer[data-test=colorChange]").attr("data-value");
-                    String changePercent = row.select("td:nth-child(4) > span > div > fin-streamer:nth-child(2)").text()
-                            .replaceAll("[()]", "");
-                    String volume = row.select("td:nth-child(7)").text();
-                    String avgVolume = row.select("td:nth-child(8)").text();
-                    String marketCap = row.select("td:nth-child(9)").text();
-                    String peRatio = row.select("td:nth-child(10)").text();
-                    
-                    if (!symbol.isEmpty() && !name.isEmpty()) {
-                        stocks.add(new StockData(
-                            symbol, name, price, change, changePercent,
-                            volume, avgVolume, marketCap, peRatio
-                        ));
-                    }
-                    
-                    if (filterSymbol != null && !filterSymbol.isEmpty() && symbol.equals(filterSymbol)) {
-                        break;
-                    }
-                } catch (Exception e) {
+                if (filterSymbol != null && !filterSymbol.isEmpty() && !symbol.equals(filterSymbol)) {
                     continue;
                 }
+                
+                String name = row.select("td:nth-child(2)").text();
+                String price = row.select("td:nth-child(4) fin-streamer[data-test=change]").attr("data-value");
+                String change = row.select("fin-streamer[data-test=colorChange]").attr("data-value");
+                String changePercent = row.select("td:nth-child(4) > span > div > fin-streamer:nth-child(2)").text()
+                        .replaceAll("[()]", "");
+                String volume = row.select("td:nth-child(7)").text();
+                String avgVolume = row.select("td:nth-child(8)").text();
+                String marketCap = row.select("td:nth-child(9)").text();
+                String peRatio = row.select("td:nth-child(10)").text();
+                
+                if (!symbol.isEmpty() && !name.isEmpty()) {
+                    stocks.add(new StockData(
+                        symbol, name, price, change, changePercent,
+                        volume, avgVolume, marketCap, peRatio
+                    ));
+                }
+                
+                if (filterSymbol != null && !filterSymbol.isEmpty() && symbol.equals(filterSymbol)) {
+                    break;
+                }
+            } catch (Exception e) {
+                continue;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         
         return stocks;
     }
-}
\ No newline at end of file
+}
@@ -7,20 +7,26 @@ import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
+import stocks.config.Upstreams;
 import stocks.models.TickerData;
 import stocks.models.TickerData.Ask;
 import stocks.models.TickerData.Bid;
 import stocks.models.TickerData.DateRange;
 import stocks.models.TickerData.Range;
+import stocks.services.StocksMetrics;
 
 @jakarta.enterprise.context.ApplicationScoped
 public class TickerDetailsScraper {
+    private static final Logger logger = Logger.getLogger(TickerDetailsScraper.class.getName());
 
     private static final NumberFormat numberFormat = NumberFormat.getInstance(Locale.US);
     private static final int MAX_RETRIES = 3;
@@ -86,10 +92,12 @@ public class TickerDetailsScraper {
         
         while (retries < MAX_RETRIES) {
             try {
-                String baseUrl = String.format("https://finance.yahoo.com/quote/%s", symbol);
-                System.out.println("Connecting to URL: " + baseUrl + " (Attempt " + (retries + 1) + ")");
+                String baseUrl = Upstreams.yahoo(String.format("/quote/%s", symbol));
+                int attempt = retries + 1;
+                logger.log(Level.FINE, () -> String.format("Connecting to URL: %s (Attempt %d)", baseUrl, attempt));
                 
-                Document doc = Jsoup.connect(baseUrl)
+                long start = System.nanoTime();
+                Connection.Response response = Jsoup.connect(baseUrl)
                         .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
                         .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8")
                         .header("Accept-Language", "en-US,en;q=0.5")
@@ -103,9 +111,11 @@ public class TickerDetailsScraper {
                         .header("Sec-Fetch-User", "?1")
                         .header("Cache-Control", "max-age=0")
                         .timeout(INITIAL_TIMEOUT * (retries + 1))
-                        .get();
+                        .execute();
+                StocksMetrics.recordSince(StocksMetrics.YAHOO_QUOTE.fetch, start);
                 
-                System.out.println("Connected successfully. Parsing data...");
+                start = System.nanoTime();
+                Document doc = response.parse();
                 
                 // Update: Use the new summary container selector
                 Elements summaryContainers = doc.select("#nimbus-app > section > section > section > article > div.container.yf-dudngy");
@@ -124,17 +134,22 @@ public class TickerDetailsScraper {
                             String label = labelElement.text().trim();
                             String value = valueElement.text().trim();
                             
-                            System.out.println("Processing: " + label + " = " + value);
+                            if (logger.isLoggable(Level.FINEST)) {
+                                logger.log(Level.FINEST, String.format("Processing: %s = %s", label, value));
+                            }
                             processDataPoint(tickerData, label, value);
                         }
                     }
                 }
                 
                 // If we got here, we successfully parsed the data
+                StocksMetrics.recordSince(StocksMetrics.YAHOO_QUOTE.parse, start);
                 return tickerData;
                 
             } catch (IOException e) {
-                System.err.println("Error fetching data (Attempt " + (retries + 1) + "): " + e.getMessage());
+                StocksMetrics.YAHOO_QUOTE.errors.increment();
+                logger.log(Level.WARNING, String.format("Error fetching data for %s (Attempt %d): %s",
+                        symbol, retries + 1, e.getMessage()));
                 retries++;
                 
                 if (retries < MAX_RETRIES) {
@@ -150,11 +165,12 @@ public class TickerDetailsScraper {
         }
         
         // If we get here, all retries failed
-        System.err.println("Failed to fetch data after " + MAX_RETRIES + " attempts");
+        logger.log(Level.WARNING, String.format("Failed to fetch data for %s after %d attempts", symbol, MAX_RETRIES));
         return tickerData;
     }
 
-    private void processDataPoint(TickerData tickerData, String label, String value) {
+    /** Applies one label/value pair of the quote summary to {@code tickerData}. */
+    public void processDataPoint(TickerData tickerData, String label, String value) {
         switch (label) {
             case "Previous Close":
                 tickerData.setPreviousClose(parseBigDecimal(value));
@@ -217,7 +233,7 @@ public class TickerDetailsScraper {
                 tickerData.setTargetEstimate(parseBigDecimal(value));
                 break;
             default:
-                System.out.println("Unrecognized label: " + label);
+                logger.log(Level.FINE, () -> String.format("Unrecognized label: %s", label));
                 break;
         }
     }
@@ -0,0 +1,96 @@
+package stocks.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.smallrye.mutiny.Multi;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import stocks.config.AIConfig;
+import stocks.models.ChatData;
+
+/**
+ * Produces AI replies in conversations with the "AI" participant. A reply is
+ * started as soon as the user's message is stored and runs whether or not
+ * anyone is watching; watchers that attach late are replayed what has been
+ * generated so far. The finished reply is stored with a single append.
+ */
+@ApplicationScoped
+public class AIReplyService {
+    private static final Logger logger = Logger.getLogger(AIReplyService.class.getName());
+
+    public static final String AI_SENDER = "AI";
+
+    private final ConcurrentMap<String, Multi<String>> inFlight = new ConcurrentHashMap<>();
+
+    @Inject
+    ChatStore chatStore;
+
+    @Inject
+    AIService aiService;
+
+    @Inject
+    AIConfig aiConfig;
+
+    @Inject
+    MarketContextAssembler marketContext;
+
+    /**
+     * Starts replying to the latest message in {@code chatId}. A newer message
+     * supersedes the reply being watched; the earlier one still completes and
+     * is stored.
+     */
+    public Multi<String> start(String chatId, String userEmail) {
+        Multi<String> reply;
+        try {
+            // One LRANGE: the user's message plus the history the prompt may use
+            List<ChatData> recent = new ArrayList<>(
+                    chatStore.page(chatId, null, aiConfig.getMaxHistoryMessages() + 1).getMessages());
+            if (recent.isEmpty()) {
+                return Multi.createFrom().empty();
+            }
+            ChatData prompt = recent.remove(recent.size() - 1);
+            String context = marketContext.contextFor(prompt.getMessage());
+
+            StringBuilder text = new StringBuilder();
+            long startedAt = System.nanoTime();
+            reply = aiService.streamResponse(prompt.getMessage(), recent, context)
+                    .onItem().invoke(fragment -> {
+                        if (text.length() == 0) {
+                            logger.log(Level.FINE, String.format("First AI token for %s after %d ms",
+                                    chatId, (System.nanoTime() - startedAt) / 1_000_000));
+                        }
+                        text.append(fragment);
+                    })
+                    .onCompletion().invoke(() -> {
+                        if (text.length() > 0) {
+                            chatStore.append(new ChatData(chatId, AI_SENDER, userEmail, text.toString(), true));
+                        }
+                    })
+                    .cache();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not start AI reply for %s: %s", chatId, e.getMessage()));
+            return Multi.createFrom().failure(e);
+        }
+
+        Multi<String> watched = reply;
+        inFlight.put(chatId, watched);
+        watched.subscribe().with(
+                fragment -> { },
+                failure -> {
+                    inFlight.remove(chatId, watched);
+                    logger.log(Level.WARNING, String.format("AI reply for %s failed: %s", chatId, failure.getMessage()));
+                },
+                () -> inFlight.remove(chatId, watched));
+        return watched;
+    }
+
+    /** The reply currently being generated in {@code chatId}, or null. */
+    public Multi<String> inFlight(String chatId) {
+        return inFlight.get(chatId);
+    }
+}
@@ -2,8 +2,20 @@ package stocks.services;
 
 import java.util.List;
 
+import io.smallrye.mutiny.Multi;
 import stocks.models.ChatData;
 
 public interface AIService {
     String generateResponse(String userMessage, List<ChatData> conversationHistory);
-}
\ No newline at end of file
+
+    /**
+     * The reply as text fragments in the order the model produces them, so the
+     * first words can be shown before the answer is finished.
+     */
+    default Multi<String> streamResponse(String userMessage, List<ChatData> conversationHistory) {
+        return streamResponse(userMessage, conversationHistory, null);
+    }
+
+    /** As above, with reference material (e.g. market data) the model may use; null for none. */
+    Multi<String> streamResponse(String userMessage, List<ChatData> conversationHistory, String context);
+}
@@ -0,0 +1,104 @@
+package stocks.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataLoader-style batching for one kind of key. Every key is loaded at most
+ * once for the lifetime of the loader; keys requested within
+ * {@code windowMillis} of the first pending one are dispatched together,
+ * either to a bulk function (one Redis batch for all of them) or, for sources
+ * without a bulk API such as scrapers, to a per-key function run concurrently.
+ * Create one per request (see {@code RequestLoaders}) so the memo never
+ * outlives the request that filled it.
+ */
+public final class BatchLoader<K, V> {
+
+    @FunctionalInterface
+    public interface BulkFunction<K, V> {
+        /** Values for the given keys; a key missing from the result loads as null. */
+        Map<K, V> loadAll(Set<K> keys) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface KeyFunction<K, V> {
+        V load(K key) throws Exception;
+    }
+
+    private final BulkFunction<K, V> bulkFunction;
+    private final KeyFunction<K, V> keyFunction;
+    private final Executor executor;
+    private final Executor dispatcher;
+    private final Map<K, CompletableFuture<V>> memo = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+
+    private BatchLoader(BulkFunction<K, V> bulkFunction, KeyFunction<K, V> keyFunction,
+                        Executor executor, long windowMillis) {
+        this.bulkFunction = bulkFunction;
+        this.keyFunction = keyFunction;
+        this.executor = executor;
+        this.dispatcher = CompletableFuture.delayedExecutor(windowMillis, TimeUnit.MILLISECONDS, executor);
+    }
+
+    public static <K, V> BatchLoader<K, V> bulk(BulkFunction<K, V> bulkFunction, Executor executor,
+                                                long windowMillis) {
+        return new BatchLoader<>(bulkFunction, null, executor, windowMillis);
+    }
+
+    public static <K, V> BatchLoader<K, V> perKey(KeyFunction<K, V> keyFunction, Executor executor,
+                                                  long windowMillis) {
+        return new BatchLoader<>(null, keyFunction, executor, windowMillis);
+    }
+
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> loaded = memo.get(key);
+        if (loaded != null) {
+            return loaded;
+        }
+        synchronized (this) {
+            loaded = memo.get(key);
+            if (loaded != null) {
+                return loaded;
+            }
+            CompletableFuture<V> future = new CompletableFuture<>();
+            memo.put(key, future);
+            boolean first = pending.isEmpty();
+            pending.put(key, future);
+            if (first) {
+                dispatcher.execute(this::dispatch);
+            }
+            return future;
+        }
+    }
+
+    private void dispatch() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        if (keyFunction != null) {
+            batch.forEach((key, future) -> executor.execute(() -> {
+                try {
+                    future.complete(keyFunction.load(key));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }));
+            return;
+        }
+        try {
+            Map<K, V> values = bulkFunction.loadAll(batch.keySet());
+            batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
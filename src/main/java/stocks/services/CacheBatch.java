@@ -0,0 +1,91 @@
+package stocks.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RMapCacheAsync;
+import org.redisson.api.RScript;
+import org.redisson.client.codec.StringCodec;
+
+/**
+ * Cache reads and writes collected for one request or refresh cycle and sent
+ * to Redis as a single pipeline. Results of reads are available once
+ * {@link #flush()} has returned. Obtain instances from {@link CacheBatches}.
+ * <p>
+ * Unpipelined (see {@code stocks.redis.pipeline}) every command is sent on
+ * its own as soon as it is queued, one round trip each, to measure what the
+ * pipeline saves.
+ */
+public final class CacheBatch {
+
+    private final Supplier<RBatch> batches;
+    private final boolean pipelined;
+    private final CacheBatches owner;
+    private RBatch batch;
+    private int commands;
+
+    CacheBatch(Supplier<RBatch> batches, boolean pipelined, CacheBatches owner) {
+        this.batches = batches;
+        this.pipelined = pipelined;
+        this.owner = owner;
+        this.batch = batches.get();
+    }
+
+    public <V> CompletableFuture<V> get(String mapName, String key) {
+        RMapCacheAsync<String, V> map = batch.getMapCache(mapName);
+        return queued(map.getAsync(key).toCompletableFuture());
+    }
+
+    public <V> CompletableFuture<Map<String, V>> getAll(String mapName, Set<String> keys) {
+        RMapCacheAsync<String, V> map = batch.getMapCache(mapName);
+        return queued(map.getAllAsync(keys).toCompletableFuture());
+    }
+
+    public <V> void put(String mapName, String key, V value, long ttl, TimeUnit unit) {
+        RMapCacheAsync<String, V> map = batch.getMapCache(mapName);
+        queued(map.fastPutAsync(key, value, ttl, unit));
+    }
+
+    /** A plain string key, read without any codec framing. */
+    public CompletableFuture<String> getString(String key) {
+        return queued(batch.<String>getBucket(key, StringCodec.INSTANCE).getAsync().toCompletableFuture());
+    }
+
+    /** Runs a Lua script whose result is an integer; keys and arguments are strings. */
+    public CompletableFuture<Long> eval(String script, List<Object> keys, Object... args) {
+        return queued(batch.getScript(StringCodec.INSTANCE)
+                .<Long>evalAsync(RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER, keys, args)
+                .toCompletableFuture());
+    }
+
+    private <T> T queued(T result) {
+        commands++;
+        if (!pipelined) {
+            flush();
+        }
+        return result;
+    }
+
+    /** Number of commands queued and not yet sent. */
+    public int size() {
+        return commands;
+    }
+
+    /** Sends everything queued in one round trip; a no-op for an empty batch. */
+    public void flush() {
+        if (commands == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        batch.execute();
+        StocksMetrics.recordSince(StocksMetrics.REDIS_BATCH, start);
+        owner.record(commands);
+        commands = 0;
+        batch = batches.get();
+    }
+}
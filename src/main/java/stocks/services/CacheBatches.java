@@ -0,0 +1,43 @@
+package stocks.services;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.redisson.api.RedissonClient;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import stocks.models.RedisBatchStats;
+
+/**
+ * Creates {@link CacheBatch}es and keeps count of how many commands each
+ * flush carried, so the round trips saved by pipelining are visible.
+ */
+@ApplicationScoped
+public class CacheBatches {
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    private final LongAccumulator largest = new LongAccumulator(Math::max, 0);
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @ConfigProperty(name = "stocks.redis.pipeline", defaultValue = "true")
+    boolean pipeline;
+
+    public CacheBatch create() {
+        return new CacheBatch(redissonClient::createBatch, pipeline, this);
+    }
+
+    void record(int size) {
+        batches.increment();
+        commands.add(size);
+        largest.accumulate(size);
+    }
+
+    public RedisBatchStats stats() {
+        return new RedisBatchStats(batches.sum(), commands.sum(), largest.get());
+    }
+}
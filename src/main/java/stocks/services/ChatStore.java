@@ -0,0 +1,525 @@
+package stocks.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.redisson.api.BatchOptions;
+import org.redisson.api.BatchResult;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RDequeAsync;
+import org.redisson.api.RList;
+import org.redisson.api.RListAsync;
+import org.redisson.api.RLock;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RedissonClient;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import stocks.models.ChatData;
+import stocks.models.ChatFeed;
+import stocks.models.ChatPage;
+import stocks.storage.RecordCodecs;
+
+/**
+ * Redis layout for chats.
+ * <ul>
+ *   <li>{@code chatLog:<chatId>}: append-only list of the conversation's
+ *       messages, so sending is a single RPUSH whatever the length of the
+ *       conversation, and concurrent sends are ordered by Redis rather than
+ *       overwriting each other. Appends never move earlier messages, which
+ *       makes a message's position usable in a paging cursor. The one
+ *       exception is the one-off legacy migration, which prepends history
+ *       (see {@link #migrateLegacyConversations}).</li>
+ *   <li>{@code chatsByUser:<email>}: sorted set of the chatIds a user takes
+ *       part in, scored by last activity, so per-user reads never look at
+ *       anyone else's conversations</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class ChatStore {
+    private static final Logger logger = Logger.getLogger(ChatStore.class.getName());
+
+    public static final long CHAT_TTL_DAYS = 30;
+
+    static final String CHAT_LOG_PREFIX = "chatLog:";
+    private static final String LEGACY_CHATS_CACHE = "chatsCache";
+    private static final String MIGRATION_MARKER = "chatLogs:migrated";
+    private static final String MIGRATION_LOCK = "chatLogs:migration";
+    private static final String USER_INDEX_PREFIX = "chatsByUser:";
+    private static final String BACKFILL_MARKER = "chatsByUser:backfilled";
+    private static final String BACKFILL_LOCK = "chatsByUser:backfill";
+    
+    /** Conversations considered when merging a user's feed, most recently active first. */
+    static final int MAX_FEED_CONVERSATIONS = 100;
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    RecordCodecs codecs;
+
+    /**
+     * Generate a stable chatId for two participants by sorting their identifiers.
+     * For user-to-user: "alice@example.com" and "bob@example.com"
+     * chatId might look like: "alice@example.com:bob@example.com"
+     * For user-to-AI: "alice@example.com" and "AI"
+     * chatId might look like: "AI:alice@example.com" (alphabetically sorted)
+     */
+    public static String chatIdFor(String user1, String user2) {
+        return Stream.of(user1, user2)
+                     .sorted()
+                     .collect(Collectors.joining(":"));
+    }
+
+    static String chatLog(String chatId) {
+        return CHAT_LOG_PREFIX + chatId;
+    }
+
+    private static String userIndex(String email) {
+        return USER_INDEX_PREFIX + email;
+    }
+
+    private static Instant instantOf(ChatData chat) {
+        return chat.getTimestamp() != null ? chat.getTimestamp() : Instant.EPOCH;
+    }
+
+    /**
+     * Appends a message to its conversation, bumps the conversation in both
+     * participants' indexes and renews the TTLs, all in one round trip.
+     */
+    public void append(ChatData chat) {
+        RBatch batch = redissonClient.createBatch();
+        RListAsync<ChatData> log = batch.getList(chatLog(chat.getChatId()), codecs.chats());
+        log.addAsync(chat);
+        log.expireAsync(CHAT_TTL_DAYS, TimeUnit.DAYS);
+        indexForParticipants(batch, chat.getChatId(), instantOf(chat).toEpochMilli());
+        batch.execute();
+    }
+
+    /**
+     * chatIds are the participants joined with ':' (see chatIdFor), so the
+     * index entries can be derived from the id alone. The AI side has no index.
+     */
+    private void indexForParticipants(RBatch batch, String chatId, long lastActivity) {
+        for (String participant : chatId.split(":")) {
+            if (participant.isEmpty() || AIReplyService.AI_SENDER.equals(participant)) {
+                continue;
+            }
+            RScoredSortedSetAsync<String> index = batch.getScoredSortedSet(userIndex(participant));
+            index.addAsync(lastActivity, chatId);
+            index.removeRangeByScoreAsync(Double.NEGATIVE_INFINITY, true,
+                    System.currentTimeMillis() - TimeUnit.DAYS.toMillis(CHAT_TTL_DAYS), false);
+            index.expireAsync(CHAT_TTL_DAYS, TimeUnit.DAYS);
+        }
+    }
+
+    /** The user's chatIds, most recently active first. */
+    public List<String> conversationsOf(String email, int limit) {
+        RScoredSortedSet<String> index = redissonClient.getScoredSortedSet(userIndex(email));
+        return new ArrayList<>(index.valueRangeReversed(0, limit - 1));
+    }
+
+    /**
+     * Every message in the user's conversations, read with one batched LRANGE
+     * per conversation.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ChatData> findByUser(String email) {
+        List<String> chatIds = conversationsOf(email, Integer.MAX_VALUE);
+        if (chatIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        RBatch batch = redissonClient.createBatch();
+        for (String chatId : chatIds) {
+            batch.<ChatData>getList(chatLog(chatId), codecs.chats()).readAllAsync();
+        }
+        List<ChatData> result = new ArrayList<>();
+        for (Object conversation : batch.execute().getResponses()) {
+            result.addAll((List<ChatData>) conversation);
+        }
+        return result;
+    }
+
+    /**
+     * Position of a message in the feed's order: newest first by timestamp,
+     * ties broken by chatId and then by position in the conversation's log, so
+     * every message has its own place and a page can end between messages
+     * that share a timestamp. Serialized as {@code <instant>|<position>|<chatId>};
+     * a bare instant, as issued before, means everything strictly older.
+     */
+    record FeedCursor(Instant timestamp, int position, String chatId) {
+
+        static FeedCursor parse(String cursor) {
+            if (cursor == null || cursor.isEmpty()) {
+                return null;
+            }
+            String[] parts = cursor.split("\\|", 3);
+            if (parts.length == 1) {
+                return new FeedCursor(Instant.parse(parts[0]), -1, null);
+            }
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed feed cursor: " + cursor);
+            }
+            return new FeedCursor(Instant.parse(parts[0]), Integer.parseInt(parts[1]), parts[2]);
+        }
+
+        static FeedCursor of(FeedItem item) {
+            return new FeedCursor(instantOf(item.chat()), item.position(), item.chatId());
+        }
+
+        /** Whether {@code item} comes after this cursor, i.e. is older. */
+        boolean isBefore(FeedItem item) {
+            int byTime = instantOf(item.chat()).compareTo(timestamp);
+            if (byTime != 0 || chatId == null) {
+                return byTime < 0;
+            }
+            int byChat = item.chatId().compareTo(chatId);
+            return byChat < 0 || (byChat == 0 && item.position() < position);
+        }
+
+        @Override
+        public String toString() {
+            return chatId == null ? timestamp.toString() : timestamp + "|" + position + "|" + chatId;
+        }
+    }
+
+    /** A message together with its conversation and its position in that conversation's log. */
+    record FeedItem(ChatData chat, String chatId, int position) {
+    }
+
+    /** The last messages of a conversation's log, oldest first, and the length of the log. */
+    record Tail(List<ChatData> messages, int size) {
+    }
+
+    /** Reads the last {@code window} messages of each of {@code chatIds}, in that order. */
+    interface TailReader {
+        List<Tail> read(List<String> chatIds, int window);
+    }
+
+    private static final Comparator<FeedItem> FEED_ORDER = Comparator
+            .comparing((FeedItem item) -> instantOf(item.chat()))
+            .thenComparing(FeedItem::chatId)
+            .thenComparingInt(FeedItem::position)
+            .reversed();
+
+    /**
+     * The newest {@code limit} messages across the user's conversations that
+     * come after {@code before} (see {@link FeedCursor}), or the newest of all
+     * when it is null.
+     */
+    public ChatFeed feed(String email, String before, int limit) {
+        return feed(conversationsOf(email, MAX_FEED_CONVERSATIONS), FeedCursor.parse(before), limit,
+                this::readTails);
+    }
+
+    /**
+     * Each conversation is time-ordered, so only its tail can matter: one
+     * batch reads the last {@code limit} messages of every conversation. A
+     * conversation whose tail does not yet hold {@code limit} messages past
+     * the cursor is read again with a doubled window until it does or runs
+     * out. The tails are then merged newest first. There is a next page when
+     * a read message was left out of this one, or when a conversation has
+     * older messages than those read.
+     */
+    static ChatFeed feed(List<String> chatIds, FeedCursor before, int limit, TailReader reader) {
+        if (limit <= 0) {
+            return new ChatFeed(new ArrayList<>(), before != null ? before.toString() : null);
+        }
+        List<List<FeedItem>> tails = new ArrayList<>();
+        boolean olderUnread = false;
+        List<String> pending = chatIds;
+        int window = limit;
+        while (!pending.isEmpty()) {
+            List<Tail> read = reader.read(pending, window);
+            List<String> again = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                Tail tail = read.get(i);
+                int first = tail.size() - tail.messages().size();
+                List<FeedItem> older = new ArrayList<>(tail.messages().size());
+                for (int j = 0; j < tail.messages().size(); j++) {
+                    FeedItem item = new FeedItem(tail.messages().get(j), pending.get(i), first + j);
+                    if (before == null || before.isBefore(item)) {
+                        older.add(item);
+                    }
+                }
+                if (older.size() < limit && first > 0) {
+                    again.add(pending.get(i));
+                } else {
+                    tails.add(older);
+                    olderUnread |= first > 0;
+                }
+            }
+            pending = again;
+            window *= 2;
+        }
+
+        List<FeedItem> merged = mergeNewestFirst(tails, limit, FEED_ORDER);
+        int available = tails.stream().mapToInt(List::size).sum();
+        String nextCursor = null;
+        if (merged.size() == limit && (available > limit || olderUnread)) {
+            nextCursor = FeedCursor.of(merged.get(merged.size() - 1)).toString();
+        }
+        List<ChatData> messages = new ArrayList<>(merged.size());
+        merged.forEach(item -> messages.add(item.chat()));
+        return new ChatFeed(messages, nextCursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Tail> readTails(List<String> chatIds, int window) {
+        RBatch batch = redissonClient.createBatch();
+        for (String chatId : chatIds) {
+            RListAsync<ChatData> log = batch.getList(chatLog(chatId), codecs.chats());
+            log.sizeAsync();
+            log.rangeAsync(-window, -1);
+        }
+        List<?> responses = batch.execute().getResponses();
+        List<Tail> tails = new ArrayList<>(chatIds.size());
+        for (int i = 0; i < chatIds.size(); i++) {
+            tails.add(new Tail((List<ChatData>) responses.get(2 * i + 1), (Integer) responses.get(2 * i)));
+        }
+        return tails;
+    }
+
+    /**
+     * The latest {@code limit} messages for each user across their most
+     * recently active conversations. Two batches whatever the number of users:
+     * one for the users' indexes, one for the tails of the distinct
+     * conversations they share.
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<ChatData>> latestByUsers(List<String> emails, int limit) {
+        List<List<ChatData>> result = new ArrayList<>(emails.size());
+        if (emails.isEmpty() || limit <= 0) {
+            emails.forEach(email -> result.add(new ArrayList<>()));
+            return result;
+        }
+        RBatch indexes = redissonClient.createBatch();
+        for (String email : emails) {
+            indexes.<String>getScoredSortedSet(userIndex(email)).valueRangeReversedAsync(0, MAX_FEED_CONVERSATIONS - 1);
+        }
+        List<?> chatIdsPerUser = indexes.execute().getResponses();
+
+        Map<String, List<ChatData>> tails = new LinkedHashMap<>();
+        for (Object chatIds : chatIdsPerUser) {
+            for (String chatId : (Collection<String>) chatIds) {
+                tails.putIfAbsent(chatId, null);
+            }
+        }
+        if (!tails.isEmpty()) {
+            RBatch logs = redissonClient.createBatch();
+            for (String chatId : tails.keySet()) {
+                logs.<ChatData>getList(chatLog(chatId), codecs.chats()).rangeAsync(-limit, -1);
+            }
+            List<?> responses = logs.execute().getResponses();
+            int i = 0;
+            for (Map.Entry<String, List<ChatData>> entry : tails.entrySet()) {
+                entry.setValue((List<ChatData>) responses.get(i++));
+            }
+        }
+
+        for (Object chatIds : chatIdsPerUser) {
+            List<List<ChatData>> mine = new ArrayList<>();
+            for (String chatId : (Collection<String>) chatIds) {
+                mine.add(tails.get(chatId));
+            }
+            result.add(mergeNewestFirst(mine, limit, ChatStore::compareNewestFirst));
+        }
+        return result;
+    }
+
+    /** k-way merge from the end of each list, newest first; each list is oldest first in {@code newestFirst}'s terms. */
+    static <T> List<T> mergeNewestFirst(List<List<T>> tails, int limit, Comparator<T> newestFirst) {
+        List<T> merged = new ArrayList<>();
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> newestFirst.compare(
+                tails.get(a[0]).get(a[1]), tails.get(b[0]).get(b[1])));
+        for (int t = 0; t < tails.size(); t++) {
+            if (!tails.get(t).isEmpty()) {
+                heads.add(new int[] {t, tails.get(t).size() - 1});
+            }
+        }
+        while (merged.size() < limit && !heads.isEmpty()) {
+            int[] head = heads.poll();
+            merged.add(tails.get(head[0]).get(head[1]));
+            if (head[1] > 0) {
+                heads.add(new int[] {head[0], head[1] - 1});
+            }
+        }
+        return merged;
+    }
+
+    private static int compareNewestFirst(ChatData a, ChatData b) {
+        return instantOf(b).compareTo(instantOf(a));
+    }
+
+    /** Ids of every conversation that still has a log, found with SCAN. */
+    private List<String> conversationIds() {
+        return redissonClient.getKeys().getKeysStreamByPattern(CHAT_LOG_PREFIX + "*")
+                .map(key -> key.substring(CHAT_LOG_PREFIX.length()))
+                .collect(Collectors.toList());
+    }
+
+    /** The whole conversation, oldest first. */
+    public List<ChatData> readAll(String chatId) {
+        RList<ChatData> log = redissonClient.getList(chatLog(chatId), codecs.chats());
+        return log.readAll();
+    }
+
+    /**
+     * Up to {@code limit} messages immediately before position {@code before},
+     * or the latest ones when {@code before} is null. Length and range are read
+     * atomically so the returned cursor matches the page.
+     */
+    @SuppressWarnings("unchecked")
+    public ChatPage page(String chatId, Integer before, int limit) {
+        if (limit <= 0) {
+            return new ChatPage(new ArrayList<>(), before);
+        }
+        if (before != null) {
+            if (before <= 0) {
+                return new ChatPage(new ArrayList<>(), null);
+            }
+            int from = Math.max(0, before - limit);
+            RList<ChatData> log = redissonClient.getList(chatLog(chatId), codecs.chats());
+            List<ChatData> messages = log.range(from, before - 1);
+            return new ChatPage(messages, from > 0 ? from : null);
+        }
+
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults()
+                .executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+        RListAsync<ChatData> log = batch.getList(chatLog(chatId), codecs.chats());
+        log.sizeAsync();
+        log.rangeAsync(-limit, -1);
+        BatchResult<?> result = batch.execute();
+        int size = (Integer) result.getResponses().get(0);
+        List<ChatData> messages = (List<ChatData>) result.getResponses().get(1);
+        int first = size - messages.size();
+        return new ChatPage(messages, first > 0 ? first : null);
+    }
+
+    /**
+     * Moves conversations stored as whole-list blobs in {@code chatsCache}
+     * into their logs and indexes them. One node does the move, under a lock.
+     * The legacy history is pushed onto the head of the log, in front of
+     * anything appended since, without rewriting the log. That shifts the
+     * positions of those newer messages, so feed cursors issued for the
+     * conversation before it moved are no longer exact. A page started from
+     * such a cursor can skip or repeat messages that share the cursor's
+     * timestamp; clients recover by starting again from the first page.
+     * Appending the history at the tail instead would put it after messages
+     * sent since, and other replicas keep appending while this runs. Each conversation
+     * moves in one atomic batch that also drops it from {@code chatsCache},
+     * so a run that fails partway can simply run again. The marker is only
+     * written once every conversation has moved.
+     */
+    void migrateLegacyConversations(@Observes StartupEvent event) {
+        RBucket<String> marker = redissonClient.getBucket(MIGRATION_MARKER);
+        RLock lock = redissonClient.getLock(MIGRATION_LOCK);
+        try {
+            if (!marker.isExists() && lock.tryLock()) {
+                try {
+                    if (!marker.isExists()) {
+                        int migrated = moveLegacyConversations();
+                        marker.set("done");
+                        logger.log(Level.INFO, String.format("Migrated %d conversations to chat logs", migrated));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Chat log migration failed, will retry on next start: %s",
+                    e.getMessage()));
+        }
+        backfillUserIndexes();
+    }
+
+    private int moveLegacyConversations() {
+        RMapCache<String, List<ChatData>> legacy =
+                redissonClient.getMapCache(LEGACY_CHATS_CACHE, codecs.conversations());
+        int migrated = 0;
+        for (String chatId : legacy.keySet()) {
+            List<ChatData> history = legacy.get(chatId);
+            if (history == null || history.isEmpty()) {
+                legacy.fastRemove(chatId);
+                continue;
+            }
+            // Messages sent since the switch to logs are newer than the legacy history
+            List<ChatData> newest = redissonClient.<ChatData>getList(chatLog(chatId), codecs.chats()).range(-1, -1);
+            ChatData lastMessage = newest.isEmpty() ? history.get(history.size() - 1) : newest.get(0);
+
+            RBatch batch = redissonClient.createBatch(BatchOptions.defaults()
+                    .executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+            RDequeAsync<ChatData> log = batch.getDeque(chatLog(chatId), codecs.chats());
+            // LPUSH one by one from the newest, so the history ends up in order ahead of newer messages
+            for (int i = history.size() - 1; i >= 0; i--) {
+                log.addFirstAsync(history.get(i));
+            }
+            log.expireAsync(CHAT_TTL_DAYS, TimeUnit.DAYS);
+            indexForParticipants(batch, chatId, instantOf(lastMessage).toEpochMilli());
+            batch.getMapCache(LEGACY_CHATS_CACHE, codecs.conversations()).fastRemoveAsync(chatId);
+            batch.execute();
+            migrated++;
+        }
+        return migrated;
+    }
+
+    /**
+     * Indexes conversation logs written before the per-user index existed.
+     * Runs after the legacy migration so it sees every log. One node does it,
+     * under a lock, and writes the marker only after every log is indexed, so
+     * a failed run is retried on the next start. The marker never expires,
+     * since appends keep the indexes current.
+     */
+    private void backfillUserIndexes() {
+        RBucket<String> marker = redissonClient.getBucket(BACKFILL_MARKER);
+        RLock lock = redissonClient.getLock(BACKFILL_LOCK);
+        try {
+            if (!marker.isExists() && lock.tryLock()) {
+                try {
+                    if (!marker.isExists()) {
+                        int indexed = indexExistingConversations();
+                        marker.set("done");
+                        logger.log(Level.INFO, String.format("Indexed %d existing conversations by user", indexed));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Chat index backfill failed, will retry on next start: %s",
+                    e.getMessage()));
+        }
+    }
+
+    private int indexExistingConversations() {
+        int indexed = 0;
+        for (String chatId : conversationIds()) {
+            RList<ChatData> log = redissonClient.getList(chatLog(chatId), codecs.chats());
+            List<ChatData> last = log.range(-1, -1);
+            if (last.isEmpty()) {
+                continue;
+            }
+            RBatch batch = redissonClient.createBatch();
+            indexForParticipants(batch, chatId, instantOf(last.get(0)).toEpochMilli());
+            batch.execute();
+            indexed++;
+        }
+        return indexed;
+    }
+}
@@ -0,0 +1,256 @@
+package stocks.services;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import stocks.models.GameData;
+import stocks.models.HistoricalStockData;
+import stocks.scrappers.HistoricalStockScraper;
+
+/**
+ * Settles recorded games after the close. Pending game ids are queued by
+ * {@link GameStore} under their evaluation day; each run groups the due games by
+ * (evaluation date, symbol) so a post-close burst costs one prediction and one
+ * history fetch per symbol rather than one per game. Prices are remembered for
+ * the whole run, so groups split across batches are not priced twice. When the
+ * market was closed on the evaluation date (a holiday), the next session's
+ * close decides the game.
+ */
+@ApplicationScoped
+public class GameSettlementService {
+    private static final Logger logger = Logger.getLogger(GameSettlementService.class.getName());
+
+    private static final ZoneId NEW_YORK_ZONE = ZoneId.of("America/New_York");
+    private static final LocalTime RESULT_TIME = LocalTime.of(17, 0); // 5 PM
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter HISTORY_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.ENGLISH);
+    // Longest run of weekdays the exchange has been closed for, with room to spare
+    private static final int MARKET_CLOSURE_LOOKAHEAD_DAYS = 7;
+    private static final int BATCH_SIZE = 1000;
+    private static final String SETTLEMENT_LOCK = "pendingGames:settlement";
+
+    /** Predicted and actual close deciding the games of one (evaluation date, symbol). */
+    private record Prices(double predicted, double actual) {
+    }
+
+    private static final Prices UNAVAILABLE = new Prices(Double.NaN, Double.NaN);
+
+    @Inject
+    GameStore gameStore;
+
+    @Inject
+    PredictorService predictionService;
+
+    @Inject
+    LeaderboardService leaderboardService;
+
+    @Inject
+    RedissonClient redissonClient;
+
+    /**
+     * Trading day whose close decides a game recorded at {@code recordedAt}.
+     * Weekend games are scored against the following Monday.
+     */
+    public static LocalDate evaluationDateFor(Instant recordedAt) {
+        LocalDate date = recordedAt.atZone(NEW_YORK_ZONE).toLocalDate();
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        if (dayOfWeek == DayOfWeek.SATURDAY) {
+            return date.plusDays(2);
+        }
+        if (dayOfWeek == DayOfWeek.SUNDAY) {
+            return date.plusDays(1);
+        }
+        return date;
+    }
+
+    /**
+     * Stores a new, provisional game and queues it for settlement.
+     */
+    public void recordPending(GameData game) throws Exception {
+        gameStore.record(game, evaluationDateFor(Instant.ofEpochMilli(Long.parseLong(game.getGameId()))));
+    }
+
+    @Scheduled(every = "{stocks.games.settlement.every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void settleDueGames() {
+        ZonedDateTime nyTime = ZonedDateTime.now(NEW_YORK_ZONE);
+        LocalDate lastDueDate = nyTime.toLocalTime().isAfter(RESULT_TIME)
+                ? nyTime.toLocalDate()
+                : nyTime.toLocalDate().minusDays(1);
+        // One settler at a time across replicas, otherwise coins would be counted twice
+        RLock lock = redissonClient.getLock(SETTLEMENT_LOCK);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            int settled = settleGamesDueBy(lastDueDate);
+            if (settled > 0) {
+                logger.log(Level.INFO, String.format("Settled %d games due by %s", settled, lastDueDate));
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, String.format("Game settlement failed: %s", e.getMessage()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Settles every pending game whose evaluation date is on or before
+     * {@code lastDueDate}. Returns the number of games scored.
+     */
+    public int settleGamesDueBy(LocalDate lastDueDate) throws Exception {
+        LocalDate expiredBefore = lastDueDate.minusDays(GameStore.GAME_TTL_DAYS);
+        Map<String, Prices> pricesByGroup = new HashMap<>();
+
+        int settled = 0;
+        int offset = 0;
+        while (true) {
+            Collection<String> due = gameStore.pendingDueBy(lastDueDate, offset, BATCH_SIZE);
+            if (due.isEmpty()) {
+                break;
+            }
+
+            Map<String, GameData> stored = gameStore.loadAll(new HashSet<>(due));
+            Map<String, List<GameData>> groups = new LinkedHashMap<>();
+            List<String> finished = new ArrayList<>();
+            for (String gameId : due) {
+                GameData game = stored.get(gameId);
+                if (game == null) {
+                    // The game itself has expired; nothing left to settle
+                    finished.add(gameId);
+                    continue;
+                }
+                LocalDate evaluationDate = evaluationDateFor(Instant.ofEpochMilli(Long.parseLong(gameId)));
+                groups.computeIfAbsent(evaluationDate + "|" + game.getSymbol(), k -> new ArrayList<>()).add(game);
+            }
+
+            List<GameData> results = new ArrayList<>();
+            for (Map.Entry<String, List<GameData>> entry : groups.entrySet()) {
+                List<GameData> group = entry.getValue();
+                GameData first = group.get(0);
+                LocalDate evaluationDate = evaluationDateFor(Instant.ofEpochMilli(Long.parseLong(first.getGameId())));
+                Prices prices = pricesByGroup.computeIfAbsent(entry.getKey(),
+                        key -> loadPrices(first.getSymbol(), evaluationDate, lastDueDate));
+                if (prices == UNAVAILABLE) {
+                    if (evaluationDate.isBefore(expiredBefore)) {
+                        group.forEach(game -> finished.add(game.getGameId()));
+                    }
+                    continue;
+                }
+                for (GameData game : group) {
+                    results.add(score(game, prices.predicted(), prices.actual()));
+                    finished.add(game.getGameId());
+                }
+            }
+
+            gameStore.saveSettled(results, finished,
+                    batch -> leaderboardService.addSettledGames(batch, results));
+
+            settled += results.size();
+            // Games we could not price yet stay queued; step over them
+            offset += due.size() - finished.size();
+            if (due.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Returns the predicted and actual close for the symbol on the first session
+     * on or after {@code evaluationDate}, or {@link #UNAVAILABLE} when that close
+     * is not known yet. Only sessions up to {@code lastDueDate} count, so a
+     * session still trading is never used.
+     */
+    private Prices loadPrices(String symbol, LocalDate evaluationDate, LocalDate lastDueDate) {
+        try {
+            LocalDate lastSession = evaluationDate.plusDays(MARKET_CLOSURE_LOOKAHEAD_DAYS);
+            if (lastSession.isAfter(lastDueDate)) {
+                lastSession = lastDueDate;
+            }
+            HistoricalStockData session = firstSession(
+                    HistoricalStockScraper.fetchHistoricalData(symbol, evaluationDate, lastSession), evaluationDate);
+            if (session == null) {
+                logger.log(Level.WARNING, String.format("No market data available for %s on %s", symbol, evaluationDate));
+                return UNAVAILABLE;
+            }
+            LocalDate sessionDate = LocalDate.parse(session.getDate(), HISTORY_DATE_FORMATTER);
+            if (!sessionDate.equals(evaluationDate)) {
+                logger.log(Level.INFO, String.format("Market closed on %s; settling %s games against %s",
+                        evaluationDate, symbol, sessionDate));
+            }
+            double actualPrice = Double.parseDouble(session.getClose().replace(",", ""));
+
+            PredictionResponse prediction = predictionService.predictStockPrice(
+                symbol,
+                sessionDate.minusYears(2).format(DATE_FORMATTER),
+                sessionDate.format(DATE_FORMATTER)
+            );
+            return new Prices(prediction.getPredictedClosingPrice(), actualPrice);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not price %s for %s: %s", symbol, evaluationDate, e.getMessage()));
+            return UNAVAILABLE;
+        }
+    }
+
+    /** The earliest row dated on or after {@code from}, or null; rows with unreadable dates are ignored. */
+    static HistoricalStockData firstSession(List<HistoricalStockData> rows, LocalDate from) {
+        HistoricalStockData first = null;
+        LocalDate firstDate = null;
+        for (HistoricalStockData row : rows) {
+            LocalDate date;
+            try {
+                date = LocalDate.parse(row.getDate(), HISTORY_DATE_FORMATTER);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (!date.isBefore(from) && (firstDate == null || date.isBefore(firstDate))) {
+                first = row;
+                firstDate = date;
+            }
+        }
+        return first;
+    }
+
+    static GameData score(GameData game, double predictedPrice, double actualPrice) {
+        double userPredictedPrice;
+        try {
+            userPredictedPrice = Double.parseDouble(game.getUserPrediction());
+        } catch (NumberFormatException e) {
+            userPredictedPrice = Double.NaN;
+        }
+
+        double threshold = predictedPrice * 0.005;
+        boolean userHit = Math.abs(userPredictedPrice - actualPrice) <= threshold;
+        boolean modelHit = Math.abs(predictedPrice - actualPrice) <= threshold;
+
+        if (userHit && modelHit) {
+            return new GameData(game.getGameId(), game.getEmail(), game.getSymbol(), game.getUserPrediction(), true, 100);
+        }
+        if (userHit) {
+            return new GameData(game.getGameId(), game.getEmail(), game.getSymbol(), game.getUserPrediction(), true, 200);
+        }
+        return new GameData(game.getGameId(), game.getEmail(), game.getSymbol(), game.getUserPrediction(), false, -10);
+    }
+}
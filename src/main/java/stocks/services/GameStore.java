@@ -0,0 +1,217 @@
+package stocks.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RMapCacheAsync;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RedissonClient;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import stocks.models.GameData;
+import stocks.storage.RecordCodecs;
+
+/**
+ * Redis layout for games.
+ * <ul>
+ *   <li>{@code gamesCache}: gameId to game record, the source of truth</li>
+ *   <li>{@code gameIdsByUser:<email>}: sorted set of that user's gameIds scored
+ *       by creation time, so a page of history is a ZREVRANGEBYSCORE followed by
+ *       one HMGET of just those games</li>
+ *   <li>{@code pendingGames}: unsettled game ids scored by evaluation day</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class GameStore {
+    private static final Logger logger = Logger.getLogger(GameStore.class.getName());
+
+    public static final String GAMES_CACHE = "gamesCache";
+    public static final String PENDING_GAMES = "pendingGames";
+    public static final long GAME_TTL_DAYS = 7;
+
+    private static final String USER_INDEX_PREFIX = "gameIdsByUser:";
+    private static final String BACKFILL_MARKER = "gameIdsByUser:backfilled";
+    private static final String BACKFILL_LOCK = "gameIdsByUser:backfill";
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    RecordCodecs codecs;
+
+    private static String userIndex(String email) {
+        return USER_INDEX_PREFIX + email;
+    }
+
+    /**
+     * Stores a new game, indexes it for its user and queues it for settlement
+     * in one round trip.
+     */
+    public void record(GameData game, LocalDate evaluationDate) {
+        RBatch batch = redissonClient.createBatch();
+        RMapCacheAsync<String, GameData> games = batch.getMapCache(GAMES_CACHE, codecs.games());
+        games.putAsync(game.getGameId(), game, GAME_TTL_DAYS, TimeUnit.DAYS);
+        indexForUser(batch, game);
+        batch.<String>getScoredSortedSet(PENDING_GAMES).addAsync(evaluationDate.toEpochDay(), game.getGameId());
+        batch.execute();
+    }
+
+    /**
+     * Adds a game to the user's index, trims entries that have outlived the
+     * game TTL and pushes the index expiry forward. The index only holds ids,
+     * so settling a game does not touch it.
+     */
+    private void indexForUser(RBatch batch, GameData game) {
+        RScoredSortedSetAsync<String> index = batch.getScoredSortedSet(userIndex(game.getEmail()));
+        index.addAsync(Long.parseLong(game.getGameId()), game.getGameId());
+        index.removeRangeByScoreAsync(Double.NEGATIVE_INFINITY, true,
+                System.currentTimeMillis() - TimeUnit.DAYS.toMillis(GAME_TTL_DAYS), false);
+        index.expireAsync(GAME_TTL_DAYS, TimeUnit.DAYS);
+    }
+
+    public Collection<String> pendingDueBy(LocalDate lastDueDate, int offset, int count) {
+        RScoredSortedSet<String> pending = redissonClient.getScoredSortedSet(PENDING_GAMES);
+        return pending.valueRange(Double.NEGATIVE_INFINITY, true, lastDueDate.toEpochDay(), true, offset, count);
+    }
+
+    public Map<String, GameData> loadAll(Set<String> gameIds) {
+        RMapCache<String, GameData> games = redissonClient.getMapCache(GAMES_CACHE, codecs.games());
+        return games.getAll(gameIds);
+    }
+
+    /**
+     * Writes settled games back and drops {@code finishedIds} from the pending
+     * queue, all in one atomic batch together with whatever
+     * {@code alsoInBatch} queues.
+     */
+    public void saveSettled(List<GameData> settled, Collection<String> finishedIds,
+                            Consumer<RBatch> alsoInBatch) {
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults()
+                .executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+        RMapCacheAsync<String, GameData> games = batch.getMapCache(GAMES_CACHE, codecs.games());
+        for (GameData game : settled) {
+            games.putAsync(game.getGameId(), game, GAME_TTL_DAYS, TimeUnit.DAYS);
+        }
+        if (!finishedIds.isEmpty()) {
+            batch.<String>getScoredSortedSet(PENDING_GAMES).removeAllAsync(finishedIds);
+        }
+        alsoInBatch.accept(batch);
+        batch.execute();
+    }
+
+    /**
+     * A user's games, newest first, optionally limited to a creation-time
+     * window (epoch millis, inclusive).
+     */
+    public List<GameData> findByUser(String email, Long fromTimestamp, Long toTimestamp,
+                                     int offset, int limit) {
+        RScoredSortedSet<String> index = redissonClient.getScoredSortedSet(userIndex(email));
+        Collection<String> gameIds = index.valueRangeReversed(
+                fromTimestamp != null ? fromTimestamp : Double.NEGATIVE_INFINITY, true,
+                toTimestamp != null ? toTimestamp : Double.POSITIVE_INFINITY, true,
+                offset, limit);
+        if (gameIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, GameData> games = loadAll(new LinkedHashSet<>(gameIds));
+        return inIndexOrder(gameIds, games);
+    }
+
+    /**
+     * The newest {@code limit} games of each user, in the order of
+     * {@code emails}. Two round trips whatever the number of users: one batch
+     * for the indexes, one HMGET for the games they list.
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<GameData>> latestByUsers(List<String> emails, int limit) {
+        List<List<GameData>> result = new ArrayList<>(emails.size());
+        if (emails.isEmpty() || limit <= 0) {
+            emails.forEach(email -> result.add(new ArrayList<>()));
+            return result;
+        }
+        RBatch batch = redissonClient.createBatch();
+        for (String email : emails) {
+            batch.<String>getScoredSortedSet(userIndex(email)).valueRangeReversedAsync(0, limit - 1);
+        }
+        List<?> gameIdsPerUser = batch.execute().getResponses();
+        Set<String> allIds = new LinkedHashSet<>();
+        for (Object gameIds : gameIdsPerUser) {
+            allIds.addAll((Collection<String>) gameIds);
+        }
+        Map<String, GameData> games = allIds.isEmpty() ? Map.of() : loadAll(allIds);
+        for (Object gameIds : gameIdsPerUser) {
+            result.add(inIndexOrder((Collection<String>) gameIds, games));
+        }
+        return result;
+    }
+
+    /** Games in the order of their ids; ids whose game has expired are skipped. */
+    private static List<GameData> inIndexOrder(Collection<String> gameIds, Map<String, GameData> games) {
+        List<GameData> ordered = new ArrayList<>(gameIds.size());
+        for (String gameId : gameIds) {
+            GameData game = games.get(gameId);
+            if (game != null) {
+                ordered.add(game);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Builds the per-user indexes once for games recorded before they existed.
+     * Only one node does the scan, under a lock, and the marker is written only
+     * after it completes, so a scan that fails or dies partway runs again on
+     * the next start. Indexing is idempotent. The marker never expires: every
+     * write keeps the indexes current from then on.
+     */
+    void backfillUserIndexes(@Observes StartupEvent event) {
+        RBucket<String> marker = redissonClient.getBucket(BACKFILL_MARKER);
+        RLock lock = redissonClient.getLock(BACKFILL_LOCK);
+        try {
+            if (!marker.isExists() && lock.tryLock()) {
+                try {
+                    if (!marker.isExists()) {
+                        int indexed = indexExistingGames();
+                        marker.set("done");
+                        logger.log(Level.INFO, String.format("Indexed %d existing games by user", indexed));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Game index backfill failed, will retry on next start: %s",
+                    e.getMessage()));
+        }
+    }
+
+    private int indexExistingGames() {
+        RMapCache<String, GameData> games = redissonClient.getMapCache(GAMES_CACHE, codecs.games());
+        RBatch batch = redissonClient.createBatch();
+        int indexed = 0;
+        for (GameData game : games.values()) {
+            indexForUser(batch, game);
+            indexed++;
+        }
+        batch.execute();
+        return indexed;
+    }
+}
@@ -0,0 +1,116 @@
+package stocks.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column-oriented daily bars backed by primitive arrays.
+ * Filled directly by {@link PredictorModel#parseBars} so a two-year response
+ * does not allocate one object per field.
+ */
+public class HistoricalBars {
+    private static final int INITIAL_CAPACITY = 512;
+
+    private long[] epochDays;
+    private double[] open;
+    private double[] close;
+    private double[] high;
+    private double[] low;
+    private double[] volume;
+    private int size;
+
+    public HistoricalBars() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public HistoricalBars(int capacity) {
+        int initial = Math.max(capacity, 16);
+        epochDays = new long[initial];
+        open = new double[initial];
+        close = new double[initial];
+        high = new double[initial];
+        low = new double[initial];
+        volume = new double[initial];
+    }
+
+    public void add(long epochDay, double open, double close, double high, double low, double volume) {
+        if (size == epochDays.length) {
+            grow();
+        }
+        this.epochDays[size] = epochDay;
+        this.open[size] = open;
+        this.close[size] = close;
+        this.high[size] = high;
+        this.low[size] = low;
+        this.volume[size] = volume;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = epochDays.length * 2;
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        open = Arrays.copyOf(open, capacity);
+        close = Arrays.copyOf(close, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+    }
+
+    /**
+     * Sorts the bars by date in ascending order. Yahoo returns history newest
+     * first, so the common case is a single in-place reversal.
+     */
+    public void sortByDate() {
+        boolean ascending = true;
+        boolean descending = true;
+        for (int i = 1; i < size && (ascending || descending); i++) {
+            if (epochDays[i - 1] > epochDays[i]) ascending = false;
+            if (epochDays[i - 1] < epochDays[i]) descending = false;
+        }
+        if (ascending) {
+            return;
+        }
+        if (descending) {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                swap(i, j);
+            }
+            return;
+        }
+        // Mixed order: insertion sort, the input is almost always nearly sorted
+        for (int i = 1; i < size; i++) {
+            for (int j = i; j > 0 && epochDays[j - 1] > epochDays[j]; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        long day = epochDays[i]; epochDays[i] = epochDays[j]; epochDays[j] = day;
+        double o = open[i]; open[i] = open[j]; open[j] = o;
+        double c = close[i]; close[i] = close[j]; close[j] = c;
+        double h = high[i]; high[i] = high[j]; high[j] = h;
+        double l = low[i]; low[i] = low[j]; low[j] = l;
+        double v = volume[i]; volume[i] = volume[j]; volume[j] = v;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public long epochDay(int i) { return epochDays[i]; }
+    public LocalDate date(int i) { return LocalDate.ofEpochDay(epochDays[i]); }
+    public double open(int i) { return open[i]; }
+    public double close(int i) { return close[i]; }
+    public double high(int i) { return high[i]; }
+    public double low(int i) { return low[i]; }
+    public double volume(int i) { return volume[i]; }
+
+    public List<PredictorModel> toModels() {
+        List<PredictorModel> models = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            models.add(new PredictorModel(date(i), open[i], close[i], high[i], low[i], volume[i]));
+        }
+        return models;
+    }
+}
@@ -0,0 +1,113 @@
+package stocks.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RedissonClient;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * How often each symbol is requested, shared by all replicas and kept across
+ * restarts so a fresh instance knows what to warm up.
+ * <ul>
+ *   <li>{@code hotSymbols}: symbols scored by request count, trimmed to the
+ *       {@code stocks.warmup.tracked-symbols} most requested</li>
+ * </ul>
+ * Requests only bump an in-memory counter; the counts are added to Redis in
+ * one batch every {@code stocks.warmup.flush-every} and the counters are
+ * dropped. Only strings shaped like a ticker are counted, and at most
+ * {@code MAX_PENDING} distinct ones between flushes, so arbitrary input
+ * cannot grow either side.
+ */
+@ApplicationScoped
+public class HotSymbols {
+    private static final Logger logger = Logger.getLogger(HotSymbols.class.getName());
+
+    private static final String HOT_SYMBOLS = "hotSymbols";
+    private static final int MAX_PENDING = 10_000;
+
+    // Yahoo symbols: letters and digits with '.', '-', '^' and '=' (BRK-B, ^GSPC, 0700.HK, EURUSD=X)
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9.\\-^=]{1,12}");
+
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @ConfigProperty(name = "stocks.warmup.tracked-symbols", defaultValue = "1000")
+    int trackedSymbols;
+
+    public void record(String symbol) {
+        String normalized = normalize(symbol);
+        if (normalized == null) {
+            return;
+        }
+        LongAdder count = pending.get(normalized);
+        if (count == null) {
+            if (pending.size() >= MAX_PENDING) {
+                return;
+            }
+            count = pending.computeIfAbsent(normalized, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /** The upper-case symbol, or null if {@code symbol} cannot be a ticker. */
+    static String normalize(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+        String upper = symbol.trim().toUpperCase();
+        return SYMBOL.matcher(upper).matches() ? upper : null;
+    }
+
+    @Scheduled(every = "{stocks.warmup.flush-every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            RBatch batch = redissonClient.createBatch();
+            RScoredSortedSetAsync<String> hot = batch.getScoredSortedSet(HOT_SYMBOLS);
+            // A request racing with its counter's removal may go uncounted; the ranking does not need every one
+            for (String symbol : pending.keySet()) {
+                LongAdder count = pending.remove(symbol);
+                long requests = count != null ? count.sum() : 0;
+                if (requests > 0) {
+                    hot.addScoreAsync(symbol, requests);
+                }
+            }
+            // Keep only the most requested symbols (ZREMRANGEBYRANK 0 -(tracked + 1))
+            hot.removeRangeByRankAsync(0, -trackedSymbols - 1);
+            batch.execute();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not record hot symbols: %s", e.getMessage()));
+        }
+    }
+
+    void flushOnShutdown(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    /** The {@code n} most requested symbols, most requested first. */
+    public List<String> top(int n) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(redissonClient.<String>getScoredSortedSet(HOT_SYMBOLS).valueRangeReversed(0, n - 1));
+    }
+}
@@ -0,0 +1,104 @@
+package stocks.services;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Time-limited leadership of a named job across replicas, with fencing.
+ * <ul>
+ *   <li>{@code lease:{<name>}}: {@code <nodeId>:<token>} of the current holder,
+ *       expiring after {@code stocks.leases.ttl-ms} unless renewed</li>
+ *   <li>{@code lease:{<name>}:token}: counter bumped on every change of holder;
+ *       the hash tag keeps both keys in one slot on a cluster</li>
+ * </ul>
+ * The holder renews by calling {@link #tryAcquire} again each cycle and keeps
+ * its token; if it stops, the lease expires and the next caller becomes
+ * leader with a higher token. Writes made on behalf of a lease carry the
+ * token, so a paused former leader cannot overwrite its successor's results
+ * (see {@link MarketSnapshots}).
+ */
+@ApplicationScoped
+public class LeaderLeases {
+    private static final Logger logger = Logger.getLogger(LeaderLeases.class.getName());
+
+    private static final String PREFIX = "lease:";
+
+    // Returns the holder's token, or 0 when another node holds the lease
+    private static final String ACQUIRE_OR_RENEW =
+            "local holder = redis.call('get', KEYS[1]) "
+            + "if not holder then "
+            + "  local token = redis.call('incr', KEYS[2]) "
+            + "  redis.call('set', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2]) "
+            + "  return token "
+            + "end "
+            + "local sep = string.find(holder, ':[^:]*$') "
+            + "if string.sub(holder, 1, sep - 1) == ARGV[1] then "
+            + "  redis.call('pexpire', KEYS[1], ARGV[2]) "
+            + "  return tonumber(string.sub(holder, sep + 1)) "
+            + "end "
+            + "return 0";
+
+    private static final String RELEASE =
+            "local holder = redis.call('get', KEYS[1]) "
+            + "if holder and string.sub(holder, 1, string.len(ARGV[1]) + 1) == ARGV[1] .. ':' then "
+            + "  return redis.call('del', KEYS[1]) "
+            + "end "
+            + "return 0";
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @ConfigProperty(name = "stocks.leases.ttl-ms", defaultValue = "90000")
+    long ttlMillis;
+
+    /**
+     * Acquires or renews the lease. Returns the fencing token while this node
+     * is leader, 0 when another node is.
+     */
+    public long tryAcquire(String name) {
+        long start = System.nanoTime();
+        try {
+            Long token = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                    ACQUIRE_OR_RENEW, RScript.ReturnType.INTEGER, keys(name), nodeId, String.valueOf(ttlMillis));
+            StocksMetrics.recordSince(StocksMetrics.REDIS_LEASE, start);
+            return token != null ? token : 0;
+        } catch (Exception e) {
+            // Without Redis nobody can be sure of leading, so nobody does
+            logger.log(Level.WARNING, String.format("Could not acquire lease %s: %s", name, e.getMessage()));
+            return 0;
+        }
+    }
+
+    /** Gives the lease up early, e.g. on shutdown, so failover does not wait for expiry. */
+    public void release(String name) {
+        try {
+            redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                    RELEASE, RScript.ReturnType.INTEGER, keys(name), nodeId);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not release lease %s: %s", name, e.getMessage()));
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    private static List<Object> keys(String name) {
+        String lease = PREFIX + "{" + name + "}";
+        return Arrays.asList(lease, lease + ":token");
+    }
+}
@@ -0,0 +1,110 @@
+package stocks.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.protocol.ScoredEntry;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import stocks.models.GameData;
+import stocks.models.LeaderboardEntry;
+import stocks.models.LeaderboardPeriod;
+
+/**
+ * Coins leaderboards kept as Redis sorted sets keyed by email. Settlement adds
+ * each game's coins with ZINCRBY, so boards are never recomputed; top-N and
+ * rank lookups are O(log n).
+ */
+@ApplicationScoped
+public class LeaderboardService {
+    private static final ZoneId NEW_YORK_ZONE = ZoneId.of("America/New_York");
+    private static final String ALL_TIME_KEY = "leaderboard:all";
+    private static final String DAILY_PREFIX = "leaderboard:daily:";
+    private static final String WEEKLY_PREFIX = "leaderboard:weekly:";
+    private static final long DAILY_RETENTION_DAYS = 8;
+    private static final long WEEKLY_RETENTION_DAYS = 35;
+    private static final int MAX_LIMIT = 100;
+
+    @Inject
+    RedissonClient redissonClient;
+
+    static String boardKey(LeaderboardPeriod period, LocalDate date) {
+        return switch (period) {
+            case DAILY -> DAILY_PREFIX + date;
+            case WEEKLY -> WEEKLY_PREFIX + date.get(IsoFields.WEEK_BASED_YEAR) + "-W"
+                    + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+            case ALL_TIME -> ALL_TIME_KEY;
+        };
+    }
+
+    /**
+     * Queues the coins of freshly settled games onto the given batch. The daily
+     * and weekly boards are keyed by each game's evaluation date, and each
+     * board touched gets its retention renewed once per batch.
+     */
+    public void addSettledGames(RBatch batch, Collection<GameData> settled) {
+        Map<String, Long> retentionDays = new LinkedHashMap<>();
+        for (GameData game : settled) {
+            if (game.getCoinsEarned() == 0) {
+                continue;
+            }
+            LocalDate date = GameSettlementService.evaluationDateFor(
+                    Instant.ofEpochMilli(Long.parseLong(game.getGameId())));
+            String dailyKey = boardKey(LeaderboardPeriod.DAILY, date);
+            String weeklyKey = boardKey(LeaderboardPeriod.WEEKLY, date);
+
+            batch.<String>getScoredSortedSet(ALL_TIME_KEY).addScoreAsync(game.getEmail(), game.getCoinsEarned());
+            batch.<String>getScoredSortedSet(dailyKey).addScoreAsync(game.getEmail(), game.getCoinsEarned());
+            batch.<String>getScoredSortedSet(weeklyKey).addScoreAsync(game.getEmail(), game.getCoinsEarned());
+            retentionDays.put(dailyKey, DAILY_RETENTION_DAYS);
+            retentionDays.put(weeklyKey, WEEKLY_RETENTION_DAYS);
+        }
+        retentionDays.forEach((key, days) -> batch.getScoredSortedSet(key).expireAsync(days, TimeUnit.DAYS));
+    }
+
+    public List<LeaderboardEntry> top(LeaderboardPeriod period, int limit) {
+        RScoredSortedSet<String> board = redissonClient.getScoredSortedSet(
+                boardKey(period, LocalDate.now(NEW_YORK_ZONE)));
+        int count = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        List<LeaderboardEntry> entries = new ArrayList<>(count);
+        int rank = 1;
+        for (ScoredEntry<String> entry : board.entryRangeReversed(0, count - 1)) {
+            entries.add(new LeaderboardEntry(rank++, entry.getValue(), entry.getScore().longValue()));
+        }
+        return entries;
+    }
+
+    /**
+     * The user's position, or null when they have no coins in the period.
+     * Rank and score are fetched in one round trip.
+     */
+    public LeaderboardEntry rankOf(LeaderboardPeriod period, String email) {
+        String key = boardKey(period, LocalDate.now(NEW_YORK_ZONE));
+        RBatch batch = redissonClient.createBatch();
+        RScoredSortedSetAsync<String> board = batch.getScoredSortedSet(key);
+        RFuture<Integer> rank = board.revRankAsync(email);
+        RFuture<Double> score = board.getScoreAsync(email);
+        batch.execute();
+
+        Integer position = rank.toCompletableFuture().join();
+        if (position == null) {
+            return null;
+        }
+        return new LeaderboardEntry(position + 1, email, score.toCompletableFuture().join().longValue());
+    }
+}
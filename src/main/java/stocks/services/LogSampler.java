@@ -0,0 +1,43 @@
+package stocks.services;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets the first {@code limit} events of each interval through and counts the
+ * rest, so a burst of similar log lines costs one atomic increment per
+ * dropped line. Callers report {@link #drainSuppressed()} in a summary line.
+ */
+public final class LogSampler {
+
+    private final int limit;
+    private final long intervalNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger inWindow = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogSampler(int limit, long interval, TimeUnit unit) {
+        this.limit = limit;
+        this.intervalNanos = unit.toNanos(interval);
+    }
+
+    /** Whether this event should be logged. */
+    public boolean sample() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            inWindow.set(0);
+        }
+        if (inWindow.incrementAndGet() <= limit) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    /** Number of events dropped since the previous call. */
+    public long drainSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+}
@@ -8,6 +8,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.redisson.api.RedissonClient;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -31,6 +32,9 @@ public class MachineLearningService {
     @Inject
     ObjectMapper objectMapper;
 
+    @ConfigProperty(name = "stocks.predictor.graphql-url")
+    String graphqlEndpoint;
+
     /**
      * Predicts the next day's stock price based on historical data.
      *
@@ -117,7 +121,6 @@ public class MachineLearningService {
      * @throws Exception If an error occurs during data fetching or parsing.
      */
     private List<StockData> fetchHistoricalData(String symbol, String startDate, String endDate) throws Exception {
-        String graphqlEndpoint = "http://192.168.40.86:80/graphql"; // Replace with your actual endpoint
         String query = "{\n" +
                 "  historicalData(\n" +
                 "    symbol: \"" + symbol + "\",\n" +
@@ -188,7 +191,6 @@ public class MachineLearningService {
      */
     private double fetchActualPrice(String symbol, String date) {
         try {
-            String graphqlEndpoint = "http://192.168.40.86:80/graphql"; // Replace with your actual endpoint
             String query = "{\n" +
                     "  historicalData(\n" +
                     "    symbol: \"" + symbol + "\",\n" +
@@ -0,0 +1,291 @@
+package stocks.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import stocks.models.CompanyProfile;
+
+/**
+ * Builds the market-data section of AI prompts from what the app has already
+ * cached: ticker details, company profiles, the latest historical bars and the
+ * latest model prediction per symbol. It never scrapes; symbols nobody has
+ * looked at simply contribute nothing. Rendered sections are kept per symbol
+ * for a short time so a burst of questions about one ticker costs one read.
+ */
+@ApplicationScoped
+public class MarketContextAssembler {
+    private static final Logger logger = Logger.getLogger(MarketContextAssembler.class.getName());
+
+    // Written as a side effect of the regular APIs, read here
+    public static final String TICKER_DETAILS_CACHE = "tickerDetailsCache";
+    public static final String LATEST_HISTORY_CACHE = "historicalLatest";
+    public static final String LATEST_PREDICTIONS_CACHE = "latestPredictions";
+    public static final int LATEST_HISTORY_BARS = 10;
+
+    private static final int MAX_SYMBOLS = 3;
+    private static final int RECENT_CLOSES = 5;
+    private static final int DESCRIPTION_CHARS = 240;
+
+    private static final Pattern CASHTAG = Pattern.compile("\\$([A-Za-z]{1,5}(?:[.-][A-Za-z]{1,2})?)\\b");
+    private static final Pattern UPPERCASE_WORD = Pattern.compile("\\b[A-Z]{2,5}\\b");
+    private static final Set<String> NOT_TICKERS = Set.of(
+            "AI", "CEO", "CFO", "IPO", "ETF", "USA", "US", "UK", "EU", "EPS", "PE", "GDP", "FED", "SEC",
+            "NYSE", "OK", "THE", "AND", "FOR", "WHAT", "WHY", "HOW", "IS", "IT", "BUY", "SELL", "HOLD", "ATH");
+
+    private record Memo(String section, long expiresAt) {
+    }
+
+    private final Map<String, Memo> memo = new ConcurrentHashMap<>();
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "ai.context.ttl-seconds", defaultValue = "60")
+    long ttlSeconds;
+
+    @ConfigProperty(name = "ai.context.max-chars", defaultValue = "1500")
+    int maxChars;
+
+    /**
+     * Ticker symbols mentioned in a message: cashtags first ({@code $aapl}),
+     * then all-caps words that are not common abbreviations.
+     */
+    static List<String> detectSymbols(String message) {
+        Set<String> symbols = new LinkedHashSet<>();
+        if (message == null) {
+            return new ArrayList<>();
+        }
+        Matcher cashtag = CASHTAG.matcher(message);
+        while (cashtag.find() && symbols.size() < MAX_SYMBOLS) {
+            symbols.add(cashtag.group(1).toUpperCase());
+        }
+        Matcher word = UPPERCASE_WORD.matcher(message);
+        while (word.find() && symbols.size() < MAX_SYMBOLS) {
+            if (!NOT_TICKERS.contains(word.group())) {
+                symbols.add(word.group());
+            }
+        }
+        return new ArrayList<>(symbols);
+    }
+
+    /** The prompt section for the symbols in {@code message}, or null if there is nothing to add. */
+    public String contextFor(String message) {
+        List<String> symbols = detectSymbols(message);
+        if (symbols.isEmpty()) {
+            return null;
+        }
+        long now = System.nanoTime();
+        List<String> sections = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String symbol : symbols) {
+            Memo cached = memo.get(symbol);
+            if (cached != null && cached.expiresAt() - now > 0) {
+                sections.add(cached.section());
+            } else {
+                missing.add(symbol);
+                sections.add(null);
+            }
+        }
+        if (!missing.isEmpty()) {
+            try {
+                Map<String, String> loaded = load(missing);
+                long expiresAt = now + TimeUnit.SECONDS.toNanos(ttlSeconds);
+                for (int i = 0; i < symbols.size(); i++) {
+                    if (sections.get(i) == null) {
+                        String section = loaded.getOrDefault(symbols.get(i), "");
+                        memo.put(symbols.get(i), new Memo(section, expiresAt));
+                        sections.set(i, section);
+                    }
+                }
+            } catch (Exception e) {
+                // Context is a nice-to-have; answer without it
+                logger.log(Level.WARNING, String.format("Market context lookup failed: %s", e.getMessage()));
+                sections.removeIf(section -> section == null);
+            }
+        }
+        if (memo.size() > 1000) {
+            memo.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        }
+
+        StringBuilder context = new StringBuilder("Market data from this app's caches (may be delayed):\n");
+        int header = context.length();
+        int perSymbol = maxChars / symbols.size();
+        for (String section : sections) {
+            if (!section.isEmpty()) {
+                context.append(truncate(section, perSymbol)).append('\n');
+            }
+        }
+        return context.length() > header ? context.toString() : null;
+    }
+
+    /**
+     * All four caches for all symbols in one pipelined round trip. A value that
+     * cannot be read only drops its own part of its symbol's section.
+     */
+    private Map<String, String> load(List<String> symbols) {
+        RBatch batch = redissonClient.createBatch();
+        List<RFuture<String>> tickers = new ArrayList<>();
+        List<RFuture<CompanyProfile>> profiles = new ArrayList<>();
+        List<RFuture<String>> histories = new ArrayList<>();
+        List<RFuture<String>> predictions = new ArrayList<>();
+        for (String symbol : symbols) {
+            tickers.add(batch.<String, String>getMapCache(TICKER_DETAILS_CACHE).getAsync(symbol));
+            profiles.add(batch.<String, CompanyProfile>getMapCache(ProfileCache.COMPANY_PROFILES).getAsync(ProfileCache.cacheKey(symbol)));
+            histories.add(batch.<String, String>getMapCache(LATEST_HISTORY_CACHE).getAsync(symbol));
+            predictions.add(batch.<String, String>getMapCache(LATEST_PREDICTIONS_CACHE).getAsync(symbol));
+        }
+        batch.execute();
+
+        Map<String, String> sections = new HashMap<>();
+        for (int i = 0; i < symbols.size(); i++) {
+            String symbol = symbols.get(i);
+            String section = section(symbol, result(symbol, "profile", profiles.get(i)),
+                    result(symbol, "ticker details", tickers.get(i)), result(symbol, "history", histories.get(i)),
+                    result(symbol, "prediction", predictions.get(i)));
+            if (section != null) {
+                sections.put(symbol, section);
+            }
+        }
+        return sections;
+    }
+
+    /** The section for one symbol from its cached values (any may be null), or null if none is usable. */
+    String section(String symbol, CompanyProfile profile, String tickerJson, String historyJson,
+                   String predictionJson) {
+        StringBuilder section = new StringBuilder();
+        appendPart(section, symbol, "profile", out -> appendProfile(out, profile));
+        appendPart(section, symbol, "ticker details", out -> appendTicker(out, tickerJson));
+        appendPart(section, symbol, "history", out -> appendHistory(out, historyJson));
+        appendPart(section, symbol, "prediction", out -> appendPrediction(out, predictionJson));
+        if (section.length() == 0) {
+            return null;
+        }
+        return symbol + ": " + section.toString().trim().replaceAll(",$", "");
+    }
+
+    private interface Part {
+        void appendTo(StringBuilder out) throws Exception;
+    }
+
+    // Renders into a scratch buffer so a part that fails halfway leaves nothing behind
+    private static void appendPart(StringBuilder section, String symbol, String name, Part part) {
+        StringBuilder out = new StringBuilder();
+        try {
+            part.appendTo(out);
+            section.append(out);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Skipping unreadable %s for %s: %s", name, symbol, e.getMessage()));
+        }
+    }
+
+    private static <V> V result(String symbol, String name, RFuture<V> future) {
+        try {
+            return future.toCompletableFuture().join();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Skipping unreadable %s for %s: %s", name, symbol, e.getMessage()));
+            return null;
+        }
+    }
+
+    private void appendProfile(StringBuilder out, CompanyProfile profile) {
+        if (profile == null) {
+            return;
+        }
+        if (profile.getName() != null) {
+            out.append(profile.getName()).append(". ");
+        }
+        if (profile.getDescription() != null) {
+            out.append(truncate(profile.getDescription(), DESCRIPTION_CHARS)).append(' ');
+        }
+    }
+
+    private void appendTicker(StringBuilder out, String json) throws Exception {
+        if (json == null) {
+            return;
+        }
+        JsonNode ticker = objectMapper.readTree(json);
+        appendField(out, "prev close", ticker.path("previousClose"));
+        appendField(out, "open", ticker.path("openPrice"));
+        appendRange(out, "day", ticker.path("daysRange"));
+        appendRange(out, "52w", ticker.path("weekRange"));
+        appendField(out, "volume", ticker.path("volume"));
+        appendField(out, "mkt cap", ticker.path("marketCap"));
+        appendField(out, "P/E", ticker.path("peRatio"));
+        appendField(out, "EPS", ticker.path("eps"));
+        appendField(out, "target", ticker.path("targetEstimate"));
+    }
+
+    private void appendHistory(StringBuilder out, String json) throws Exception {
+        if (json == null) {
+            return;
+        }
+        JsonNode bars = objectMapper.readTree(json);
+        if (!bars.isArray() || bars.isEmpty()) {
+            return;
+        }
+        out.append("recent closes:");
+        for (int i = 0; i < Math.min(RECENT_CLOSES, bars.size()); i++) {
+            out.append(' ').append(bars.get(i).path("date").asText())
+                    .append(' ').append(bars.get(i).path("close").asText()).append(';');
+        }
+        out.append(' ');
+    }
+
+    private void appendPrediction(StringBuilder out, String json) throws Exception {
+        if (json == null) {
+            return;
+        }
+        JsonNode prediction = objectMapper.readTree(json);
+        out.append(String.format("model predicts close %.2f (%+.2f%%) after %s. ",
+                prediction.path("predictedClosingPrice").asDouble(),
+                prediction.path("predictedChange").asDouble(),
+                prediction.path("lastKnownDate").asText()));
+    }
+
+    private static void appendField(StringBuilder out, String label, JsonNode value) {
+        if (value.isMissingNode() || value.isNull() || value.asText().isEmpty()
+                || (value.isNumber() && value.asDouble() == 0)) {
+            return;
+        }
+        out.append(label).append(' ').append(value.asText()).append(", ");
+    }
+
+    private static void appendRange(StringBuilder out, String label, JsonNode range) {
+        if (range.path("low").isNull() || range.path("low").isMissingNode()) {
+            return;
+        }
+        out.append(label).append(' ').append(range.path("low").asText())
+                .append('-').append(range.path("high").asText()).append(", ");
+    }
+
+    private static String truncate(String text, int max) {
+        if (text.length() <= max) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', max - 1);
+        return text.substring(0, cut > max / 2 ? cut : max - 3) + "...";
+    }
+}
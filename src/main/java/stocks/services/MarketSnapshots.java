@@ -0,0 +1,163 @@
+package stocks.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import stocks.models.StockData;
+
+/**
+ * The latest scraped list of each market category, written only by the
+ * category's lease holder and read by every replica.
+ * <ul>
+ *   <li>{@code marketSnapshot:{<category>}}: {@code <version>:<list as JSON>}</li>
+ *   <li>{@code marketSnapshot:{<category>}:token}: fencing token of the last
+ *       accepted write; writes with a lower token are dropped</li>
+ *   <li>{@code marketSnapshot:{<category>}:version}: bumped by every accepted
+ *       write, so a version identifies one list for caching and ETags</li>
+ *   <li>{@code marketSnapshots:published}: topic carrying the category of each
+ *       accepted write</li>
+ * </ul>
+ * Each replica keeps the current snapshots in memory and drops one when it is
+ * republished; {@code stocks.snapshots.local-ttl-ms} bounds how stale a copy
+ * can get if a notification is missed.
+ */
+@ApplicationScoped
+public class MarketSnapshots {
+    private static final Logger logger = Logger.getLogger(MarketSnapshots.class.getName());
+
+    private static final String PREFIX = "marketSnapshot:";
+    private static final String PUBLISHED_TOPIC = "marketSnapshots:published";
+    public static final long SNAPSHOT_TTL_HOURS = 24;
+
+    // Returns the new version, or 0 when a newer leader has already published
+    private static final String FENCED_SET =
+            "local current = tonumber(redis.call('get', KEYS[2]) or '0') "
+            + "if tonumber(ARGV[1]) < current then return 0 end "
+            + "local version = redis.call('incr', KEYS[3]) "
+            + "redis.call('set', KEYS[2], ARGV[1], 'PX', ARGV[3]) "
+            + "redis.call('set', KEYS[1], version .. ':' .. ARGV[2], 'PX', ARGV[3]) "
+            + "return version";
+
+    private static final TypeReference<List<StockData>> STOCK_LIST = new TypeReference<List<StockData>>() {};
+
+    /** One published list. Shared between callers: treat {@code stocks} as read-only. */
+    public record Snapshot(long version, List<StockData> stocks, long loadedAt) {
+    }
+
+    @Inject
+    CacheBatches cacheBatches;
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "stocks.snapshots.local-ttl-ms", defaultValue = "120000")
+    long localTtlMillis;
+
+    private final Map<String, Snapshot> local = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        RTopic published = redissonClient.getTopic(PUBLISHED_TOPIC);
+        published.addListener(String.class, (channel, category) -> local.remove(category));
+    }
+
+    private static String key(String category) {
+        return PREFIX + "{" + category + "}";
+    }
+
+    /**
+     * The current snapshot of {@code category} from memory, going to Redis only
+     * after a republish or when the local copy has aged out; null if nothing
+     * has been published.
+     */
+    public Snapshot current(String category) {
+        Snapshot snapshot = local.get(category);
+        if (snapshot != null && System.currentTimeMillis() - snapshot.loadedAt() < localTtlMillis) {
+            return snapshot;
+        }
+        snapshot = readAll(List.of(category)).get(category);
+        if (snapshot != null) {
+            local.put(category, snapshot);
+        }
+        return snapshot;
+    }
+
+    /** The published lists of {@code categories} from Redis in one round trip; absent ones are left out. */
+    public Map<String, Snapshot> readAll(Collection<String> categories) {
+        CacheBatch reads = cacheBatches.create();
+        Map<String, CompletableFuture<String>> pending = new LinkedHashMap<>();
+        for (String category : categories) {
+            pending.put(category, reads.getString(key(category)));
+        }
+        reads.flush();
+
+        long now = System.currentTimeMillis();
+        Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+        pending.forEach((category, value) -> {
+            String stored = value.join();
+            if (stored == null) {
+                return;
+            }
+            try {
+                // Lists published before versions existed start directly with the JSON array
+                int separator = stored.startsWith("[") ? -1 : stored.indexOf(':');
+                long version = separator > 0 ? Long.parseLong(stored.substring(0, separator)) : 0;
+                List<StockData> stocks = objectMapper.readValue(stored.substring(separator + 1), STOCK_LIST);
+                snapshots.put(category, new Snapshot(version, stocks, now));
+            } catch (Exception e) {
+                logger.log(Level.WARNING, String.format("Unreadable snapshot for %s: %s", category, e.getMessage()));
+            }
+        });
+        return snapshots;
+    }
+
+    /**
+     * Publishes lists under the given fencing tokens in one round trip.
+     * Returns the categories whose write was rejected because a newer leader
+     * has already published.
+     */
+    public List<String> publishAll(Map<String, List<StockData>> byCategory, Map<String, Long> tokens) throws Exception {
+        CacheBatch writes = cacheBatches.create();
+        String ttl = String.valueOf(TimeUnit.HOURS.toMillis(SNAPSHOT_TTL_HOURS));
+        Map<String, CompletableFuture<Long>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, List<StockData>> entry : byCategory.entrySet()) {
+            String key = key(entry.getKey());
+            results.put(entry.getKey(), writes.eval(FENCED_SET, Arrays.asList(key, key + ":token", key + ":version"),
+                    String.valueOf(tokens.get(entry.getKey())), objectMapper.writeValueAsString(entry.getValue()), ttl));
+        }
+        writes.flush();
+
+        List<String> fenced = new ArrayList<>();
+        RTopic published = redissonClient.getTopic(PUBLISHED_TOPIC);
+        results.forEach((category, version) -> {
+            if (version.join() == 0) {
+                fenced.add(category);
+            } else {
+                published.publishAsync(category);
+            }
+        });
+        return fenced;
+    }
+}
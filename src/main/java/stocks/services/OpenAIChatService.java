@@ -0,0 +1,228 @@
+package stocks.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import stocks.config.AIConfig;
+import stocks.models.ChatData;
+
+/**
+ * {@link AIService} for OpenAI-style chat completion endpoints. Requests are
+ * sent with {@code "stream": true} through one shared {@link HttpClient}, which
+ * keeps connections to the endpoint open between replies, and the server-sent
+ * events are turned into text fragments as each line arrives.
+ */
+@ApplicationScoped
+public class OpenAIChatService implements AIService {
+    private static final Logger logger = Logger.getLogger(OpenAIChatService.class.getName());
+
+    static final String SYSTEM_PROMPT = "You are a helpful assistant inside a stock market app. "
+            + "Answer concisely. Do not present anything as financial advice.";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI endpoint;
+    private final String apiKey;
+    private final String model;
+    private final int maxHistoryMessages;
+    private final int maxHistoryChars;
+    private final Duration requestTimeout;
+
+    @Inject
+    public OpenAIChatService(AIConfig config, ObjectMapper objectMapper) {
+        this(config.getApiEndpoint(), config.getApiKey(), config.getModel(), config.getMaxHistoryMessages(),
+                config.getMaxHistoryChars(), Duration.ofSeconds(config.getRequestTimeoutSeconds()), objectMapper);
+    }
+
+    OpenAIChatService(String endpoint, String apiKey, String model, int maxHistoryMessages,
+                      int maxHistoryChars, Duration requestTimeout, ObjectMapper objectMapper) {
+        this.endpoint = URI.create(endpoint);
+        this.apiKey = apiKey;
+        this.model = model;
+        this.maxHistoryMessages = maxHistoryMessages;
+        this.maxHistoryChars = maxHistoryChars;
+        this.requestTimeout = requestTimeout;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public String generateResponse(String userMessage, List<ChatData> conversationHistory) {
+        return streamResponse(userMessage, conversationHistory)
+                .collect().asList()
+                .await().atMost(requestTimeout.plusSeconds(5))
+                .stream().collect(Collectors.joining());
+    }
+
+    @Override
+    public Multi<String> streamResponse(String userMessage, List<ChatData> conversationHistory, String context) {
+        return Multi.createFrom().emitter(emitter -> {
+            HttpRequest request;
+            try {
+                request = buildRequest(userMessage, conversationHistory, context);
+            } catch (IOException e) {
+                emitter.fail(e);
+                return;
+            }
+            SseLines lines = new SseLines(emitter);
+            CompletableFuture<HttpResponse<Void>> response = httpClient.sendAsync(request, info ->
+                    info.statusCode() / 100 == 2
+                            ? HttpResponse.BodySubscribers.fromLineSubscriber(lines)
+                            : HttpResponse.BodySubscribers.discarding());
+            response.whenComplete((result, error) -> {
+                if (error instanceof CancellationException) {
+                    // the stream already ended or the subscriber went away
+                    return;
+                }
+                if (error != null) {
+                    emitter.fail(error);
+                } else if (result.statusCode() / 100 != 2) {
+                    logger.log(Level.WARNING, String.format("AI endpoint returned HTTP %d", result.statusCode()));
+                    emitter.fail(new IOException("AI endpoint returned HTTP " + result.statusCode()));
+                } else {
+                    emitter.complete();
+                }
+            });
+            emitter.onTermination(() -> response.cancel(true));
+        });
+    }
+
+    private HttpRequest buildRequest(String userMessage, List<ChatData> conversationHistory, String context)
+            throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", model);
+        body.put("stream", true);
+        ArrayNode messages = body.putArray("messages");
+        messages.addObject().put("role", "system").put("content", SYSTEM_PROMPT);
+        if (context != null && !context.isBlank()) {
+            messages.addObject().put("role", "system").put("content", context);
+        }
+        for (ChatData chat : promptHistory(conversationHistory)) {
+            messages.addObject()
+                    .put("role", AIReplyService.AI_SENDER.equals(chat.getSenderEmail()) ? "assistant" : "user")
+                    .put("content", chat.getMessage());
+        }
+        messages.addObject().put("role", "user").put("content", userMessage);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (apiKey != null && !apiKey.isBlank()) {
+            builder.header("Authorization", "Bearer " + apiKey);
+        }
+        return builder.build();
+    }
+
+    /**
+     * The most recent messages that fit both the message and character budget,
+     * oldest first. Older context is dropped rather than truncated mid-message.
+     */
+    List<ChatData> promptHistory(List<ChatData> conversationHistory) {
+        Deque<ChatData> kept = new ArrayDeque<>();
+        if (conversationHistory == null) {
+            return List.copyOf(kept);
+        }
+        int chars = 0;
+        for (int i = conversationHistory.size() - 1; i >= 0 && kept.size() < maxHistoryMessages; i--) {
+            ChatData chat = conversationHistory.get(i);
+            String message = chat.getMessage();
+            if (message == null || message.isEmpty()) {
+                continue;
+            }
+            chars += message.length();
+            if (chars > maxHistoryChars) {
+                break;
+            }
+            kept.addFirst(chat);
+        }
+        return List.copyOf(kept);
+    }
+
+    /** The text fragment in one streamed chunk, or null for role/finish chunks. */
+    String contentDelta(String data) throws IOException {
+        JsonNode choices = objectMapper.readTree(data).path("choices");
+        if (!choices.isArray() || choices.isEmpty()) {
+            return null;
+        }
+        JsonNode content = choices.get(0).path("delta").path("content");
+        return content.isTextual() ? content.asText() : null;
+    }
+
+    /** Turns {@code data:} lines of the event stream into emitted fragments. */
+    private final class SseLines implements Flow.Subscriber<String> {
+        private final MultiEmitter<? super String> emitter;
+        private Flow.Subscription subscription;
+
+        SseLines(MultiEmitter<? super String> emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (emitter.isCancelled()) {
+                subscription.cancel();
+                return;
+            }
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring(5).trim();
+            if ("[DONE]".equals(data)) {
+                emitter.complete();
+                return;
+            }
+            try {
+                String fragment = contentDelta(data);
+                if (fragment != null && !fragment.isEmpty()) {
+                    emitter.emit(fragment);
+                }
+            } catch (IOException e) {
+                subscription.cancel();
+                emitter.fail(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            // the response future completes the stream once the status is known
+        }
+    }
+}
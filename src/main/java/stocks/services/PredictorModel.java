@@ -1,13 +1,27 @@
 package stocks.services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Locale;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 public class PredictorModel {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.ENGLISH);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String[] MONTHS = {
+        "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
 
     LocalDate date;
     double open, close, high, low, volume;
@@ -22,92 +36,185 @@ public class PredictorModel {
     }
 
     public static List<PredictorModel> parseResponse(String jsonResponse) throws Exception {
-        List<PredictorModel> data = new ArrayList<>();
-        int dataIndex = jsonResponse.indexOf("\"data\":");
-        if (dataIndex == -1) return data;
+        return parseBars(jsonResponse).toModels();
+    }
 
-        int histDataStart = jsonResponse.indexOf("\"historicalData\":", dataIndex);
-        if (histDataStart == -1) return data;
+    public static HistoricalBars parseBars(String jsonResponse) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(jsonResponse)) {
+            return parseBars(parser);
+        }
+    }
 
-        int arrayStart = jsonResponse.indexOf("[", histDataStart);
-        if (arrayStart == -1) return data;
+    public static HistoricalBars parseBars(InputStream jsonResponse) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(jsonResponse)) {
+            return parseBars(parser);
+        }
+    }
 
-        int arrayEnd = findMatchingBracket(jsonResponse, arrayStart);
-        if (arrayEnd == -1) return data;
+    /**
+     * Single pass over a GraphQL {@code historicalData} response. Everything
+     * outside {@code data.historicalData} is skipped without being materialized,
+     * and rows with a missing or unparseable field are dropped.
+     */
+    private static HistoricalBars parseBars(JsonParser parser) throws IOException {
+        HistoricalBars bars = new HistoricalBars();
+        if (parser.nextToken() != JsonToken.START_OBJECT) return bars;
+        if (!advanceToField(parser, "data") || parser.nextToken() != JsonToken.START_OBJECT) return bars;
+        if (!advanceToField(parser, "historicalData") || parser.nextToken() != JsonToken.START_ARRAY) return bars;
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            long epochDay = Long.MIN_VALUE;
+            double open = Double.NaN, close = Double.NaN, high = Double.NaN, low = Double.NaN, volume = Double.NaN;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "date" -> {
+                        if (value == JsonToken.VALUE_STRING) {
+                            epochDay = parseEpochDay(parser);
+                        } else {
+                            parser.skipChildren();
+                            epochDay = Long.MIN_VALUE;
+                        }
+                    }
+                    case "open" -> open = parseNumericValue(parser, value);
+                    case "close" -> close = parseNumericValue(parser, value);
+                    case "high" -> high = parseNumericValue(parser, value);
+                    case "low" -> low = parseNumericValue(parser, value);
+                    case "volume" -> volume = parseNumericValue(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
 
-        String historicalDataArray = jsonResponse.substring(arrayStart + 1, arrayEnd).trim();
-        List<String> jsonObjects = splitJsonObjects(historicalDataArray);
+            if (epochDay != Long.MIN_VALUE && !Double.isNaN(open) && !Double.isNaN(close)
+                    && !Double.isNaN(high) && !Double.isNaN(low) && !Double.isNaN(volume)) {
+                bars.add(epochDay, open, close, high, low, volume);
+            }
+        }
+        return bars;
+    }
 
-        for (String day : jsonObjects) {
-            String dateStr = extractJsonValue(day, "date");
-            double open = parseNumericValue(extractJsonValue(day, "open"));
-            double close = parseNumericValue(extractJsonValue(day, "close"));
-            double high = parseNumericValue(extractJsonValue(day, "high"));
-            double low = parseNumericValue(extractJsonValue(day, "low"));
-            double volume = parseNumericValue(extractJsonValue(day, "volume"));
+    private static boolean advanceToField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.currentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
 
-            data.add(new PredictorModel(LocalDate.parse(dateStr, DATE_FORMATTER), open, close, high, low, volume));
+    private static double parseNumericValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return Double.NaN;
         }
-        return data;
+        return parseNumericValue(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
     }
 
-    private static double parseNumericValue(String value) {
-        return Double.parseDouble(value.replace(",", ""));
+    /**
+     * Parses values such as {@code "1,234.56"} straight from the parser's buffer.
+     * Up to 15 significant digits the result is correctly rounded; anything else falls back to
+     * {@link Double#parseDouble}.
+     */
+    static double parseNumericValue(char[] chars, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                if (digits == 15 || fractionDigits == 18) {
+                    return parseNumericFallback(chars, offset, length);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) digits++;
+                if (seenDot) fractionDigits++;
+            } else if (c == ',' && !seenDot) {
+                continue;
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                return parseNumericFallback(chars, offset, length);
+            }
+        }
+        if (digits == 0 && mantissa == 0 && (end - offset) == (negative ? 1 : 0)) {
+            return Double.NaN;
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
     }
 
-    private static int findMatchingBracket(String str, int startIndex) {
-        char openBracket = str.charAt(startIndex);
-        char closeBracket = openBracket == '[' ? ']' : '}';
-        int count = 1;
-        for (int i = startIndex + 1; i < str.length(); i++) {
-            char current = str.charAt(i);
-            if (current == openBracket) count++;
-            else if (current == closeBracket) count--;
-            if (count == 0) return i;
+    private static double parseNumericFallback(char[] chars, int offset, int length) {
+        try {
+            return Double.parseDouble(new String(chars, offset, length).replace(",", ""));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
         }
-        return -1;
     }
 
-    private static List<String> splitJsonObjects(String arrayStr) {
-        List<String> objects = new ArrayList<>();
-        int braceDepth = 0;
-        int objStart = -1;
-        for (int i = 0; i < arrayStr.length(); i++) {
-            char c = arrayStr.charAt(i);
-            if (c == '{') {
-                if (braceDepth == 0) objStart = i;
-                braceDepth++;
-            } else if (c == '}') {
-                braceDepth--;
-                if (braceDepth == 0 && objStart != -1) {
-                    objects.add(arrayStr.substring(objStart, i + 1));
-                    objStart = -1;
+    /**
+     * Parses {@code "MMM d, yyyy"} (e.g. {@code "Dec 9, 2024"}) without building
+     * a String, falling back to the formatter for anything unexpected.
+     */
+    private static long parseEpochDay(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+
+        int month = -1;
+        if (end - offset >= 3) {
+            for (int m = 0; m < MONTHS.length; m++) {
+                String name = MONTHS[m];
+                if (Character.toLowerCase(chars[offset]) == name.charAt(0)
+                        && Character.toLowerCase(chars[offset + 1]) == name.charAt(1)
+                        && Character.toLowerCase(chars[offset + 2]) == name.charAt(2)) {
+                    month = m + 1;
+                    break;
                 }
             }
         }
-        return objects;
-    }
 
-    private static String extractJsonValue(String json, String key) throws Exception {
-        String searchKey = "\"" + key + "\":";
-        int keyIndex = json.indexOf(searchKey);
-        if (keyIndex == -1) throw new Exception("Key not found: " + key);
-
-        int valueStart = keyIndex + searchKey.length();
-        while (valueStart < json.length() && Character.isWhitespace(json.charAt(valueStart))) valueStart++;
-        if (valueStart >= json.length()) throw new Exception("Value not found for key: " + key);
-
-        char firstChar = json.charAt(valueStart);
-        if (firstChar == '\"') {
-            int endQuote = json.indexOf("\"", valueStart + 1);
-            if (endQuote == -1) throw new Exception("Closing quote not found for key: " + key);
-            return json.substring(valueStart + 1, endQuote);
-        } else {
-            int valueEnd = valueStart;
-            while (valueEnd < json.length() && (Character.isDigit(json.charAt(valueEnd)) || json.charAt(valueEnd) == '.' || json.charAt(valueEnd) == ',')) {
-                valueEnd++;
+        int i = offset + 3;
+        if (month != -1 && i < end && chars[i] == ' ') {
+            int day = 0;
+            int dayDigits = 0;
+            for (i++; i < end && chars[i] >= '0' && chars[i] <= '9'; i++, dayDigits++) {
+                day = day * 10 + (chars[i] - '0');
+            }
+            if (dayDigits > 0 && i + 1 < end && chars[i] == ',' && chars[i + 1] == ' ') {
+                int year = 0;
+                int yearDigits = 0;
+                for (i += 2; i < end && chars[i] >= '0' && chars[i] <= '9'; i++, yearDigits++) {
+                    year = year * 10 + (chars[i] - '0');
+                }
+                if (yearDigits == 4 && i == end) {
+                    try {
+                        return LocalDate.of(year, month, day).toEpochDay();
+                    } catch (DateTimeException e) {
+                        return Long.MIN_VALUE;
+                    }
+                }
             }
-            return json.substring(valueStart, valueEnd).replace(",", "");
+        }
+
+        try {
+            return LocalDate.parse(parser.getText(), DATE_FORMATTER).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
         }
     }
 }
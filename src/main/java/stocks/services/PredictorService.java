@@ -1,11 +1,11 @@
 package stocks.services;
 
+import java.io.InputStream;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Locale;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 
@@ -17,44 +17,50 @@ import weka.core.Instances;
 
 @ApplicationScoped
 public class PredictorService {
-    private static final String GRAPHQL_ENDPOINT = "http://192.168.40.86:80/graphql";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.ENGLISH);
 
+    @ConfigProperty(name = "stocks.predictor.graphql-url")
+    String graphqlEndpoint;
+
     public PredictionResponse predictStockPrice(String symbol, String startDate, String endDate) throws Exception {
-        FetchResult fetchResult = fetchHistoricalData(symbol, startDate, endDate);
-        List<PredictorModel> historicalData = fetchResult.getHistoricalData();
+        HistoricalBars historicalData = fetchHistoricalData(symbol, startDate, endDate);
 
         if (historicalData.isEmpty()) {
             throw new Exception("No data available for symbol: " + symbol);
         }
 
         // Sort the historical data in ascending order by date
-        historicalData.sort(Comparator.comparing(p -> p.date));
+        historicalData.sortByDate();
 
+        long start = System.nanoTime();
         LinearRegression model = new LinearRegression();
         Instances dataset = prepareDataset(historicalData);
         model.buildClassifier(dataset);
+        StocksMetrics.recordSince(StocksMetrics.MODEL_TRAINING, start);
 
-        PredictorModel lastDay = historicalData.get(historicalData.size() - 1);
+        int last = historicalData.size() - 1;
+        double lastClose = historicalData.close(last);
         DenseInstance predictionInstance = new DenseInstance(1.0, new double[]{
-                lastDay.open, lastDay.high, lastDay.low, lastDay.volume, lastDay.close, 0
+                historicalData.open(last), historicalData.high(last), historicalData.low(last),
+                historicalData.volume(last), lastClose, 0
         });
         predictionInstance.setDataset(dataset);
         double predictedClose = model.classifyInstance(predictionInstance);
 
-        double predictedChange = ((predictedClose - lastDay.close) / lastDay.close) * 100;
+        double predictedChange = ((predictedClose - lastClose) / lastClose) * 100;
 
         // Format model details
         String modelDetails = formatModelDetails(model);
 
         // Build PredictionResponse
+        String lastDate = historicalData.date(last).format(DATE_FORMATTER);
         PredictionResponse response = new PredictionResponse();
         response.setDataPoints(historicalData.size());
         response.setSymbol(symbol);
-        response.setDateRangeStart(historicalData.get(0).date.format(DATE_FORMATTER));
-        response.setDateRangeEnd(lastDay.date.format(DATE_FORMATTER));
-        response.setLastKnownDate(lastDay.date.format(DATE_FORMATTER));
-        response.setLastClosingPrice(lastDay.close);
+        response.setDateRangeStart(historicalData.date(0).format(DATE_FORMATTER));
+        response.setDateRangeEnd(lastDate);
+        response.setLastKnownDate(lastDate);
+        response.setLastClosingPrice(lastClose);
         response.setPredictedClosingPrice(predictedClose);
         response.setPredictedChange(predictedChange);
         response.setModelDetails(modelDetails);
@@ -62,7 +68,7 @@ public class PredictorService {
         return response;
     }
 
-    private FetchResult fetchHistoricalData(String symbol, String startDate, String endDate) throws Exception {
+    private HistoricalBars fetchHistoricalData(String symbol, String startDate, String endDate) throws Exception {
         String query = String.format("""
                 {
                   historicalData(symbol: "%s", startDate: "%s", endDate: "%s") {
@@ -77,20 +83,26 @@ public class PredictorService {
                 """, symbol, startDate, endDate);
 
         String jsonRequest = "{ \"query\": \"" + query.replace("\"", "\\\"") + "\" }";
-        Connection.Response response = Jsoup.connect(GRAPHQL_ENDPOINT)
+        long start = System.nanoTime();
+        Connection.Response response = Jsoup.connect(graphqlEndpoint)
                 .header("Content-Type", "application/json")
                 .requestBody(jsonRequest)
                 .method(Connection.Method.POST)
                 .ignoreContentType(true)
+                .maxBodySize(0)
                 .execute();
 
-        String rawResponse = response.body();
-        List<PredictorModel> historicalData = PredictorModel.parseResponse(rawResponse);
-
-        return new FetchResult(rawResponse, historicalData);
+        // Parse straight off the socket instead of buffering the body into a String
+        try (InputStream body = response.bodyStream()) {
+            return PredictorModel.parseBars(body);
+        } finally {
+            // The body is parsed as it streams in, so this covers transfer and parsing
+            StocksMetrics.recordSince(StocksMetrics.PREDICTOR_GRAPHQL.fetch, start);
+        }
     }
 
-    private Instances prepareDataset(List<PredictorModel> historicalData) {
+    /** One training row per bar after the first: the bar's values and the previous close, predicting its close. */
+    public static Instances prepareDataset(HistoricalBars historicalData) {
         ArrayList<Attribute> attributes = new ArrayList<>();
         attributes.add(new Attribute("open"));
         attributes.add(new Attribute("high"));
@@ -103,10 +115,9 @@ public class PredictorService {
         dataset.setClassIndex(5);
 
         for (int i = 1; i < historicalData.size(); i++) {
-            PredictorModel current = historicalData.get(i);
-            PredictorModel previous = historicalData.get(i - 1);
             dataset.add(new DenseInstance(1.0, new double[]{
-                    current.open, current.high, current.low, current.volume, previous.close, current.close
+                    historicalData.open(i), historicalData.high(i), historicalData.low(i),
+                    historicalData.volume(i), historicalData.close(i - 1), historicalData.close(i)
             }));
         }
         return dataset;
@@ -131,23 +142,4 @@ public class PredictorService {
         }
         return details.toString();
     }
-
-    // Inner class to hold fetch results
-    private static class FetchResult {
-        private final String rawResponse;
-        private final List<PredictorModel> historicalData;
-
-        public FetchResult(String rawResponse, List<PredictorModel> historicalData) {
-            this.rawResponse = rawResponse;
-            this.historicalData = historicalData;
-        }
-
-        public String getRawResponse() {
-            return rawResponse;
-        }
-
-        public List<PredictorModel> getHistoricalData() {
-            return historicalData;
-        }
-    }
 }
@@ -0,0 +1,288 @@
+package stocks.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.redisson.api.RLock;
+import org.redisson.api.RMap;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import stocks.models.CompanyProfile;
+import stocks.scrappers.CompanyProfileScraper;
+import stocks.storage.ProfileStore;
+
+/**
+ * Read-through cache for company profiles, one lookup per tier:
+ * <ol>
+ *   <li>L1: an LRU map in this JVM</li>
+ *   <li>L2: {@code companyProfiles} in Redis, key {@code companyprofile:<SYMBOL>}</li>
+ *   <li>L3: the {@link ProfileStore}; a profile missing there is scraped once
+ *       and the result written to every tier</li>
+ * </ol>
+ * A store that can list its profiles cheaply (the local packed file) fills L1
+ * completely at startup.
+ * Requests never scrape a profile that is already stored. Freshness is the job
+ * of {@link #revalidate()}, which re-scrapes the least recently checked
+ * profiles in the background and rewrites only those whose content hash
+ * changed.
+ * <ul>
+ *   <li>{@code companyProfileHashes}: symbol to SHA-256 of the stored JSON</li>
+ *   <li>{@code companyProfileChecks}: symbols scored by when they were last
+ *       compared with the source (0 = never)</li>
+ *   <li>{@code companyProfiles:changed}: topic telling replicas to drop a
+ *       symbol from L1</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class ProfileCache {
+    private static final Logger logger = Logger.getLogger(ProfileCache.class.getName());
+
+    public static final String COMPANY_PROFILES = "companyProfiles";
+    public static final long PROFILE_TTL_DAYS = 28;
+
+    private static final String HASHES = "companyProfileHashes";
+    private static final String CHECKS = "companyProfileChecks";
+    static final String CHANGED_TOPIC = "companyProfiles:changed";
+    private static final String REVALIDATION_LOCK = "companyProfiles:revalidating";
+    private static final String SCRAPE_FAILED_NAME = "Error fetching data";
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    ProfileStore store;
+
+    @ConfigProperty(name = "stocks.profiles.l1-size", defaultValue = "10000")
+    int l1Size;
+
+    @ConfigProperty(name = "stocks.profiles.max-age-hours", defaultValue = "24")
+    long maxAgeHours;
+
+    @ConfigProperty(name = "stocks.profiles.revalidate.batch", defaultValue = "50")
+    int revalidateBatch;
+
+    @ConfigProperty(name = "stocks.profiles.revalidate.pause-ms", defaultValue = "500")
+    long revalidatePauseMillis;
+
+    @ConfigProperty(name = "stocks.profiles.preload", defaultValue = "true")
+    boolean preload;
+
+    private Map<String, CompanyProfile> l1;
+
+    @PostConstruct
+    void init() {
+        l1 = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompanyProfile> eldest) {
+                if (size() > l1Size) {
+                    StocksMetrics.PROFILES_L1.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        });
+        RTopic changed = redissonClient.getTopic(CHANGED_TOPIC);
+        changed.addListener(String.class, (channel, symbol) -> l1.remove(symbol));
+    }
+
+    void preload(@Observes StartupEvent event) {
+        if (!preload) {
+            return;
+        }
+        try {
+            Map<String, CompanyProfile> stored = store.preload();
+            l1.putAll(stored);
+            if (!stored.isEmpty()) {
+                logger.log(Level.INFO, String.format("Preloaded %d company profiles", stored.size()));
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Profile preload failed: %s", e.getMessage()));
+        }
+    }
+
+    public static String cacheKey(String symbol) {
+        return "companyprofile:" + symbol.toUpperCase();
+    }
+
+    public CompletionStage<CompanyProfile> get(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+        CompanyProfile cached = l1.get(upperSymbol);
+        StocksMetrics.PROFILES_L1.record(cached != null);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        RMapCache<String, CompanyProfile> l2 = redissonClient.getMapCache(COMPANY_PROFILES);
+        return l2.getAsync(cacheKey(upperSymbol)).toCompletableFuture()
+                .thenCompose(profile -> {
+                    StocksMetrics.PROFILES_L2.record(profile != null);
+                    if (profile != null) {
+                        l1.put(upperSymbol, profile);
+                        return CompletableFuture.completedFuture(profile);
+                    }
+                    return loadFromStoreOrSource(upperSymbol).thenApply(loaded -> {
+                        if (!isScrapeFailure(loaded)) {
+                            l2.fastPutAsync(cacheKey(upperSymbol), loaded, PROFILE_TTL_DAYS, TimeUnit.DAYS);
+                            l1.put(upperSymbol, loaded);
+                        }
+                        return loaded;
+                    });
+                });
+    }
+
+    private CompletableFuture<CompanyProfile> loadFromStoreOrSource(String upperSymbol) {
+        return store.find(upperSymbol).thenCompose(stored -> {
+            StocksMetrics.PROFILES_STORE.record(stored != null);
+            if (stored != null) {
+                // Stored before hashes existed or evicted from Redis: check it on the next revalidation round
+                checks().addIfAbsentAsync(0, upperSymbol);
+                return CompletableFuture.completedFuture(stored);
+            }
+            logger.log(Level.INFO, String.format("No stored profile for %s, scraping", upperSymbol));
+            return CompletableFuture.supplyAsync(() -> CompanyProfileScraper.fetchCompanyProfile(upperSymbol),
+                            Infrastructure.getDefaultWorkerPool())
+                    .thenCompose(scraped -> {
+                        if (isScrapeFailure(scraped)) {
+                            return CompletableFuture.completedFuture(scraped);
+                        }
+                        recordCheck(upperSymbol, scraped);
+                        return store.upload(upperSymbol, scraped).thenApply(uploaded -> scraped);
+                    });
+        });
+    }
+
+    /**
+     * Loads a profile into L1 from Redis or the store if it is kept anywhere;
+     * never scrapes. Completes with whether the profile was found.
+     */
+    public CompletableFuture<Boolean> warm(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+        if (l1.containsKey(upperSymbol)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        RMapCache<String, CompanyProfile> l2 = redissonClient.getMapCache(COMPANY_PROFILES);
+        return l2.getAsync(cacheKey(upperSymbol)).toCompletableFuture()
+                .thenCompose(profile -> profile != null
+                        ? CompletableFuture.completedFuture(profile)
+                        : store.find(upperSymbol))
+                .thenApply(profile -> {
+                    if (profile == null) {
+                        return false;
+                    }
+                    l1.put(upperSymbol, profile);
+                    return true;
+                });
+    }
+
+    /**
+     * Compares the profiles checked longest ago with the source. Runs on one
+     * replica at a time and paces its scrapes, so it stays out of the way of
+     * request traffic.
+     */
+    @Scheduled(every = "{stocks.profiles.revalidate.every}", delayed = "1m",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void revalidate() {
+        RLock lock = redissonClient.getLock(REVALIDATION_LOCK);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            long staleBefore = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(maxAgeHours);
+            Collection<String> due = checks().valueRange(Double.NEGATIVE_INFINITY, true, staleBefore, true,
+                    0, revalidateBatch);
+            int changed = 0;
+            for (String symbol : due) {
+                if (revalidate(symbol)) {
+                    changed++;
+                }
+                Thread.sleep(revalidatePauseMillis);
+            }
+            if (!due.isEmpty()) {
+                logger.log(Level.INFO, String.format("Revalidated %d company profiles, %d changed", due.size(), changed));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Profile revalidation failed: %s", e.getMessage()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean revalidate(String symbol) throws Exception {
+        CompanyProfile fresh = CompanyProfileScraper.fetchCompanyProfile(symbol);
+        if (isScrapeFailure(fresh)) {
+            // Try again next round rather than overwrite a good profile with an error
+            return false;
+        }
+        String hash = sha256(objectMapper.writeValueAsString(fresh));
+        RMap<String, String> hashes = redissonClient.getMap(HASHES);
+        RMapCache<String, CompanyProfile> l2 = redissonClient.getMapCache(COMPANY_PROFILES);
+        String storedHash = hashes.get(symbol);
+        if (storedHash == null) {
+            // First check of a profile stored before hashes existed: hash what is stored
+            CompanyProfile stored = l2.get(cacheKey(symbol));
+            if (stored == null) {
+                stored = store.find(symbol).join();
+            }
+            storedHash = stored != null ? sha256(objectMapper.writeValueAsString(stored)) : null;
+        }
+        boolean changed = !hash.equals(storedHash);
+        if (changed) {
+            store.upload(symbol, fresh).join();
+            l2.fastPut(cacheKey(symbol), fresh, PROFILE_TTL_DAYS, TimeUnit.DAYS);
+            redissonClient.getTopic(CHANGED_TOPIC).publish(symbol);
+        }
+        hashes.fastPut(symbol, hash);
+        checks().add(System.currentTimeMillis(), symbol);
+        return changed;
+    }
+
+    private void recordCheck(String symbol, CompanyProfile profile) {
+        try {
+            redissonClient.<String, String>getMap(HASHES).fastPutAsync(symbol, sha256(objectMapper.writeValueAsString(profile)));
+            checks().addAsync(System.currentTimeMillis(), symbol);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Could not record profile hash for %s: %s", symbol, e.getMessage()));
+        }
+    }
+
+    private RScoredSortedSet<String> checks() {
+        return redissonClient.getScoredSortedSet(CHECKS);
+    }
+
+    private static boolean isScrapeFailure(CompanyProfile profile) {
+        return profile == null || SCRAPE_FAILED_NAME.equals(profile.getName());
+    }
+
+    static String sha256(String json) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
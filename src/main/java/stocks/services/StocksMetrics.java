@@ -0,0 +1,119 @@
+package stocks.services;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Every meter the application records, registered once at class load so the
+ * hot paths only do {@code record(nanos)} or {@code increment()} on a field:
+ * no tag arrays, builders or lookups per call. The meters live in Micrometer's
+ * global registry, which Quarkus binds to the Prometheus registry served at
+ * {@code /q/metrics}; that also lets the static scrapers use them.
+ * <ul>
+ *   <li>{@code stocks.upstream.fetch{upstream}}: time to fetch a page or
+ *       response, with histogram buckets; failures are also counted in
+ *       {@code stocks.upstream.errors{upstream}}</li>
+ *   <li>{@code stocks.scrape.parse{page}}: time to extract data from a
+ *       fetched page</li>
+ *   <li>{@code stocks.cache.requests{cache,result}} and
+ *       {@code stocks.cache.evictions{cache}}</li>
+ *   <li>{@code stocks.refresh.cycle}: one market snapshot refresh</li>
+ *   <li>{@code stocks.model.training}: fitting one prediction model</li>
+ *   <li>{@code stocks.warmup}: loading the hot symbols after startup</li>
+ *   <li>{@code stocks.redis.command{command}}: Redis round trips made
+ *       outside Redisson's own retries</li>
+ * </ul>
+ */
+public final class StocksMetrics {
+
+    private static final MeterRegistry registry = Metrics.globalRegistry;
+
+    public static final Upstream YAHOO_MARKETS = new Upstream("yahoo-markets");
+    public static final Upstream YAHOO_QUOTE = new Upstream("yahoo-quote");
+    public static final Upstream YAHOO_HISTORY = new Upstream("yahoo-history");
+    public static final Upstream YAHOO_PROFILE = new Upstream("yahoo-profile");
+    public static final Upstream PREDICTOR_GRAPHQL = new Upstream("predictor-graphql");
+
+    public static final Cache PROFILES_L1 = new Cache("profiles-l1");
+    public static final Cache PROFILES_L2 = new Cache("profiles-l2");
+    public static final Cache PROFILES_STORE = new Cache("profiles-store");
+    public static final Cache HISTORICAL = new Cache("historical");
+    public static final Cache STOCKS_PAGES = new Cache("stocks-pages");
+    public static final Cache STOCKS_BODIES = new Cache("stocks-bodies");
+
+    public static final Timer REFRESH_CYCLE = Timer.builder("stocks.refresh.cycle")
+            .description("One refresh of the market snapshots this node leads")
+            .register(registry);
+
+    public static final Timer MODEL_TRAINING = Timer.builder("stocks.model.training")
+            .description("Fitting one prediction model")
+            .publishPercentileHistogram()
+            .register(registry);
+
+    public static final Timer WARMUP = Timer.builder("stocks.warmup")
+            .description("Loading the most requested symbols into memory after startup")
+            .register(registry);
+
+    public static final Timer REDIS_BATCH = redisCommand("batch");
+    public static final Timer REDIS_LEASE = redisCommand("lease");
+
+    private StocksMetrics() {
+    }
+
+    private static Timer redisCommand(String command) {
+        return Timer.builder("stocks.redis.command")
+                .description("Redis round trips issued by the application")
+                .tag("command", command)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /** Records the time since {@code startNanos}, taken from {@link System#nanoTime()}. */
+    public static void recordSince(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Meters of one upstream we fetch from. */
+    public static final class Upstream {
+        public final Timer fetch;
+        public final Timer parse;
+        public final Counter errors;
+
+        private Upstream(String name) {
+            fetch = Timer.builder("stocks.upstream.fetch")
+                    .description("Time to fetch a page or response from an upstream")
+                    .tag("upstream", name)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            parse = Timer.builder("stocks.scrape.parse")
+                    .description("Time to extract data from a fetched page")
+                    .tag("page", name)
+                    .register(registry);
+            errors = Counter.builder("stocks.upstream.errors")
+                    .description("Failed fetches from an upstream")
+                    .tag("upstream", name)
+                    .register(registry);
+        }
+    }
+
+    /** Meters of one cache tier. */
+    public static final class Cache {
+        public final Counter hits;
+        public final Counter misses;
+        public final Counter evictions;
+
+        private Cache(String name) {
+            hits = Counter.builder("stocks.cache.requests").tag("cache", name).tag("result", "hit").register(registry);
+            misses = Counter.builder("stocks.cache.requests").tag("cache", name).tag("result", "miss").register(registry);
+            evictions = Counter.builder("stocks.cache.evictions").tag("cache", name).register(registry);
+        }
+
+        public void record(boolean hit) {
+            (hit ? hits : misses).increment();
+        }
+    }
+}
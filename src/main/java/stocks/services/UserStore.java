@@ -0,0 +1,236 @@
+package stocks.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLexSortedSet;
+import org.redisson.api.RLock;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RMapCacheAsync;
+import org.redisson.api.RedissonClient;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import stocks.models.UserData;
+import stocks.models.UserDirectoryPage;
+import stocks.models.UserSummary;
+import stocks.storage.RecordCodecs;
+
+/**
+ * Redis layout for users.
+ * <ul>
+ *   <li>{@code usersCache}: email to full user record</li>
+ *   <li>{@code userSummaries}: email to the public projection, so listings never
+ *       decode passwords or birthdates</li>
+ *   <li>{@code userDirectory}: every email in a lexicographically sorted set, so
+ *       a prefix search or the next page is a single ZRANGEBYLEX</li>
+ * </ul>
+ * User records expire; directory entries whose summary has expired are skipped
+ * and removed when a page of emails or of the directory runs into them.
+ */
+@ApplicationScoped
+public class UserStore {
+    private static final Logger logger = Logger.getLogger(UserStore.class.getName());
+
+    public static final String USERS_CACHE = "usersCache";
+    public static final long USER_TTL_HOURS = 24;
+
+    private static final String SUMMARIES = "userSummaries";
+    private static final String DIRECTORY = "userDirectory";
+    private static final String BACKFILL_MARKER = "userDirectory:backfilled";
+    private static final String BACKFILL_LOCK = "userDirectory:backfill";
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    RecordCodecs codecs;
+
+    public UserData find(String email) {
+        RMapCache<String, UserData> users = redissonClient.getMapCache(USERS_CACHE, codecs.users());
+        return users.get(email);
+    }
+
+    /** The users that exist among {@code emails}, fetched with one HMGET. */
+    public Map<String, UserData> findAll(Set<String> emails) {
+        RMapCache<String, UserData> users = redissonClient.getMapCache(USERS_CACHE, codecs.users());
+        return users.getAll(emails);
+    }
+
+    /** Stores a new user; false if the email is already taken. */
+    public boolean create(UserData user) {
+        RMapCache<String, UserData> users = redissonClient.getMapCache(USERS_CACHE, codecs.users());
+        if (!users.fastPutIfAbsent(user.getEmail(), user, USER_TTL_HOURS, TimeUnit.HOURS)) {
+            return false;
+        }
+        RBatch batch = redissonClient.createBatch();
+        index(batch, user);
+        batch.execute();
+        return true;
+    }
+
+    private void index(RBatch batch, UserData user) {
+        RMapCacheAsync<String, UserSummary> summaries = batch.getMapCache(SUMMARIES, codecs.userSummaries());
+        summaries.fastPutAsync(user.getEmail(), UserSummary.of(user), USER_TTL_HOURS, TimeUnit.HOURS);
+        batch.getLexSortedSet(DIRECTORY).addAsync(user.getEmail());
+    }
+
+    /**
+     * Emails of existing users in order, starting after {@code after} and
+     * optionally limited to those beginning with {@code prefix}. Directory
+     * entries whose summary has expired are skipped and removed, reading
+     * further so a page is only short at the end of the directory.
+     */
+    public List<String> emails(String prefix, String after, int limit) {
+        List<String> live = new ArrayList<>();
+        String cursor = after;
+        while (live.size() < limit) {
+            int wanted = limit - live.size();
+            List<String> candidates = indexed(prefix, cursor, wanted);
+            live.addAll(withoutExpired(candidates));
+            if (candidates.size() < wanted) {
+                break;
+            }
+            cursor = candidates.get(candidates.size() - 1);
+        }
+        return live;
+    }
+
+    // One batch of containsKey lookups against the summaries; the misses are pruned
+    private List<String> withoutExpired(List<String> emails) {
+        if (emails.isEmpty()) {
+            return emails;
+        }
+        RBatch batch = redissonClient.createBatch();
+        RMapCacheAsync<String, UserSummary> summaries = batch.getMapCache(SUMMARIES, codecs.userSummaries());
+        List<RFuture<Boolean>> exists = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            exists.add(summaries.containsKeyAsync(email));
+        }
+        batch.execute();
+
+        List<String> live = new ArrayList<>(emails.size());
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            if (exists.get(i).toCompletableFuture().join()) {
+                live.add(emails.get(i));
+            } else {
+                expired.add(emails.get(i));
+            }
+        }
+        if (!expired.isEmpty()) {
+            redissonClient.getLexSortedSet(DIRECTORY).removeAllAsync(expired);
+        }
+        return live;
+    }
+
+    /** Raw directory entries, including users that may have expired since. */
+    private List<String> indexed(String prefix, String after, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        RLexSortedSet directory = redissonClient.getLexSortedSet(DIRECTORY);
+        boolean hasPrefix = prefix != null && !prefix.isEmpty();
+        String from = hasPrefix ? prefix : null;
+        boolean fromInclusive = true;
+        if (after != null && (from == null || after.compareTo(from) >= 0)) {
+            from = after;
+            fromInclusive = false;
+        }
+        Collection<String> range;
+        if (hasPrefix) {
+            // '\uffff' sorts after any (BMP) character that can follow the prefix
+            range = directory.range(from, fromInclusive, prefix + Character.MAX_VALUE, true, 0, limit);
+        } else if (from != null) {
+            range = directory.rangeTail(from, fromInclusive, 0, limit);
+        } else {
+            range = directory.range(0, limit - 1);
+        }
+        return new ArrayList<>(range);
+    }
+
+    /**
+     * One page of the directory. Reads {@code limit + 1} emails to know whether
+     * another page exists, then the summaries for just those emails.
+     */
+    public UserDirectoryPage directory(String prefix, String after, int limit) {
+        // Expiry is checked on the summaries read below, so the raw index is enough here
+        List<String> emails = indexed(prefix, after, limit + 1);
+        String nextCursor = null;
+        if (emails.size() > limit) {
+            emails = emails.subList(0, limit);
+            nextCursor = emails.get(limit - 1);
+        }
+        if (emails.isEmpty()) {
+            return new UserDirectoryPage(new ArrayList<>(), null);
+        }
+
+        Set<String> keys = new LinkedHashSet<>(emails);
+        RMapCache<String, UserSummary> summaries = redissonClient.getMapCache(SUMMARIES, codecs.userSummaries());
+        Map<String, UserSummary> found = summaries.getAll(keys);
+        List<UserSummary> users = new ArrayList<>(found.size());
+        List<String> expired = new ArrayList<>();
+        for (String email : keys) {
+            UserSummary summary = found.get(email);
+            if (summary != null) {
+                users.add(summary);
+            } else {
+                expired.add(email);
+            }
+        }
+        if (!expired.isEmpty()) {
+            redissonClient.getLexSortedSet(DIRECTORY).removeAllAsync(expired);
+        }
+        return new UserDirectoryPage(users, nextCursor);
+    }
+
+    /**
+     * Builds the directory once for users created before it existed. One node
+     * does it, under a lock, and writes the marker only after every user is
+     * indexed, so a failed run is retried on the next start.
+     */
+    void backfillDirectory(@Observes StartupEvent event) {
+        RBucket<String> marker = redissonClient.getBucket(BACKFILL_MARKER);
+        RLock lock = redissonClient.getLock(BACKFILL_LOCK);
+        try {
+            if (!marker.isExists() && lock.tryLock()) {
+                try {
+                    if (!marker.isExists()) {
+                        int indexed = indexExistingUsers();
+                        marker.set("done");
+                        logger.log(Level.INFO, String.format("Indexed %d existing users in the directory", indexed));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("User directory backfill failed, will retry on next start: %s",
+                    e.getMessage()));
+        }
+    }
+
+    private int indexExistingUsers() {
+        RMapCache<String, UserData> users = redissonClient.getMapCache(USERS_CACHE, codecs.users());
+        RBatch batch = redissonClient.createBatch();
+        int indexed = 0;
+        for (UserData user : users.values()) {
+            index(batch, user);
+            indexed++;
+        }
+        batch.execute();
+        return indexed;
+    }
+}
@@ -0,0 +1,27 @@
+package stocks.services;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/** Keeps the instance out of the load balancer until warm-up is done. */
+@Readiness
+@ApplicationScoped
+public class WarmupReadinessCheck implements HealthCheck {
+
+    @Inject
+    WarmupService warmupService;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("warmup")
+                .status(warmupService.isReady())
+                .withData("hotSymbols", warmupService.getRequested())
+                .withData("loaded", warmupService.getLoaded())
+                .withData("durationMs", warmupService.getDurationMillis())
+                .build();
+    }
+}
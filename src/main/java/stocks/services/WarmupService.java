@@ -0,0 +1,113 @@
+package stocks.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Fills the in-memory caches with the most requested symbols right after
+ * startup, so the first requests after a rollout do not all miss. The
+ * instance reports ready (see {@code WarmupReadinessCheck}) once warm-up has
+ * finished, or after {@code stocks.warmup.timeout-seconds} at the latest so a
+ * slow Redis cannot hold a rollout back.
+ */
+@ApplicationScoped
+public class WarmupService {
+    private static final Logger logger = Logger.getLogger(WarmupService.class.getName());
+
+    @Inject
+    HotSymbols hotSymbols;
+
+    @Inject
+    ProfileCache profileCache;
+
+    @ConfigProperty(name = "stocks.warmup.symbols", defaultValue = "200")
+    int symbols;
+
+    @ConfigProperty(name = "stocks.warmup.parallelism", defaultValue = "8")
+    int parallelism;
+
+    @ConfigProperty(name = "stocks.warmup.timeout-seconds", defaultValue = "60")
+    long timeoutSeconds;
+
+    private volatile long startedAt = System.nanoTime();
+    private volatile boolean finished;
+    private volatile int requested;
+    private final AtomicInteger loaded = new AtomicInteger();
+    private volatile long durationMillis = -1;
+
+    void onStart(@Observes StartupEvent event) {
+        startedAt = System.nanoTime();
+        Infrastructure.getDefaultWorkerPool().execute(this::warmUp);
+    }
+
+    void warmUp() {
+        try {
+            long deadline = startedAt + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            List<String> hot = hotSymbols.top(symbols);
+            requested = hot.size();
+            // Bounded so warm-up does not monopolise the Redis pool or the store
+            Semaphore permits = new Semaphore(parallelism);
+            List<CompletableFuture<Boolean>> loads = new ArrayList<>(hot.size());
+            for (String symbol : hot) {
+                // A load that never completes must not hold warm-up past its timeout
+                if (!permits.tryAcquire(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException();
+                }
+                CompletableFuture<Boolean> load = profileCache.warm(symbol);
+                load.whenComplete((found, failure) -> {
+                    permits.release();
+                    if (Boolean.TRUE.equals(found)) {
+                        loaded.incrementAndGet();
+                    }
+                });
+                loads.add(load);
+            }
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+                    .get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            logger.log(Level.WARNING, String.format("Warm-up did not finish within %d s", timeoutSeconds));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Warm-up failed: %s", e.getMessage()));
+        } finally {
+            StocksMetrics.recordSince(StocksMetrics.WARMUP, startedAt);
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            finished = true;
+            logger.log(Level.INFO, String.format("Warm-up loaded %d of %d hot symbols in %d ms",
+                    loaded.get(), requested, durationMillis));
+        }
+    }
+
+    public boolean isReady() {
+        return finished || System.nanoTime() - startedAt > TimeUnit.SECONDS.toNanos(timeoutSeconds);
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getLoaded() {
+        return loaded.get();
+    }
+
+    /** -1 while warm-up is still running. */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
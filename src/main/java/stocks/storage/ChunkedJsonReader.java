@@ -0,0 +1,52 @@
+package stocks.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Parses one JSON document from chunks as they arrive off the network, so a
+ * download never has to be collected into a single array first. Each chunk is
+ * tokenized on arrival and may be reused by the caller afterwards; the value
+ * is bound from the buffered tokens once the input ends. Not thread-safe:
+ * feed chunks in order from one subscriber.
+ */
+final class ChunkedJsonReader {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final TokenBuffer tokens;
+
+    ChunkedJsonReader(ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+        this.tokens = new TokenBuffer(parser);
+    }
+
+    void feed(ByteBuffer chunk) throws IOException {
+        ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).feedInput(chunk);
+        drain();
+    }
+
+    <T> T finish(Class<T> type) throws IOException {
+        parser.getNonBlockingInputFeeder().endOfInput();
+        drain();
+        try (JsonParser buffered = tokens.asParser(objectMapper)) {
+            return objectMapper.readValue(buffered, type);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            tokens.copyCurrentEvent(parser);
+        }
+    }
+}
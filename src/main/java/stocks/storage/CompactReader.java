@@ -0,0 +1,99 @@
+package stocks.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads what {@link CompactWriter} produced. Typical use is a loop over
+ * {@link #nextField()} with a switch on the field number, calling
+ * {@link #skipField()} for anything unknown.
+ */
+public final class CompactReader {
+    private final ByteBuffer buffer;
+    private int wireType;
+
+    public CompactReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public CompactReader(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /** The next field number, or -1 at the end of the record. */
+    public int nextField() throws IOException {
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int tag = (int) readVarint();
+        wireType = tag & 0x7;
+        return tag >>> 3;
+    }
+
+    public long readVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Truncated varint");
+            }
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public long readLong() throws IOException {
+        long raw = readVarint();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readVarint() != 0;
+    }
+
+    public String readString() throws IOException {
+        int length = readLength();
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /** A reader over the current length-delimited field, sharing the buffer. */
+    public CompactReader readNested() throws IOException {
+        int length = readLength();
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return new CompactReader(slice);
+    }
+
+    public void skipField() throws IOException {
+        switch (wireType) {
+            case CompactWriter.WIRE_VARINT -> readVarint();
+            case CompactWriter.WIRE_BYTES -> {
+                int length = readLength();
+                buffer.position(buffer.position() + length);
+            }
+            default -> throw new IOException("Unknown wire type " + wireType);
+        }
+    }
+
+    private int readLength() throws IOException {
+        long length = readVarint();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Field length " + length + " exceeds record");
+        }
+        return (int) length;
+    }
+}
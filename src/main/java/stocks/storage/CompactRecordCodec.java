@@ -0,0 +1,123 @@
+package stocks.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Redisson codec for user records. Values are written as
+ * {@code MAGIC_0 MAGIC_1 version fields...} using a {@link RecordFormat}.
+ * Anything without the magic prefix is treated as a legacy entry: it is
+ * decoded with the client's original codec and, if that yields JSON text,
+ * parsed with Jackson. Map keys always go through the original codec so
+ * existing entries stay addressable while they are migrated on rewrite.
+ */
+public class CompactRecordCodec<T> implements Codec {
+    static final byte MAGIC_0 = (byte) 0xC3;
+    static final byte MAGIC_1 = (byte) 0x5A;
+
+    private final RecordFormat<T> format;
+    private final Codec legacy;
+    private final ObjectMapper objectMapper;
+    private final JavaType legacyType;
+    private final boolean writeCompact;
+
+    private final Encoder encoder;
+    private final Decoder<Object> valueDecoder;
+    private final Decoder<Object> mapValueDecoder;
+
+    /**
+     * @param writeCompact when false new values are still written as JSON text
+     *                     through the legacy codec, which keeps a rollback open
+     */
+    public CompactRecordCodec(RecordFormat<T> format, Codec legacy, ObjectMapper objectMapper,
+                              JavaType legacyType, boolean writeCompact) {
+        this.format = format;
+        this.legacy = legacy;
+        this.objectMapper = objectMapper;
+        this.legacyType = legacyType;
+        this.writeCompact = writeCompact;
+        this.encoder = writeCompact ? this::encodeCompact : this::encodeJson;
+        this.valueDecoder = (buf, state) -> decode(buf, state, legacy.getValueDecoder());
+        this.mapValueDecoder = (buf, state) -> decode(buf, state, legacy.getMapValueDecoder());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ByteBuf encodeCompact(Object value) {
+        CompactWriter out = new CompactWriter();
+        out.writeRawByte(MAGIC_0);
+        out.writeRawByte(MAGIC_1);
+        out.writeRawByte(format.version());
+        format.write((T) value, out);
+        return Unpooled.wrappedBuffer(out.array(), 0, out.size());
+    }
+
+    private ByteBuf encodeJson(Object value) throws IOException {
+        return legacy.getMapValueEncoder().encode(objectMapper.writeValueAsString(value));
+    }
+
+    private Object decode(ByteBuf buf, State state, Decoder<Object> legacyDecoder) throws IOException {
+        int start = buf.readerIndex();
+        int length = buf.readableBytes();
+        if (length >= 3 && buf.getByte(start) == MAGIC_0 && buf.getByte(start + 1) == MAGIC_1) {
+            int version = buf.getByte(start + 2);
+            ByteBuffer fields = buf.nioBuffer(start + 3, length - 3);
+            buf.skipBytes(length);
+            return format.read(new CompactReader(fields), version);
+        }
+        Object value = legacyDecoder.decode(buf, state);
+        if (value instanceof String json) {
+            return objectMapper.readValue(json, legacyType);
+        }
+        return value;
+    }
+
+    public boolean isWriteCompact() {
+        return writeCompact;
+    }
+
+    @Override
+    public Decoder<Object> getMapValueDecoder() {
+        return mapValueDecoder;
+    }
+
+    @Override
+    public Encoder getMapValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return legacy.getMapKeyDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return legacy.getMapKeyEncoder();
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return valueDecoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return legacy.getClassLoader();
+    }
+}
@@ -0,0 +1,103 @@
+package stocks.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Appends field-tagged values to a growable byte array. Each field is a tag
+ * ({@code field << 3 | wireType}) followed by either a varint or a
+ * length-prefixed byte run, so readers can skip fields they do not know.
+ */
+public final class CompactWriter {
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_BYTES = 2;
+
+    private byte[] buffer;
+    private int position;
+
+    public CompactWriter() {
+        this(64);
+    }
+
+    public CompactWriter(int capacity) {
+        buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    public void writeRawByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeVarint((field << 3) | wireType);
+    }
+
+    /** Writes nothing for null, which reads back as null. */
+    public void writeString(int field, String value) {
+        if (value == null) {
+            return;
+        }
+        writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void writeBytes(int field, byte[] value) {
+        writeBytes(field, value, 0, value.length);
+    }
+
+    public void writeBytes(int field, byte[] value, int offset, int length) {
+        writeTag(field, WIRE_BYTES);
+        writeVarint(length);
+        ensureCapacity(length);
+        System.arraycopy(value, offset, buffer, position, length);
+        position += length;
+    }
+
+    /** Zig-zag encoded so small negative numbers stay short. */
+    public void writeLong(int field, long value) {
+        writeTag(field, WIRE_VARINT);
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    /** Writes nothing for false, which is also the default when reading. */
+    public void writeBoolean(int field, boolean value) {
+        if (value) {
+            writeTag(field, WIRE_VARINT);
+            writeVarint(1);
+        }
+    }
+
+    public void writeNested(int field, CompactWriter nested) {
+        writeBytes(field, nested.buffer, 0, nested.position);
+    }
+
+    public byte[] array() {
+        return buffer;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package stocks.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import stocks.models.CompanyProfile;
+
+/**
+ * All profiles in one local, memory-mapped file.
+ * <pre>
+ *   file   := "CPK1" record*
+ *   record := int32 symbolLength, symbol (UTF-8), int32 jsonLength, json
+ * </pre>
+ * Records are only ever appended; the newest record of a symbol wins. Opening
+ * the file is one sequential scan that builds the symbol-to-offset index, and
+ * reads parse JSON straight out of the mapping. When superseded records take
+ * up more space than live ones the file is compacted: live records are copied
+ * to a new file that then atomically replaces the old one. A record cut short
+ * by a crash is dropped on open.
+ * <p>
+ * The file is mapped read-write with headroom past the last record and
+ * appends are written into the mapping, so it is only remapped when it
+ * outgrows the headroom. The zero-filled headroom ends the scan (no symbol is
+ * empty) and is cut off again on close. A record's symbol length is written
+ * last, so an append interrupted by a crash leaves no record behind.
+ * <p>
+ * Readers take no locks: the mapping and the index are published together as
+ * one immutable {@code State}, replaced on every write.
+ */
+@ApplicationScoped
+@Typed(PackedFileProfileStore.class)
+public class PackedFileProfileStore implements ProfileStore {
+    private static final Logger logger = Logger.getLogger(PackedFileProfileStore.class.getName());
+
+    private static final byte[] MAGIC = "CPK1".getBytes(StandardCharsets.US_ASCII);
+    private static final long MIN_COMPACTION_GARBAGE = 1 << 20;
+    private static final long MIN_HEADROOM = 1 << 20;
+
+    private record Slot(int offset, int length) {
+    }
+
+    private record State(MappedByteBuffer mapped, Map<String, Slot> index) {
+    }
+
+    @ConfigProperty(name = "stocks.profiles.local.path", defaultValue = "data/profiles.pack")
+    Path path;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private volatile State state;
+    // guarded by this
+    private FileChannel channel;
+    private long end;
+    private long liveBytes;
+
+    public PackedFileProfileStore() {
+    }
+
+    PackedFileProfileStore(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        open();
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            open();
+        } catch (IOException e) {
+            throw new RuntimeException("Error opening profile store " + path, e);
+        }
+    }
+
+    private synchronized void open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            channel.write(ByteBuffer.wrap(MAGIC), 0);
+        }
+        end = load(channel, path);
+        logger.log(Level.INFO, String.format("Opened %s with %d profiles", path, state.index().size()));
+        compactIfWasteful();
+    }
+
+    /**
+     * Scans {@code file}, cuts off anything after its last complete record,
+     * then publishes a mapping with headroom. Returns the end of the records.
+     */
+    private long load(FileChannel file, Path name) throws IOException {
+        long size = file.size();
+        long recordsEnd = scan(file.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        if (recordsEnd < size) {
+            // Either an append cut short by a crash or the headroom of a store that was not closed
+            logger.log(Level.WARNING, String.format("Dropping %d bytes after the last complete record of %s",
+                    size - recordsEnd, name));
+            file.truncate(recordsEnd);
+        }
+        state = new State(map(file, recordsEnd), state.index());
+        return recordsEnd;
+    }
+
+    // Builds the index and publishes it; returns the offset just past the last complete record
+    private long scan(MappedByteBuffer mapped) throws IOException {
+        ByteBuffer buffer = mapped.duplicate();
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException(path + " is not a profile store");
+        }
+        Map<String, Slot> index = new HashMap<>();
+        liveBytes = 0;
+        while (buffer.remaining() >= Integer.BYTES) {
+            int start = buffer.position();
+            int symbolLength = buffer.getInt();
+            if (symbolLength <= 0 || buffer.remaining() < symbolLength + Integer.BYTES) {
+                state = new State(mapped, index);
+                return start;
+            }
+            byte[] symbol = new byte[symbolLength];
+            buffer.get(symbol);
+            int jsonLength = buffer.getInt();
+            if (jsonLength < 0 || buffer.remaining() < jsonLength) {
+                state = new State(mapped, index);
+                return start;
+            }
+            Slot previous = index.put(new String(symbol, StandardCharsets.UTF_8),
+                    new Slot(buffer.position(), jsonLength));
+            liveBytes += recordSize(symbolLength, jsonLength);
+            if (previous != null) {
+                liveBytes -= recordSize(symbolLength, previous.length());
+            }
+            buffer.position(buffer.position() + jsonLength);
+        }
+        state = new State(mapped, index);
+        return buffer.position();
+    }
+
+    private static long recordSize(int symbolLength, int jsonLength) {
+        return 2L * Integer.BYTES + symbolLength + jsonLength;
+    }
+
+    // Maps at least `needed` bytes plus headroom; the file grows (zero-filled) to the mapped size
+    private static MappedByteBuffer map(FileChannel file, long needed) throws IOException {
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max(needed + needed / 2, needed + MIN_HEADROOM));
+        return file.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    @Override
+    public CompletableFuture<CompanyProfile> find(String symbol) {
+        try {
+            return CompletableFuture.completedFuture(read(symbol.toUpperCase()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompanyProfile read(String symbol) throws IOException {
+        State current = state;
+        Slot slot = current.index().get(symbol);
+        return slot != null ? read(current, slot) : null;
+    }
+
+    private CompanyProfile read(State current, Slot slot) throws IOException {
+        return objectMapper.readValue(
+                new ByteBufferBackedInputStream(current.mapped().slice(slot.offset(), slot.length())),
+                CompanyProfile.class);
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(String symbol, CompanyProfile profile) {
+        try {
+            append(symbol.toUpperCase(), objectMapper.writeValueAsBytes(profile));
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private synchronized void append(String symbol, byte[] json) throws IOException {
+        byte[] symbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+        if (symbolBytes.length == 0) {
+            throw new IllegalArgumentException("Symbol is required");
+        }
+        long start = end;
+        long recordEnd = start + recordSize(symbolBytes.length, json.length);
+        if (recordEnd > Integer.MAX_VALUE) {
+            throw new IOException("Profile store " + path + " is full");
+        }
+        MappedByteBuffer mapped = state.mapped();
+        if (recordEnd > mapped.capacity()) {
+            mapped = map(channel, recordEnd);
+        }
+        ByteBuffer record = mapped.duplicate();
+        record.position((int) start + Integer.BYTES);
+        record.put(symbolBytes).putInt(json.length).put(json);
+        // The record only exists for a scan once its symbol length is non-zero
+        record.putInt((int) start, symbolBytes.length);
+        end = recordEnd;
+
+        Map<String, Slot> index = new HashMap<>(state.index());
+        Slot previous = index.put(symbol, new Slot((int) (start + 2L * Integer.BYTES + symbolBytes.length), json.length));
+        state = new State(mapped, index);
+        liveBytes += recordSize(symbolBytes.length, json.length);
+        if (previous != null) {
+            liveBytes -= recordSize(symbolBytes.length, previous.length());
+        }
+        compactIfWasteful();
+    }
+
+    private void compactIfWasteful() throws IOException {
+        long garbage = end - MAGIC.length - liveBytes;
+        if (garbage > MIN_COMPACTION_GARBAGE && garbage > liveBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the file with only the newest record of each symbol. The new
+     * file replaces the old one by an atomic move before the store switches
+     * to it; if the move fails the store carries on with the old file.
+     */
+    public synchronized void compact() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compacting");
+        // Kept open across the move: on POSIX file systems it then refers to the renamed file
+        FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            out.write(ByteBuffer.wrap(MAGIC));
+            State current = state;
+            for (Map.Entry<String, Slot> entry : current.index().entrySet()) {
+                byte[] symbolBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + symbolBytes.length + Integer.BYTES);
+                header.putInt(symbolBytes.length).put(symbolBytes).putInt(entry.getValue().length()).flip();
+                ByteBuffer json = current.mapped().slice(entry.getValue().offset(), entry.getValue().length());
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                while (json.hasRemaining()) {
+                    out.write(json);
+                }
+            }
+            out.force(true);
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            out.close();
+            Files.deleteIfExists(compacted);
+            throw e;
+        }
+
+        long before = end;
+        FileChannel previous = channel;
+        channel = out;
+        end = load(out, path);
+        try {
+            previous.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, String.format("Error closing the pre-compaction %s: %s", path, e.getMessage()));
+        }
+        logger.log(Level.INFO, String.format("Compacted %s from %d to %d bytes", path, before, end));
+    }
+
+    /** Bytes taken by the records, excluding the headroom of the mapping. */
+    synchronized long size() {
+        return end;
+    }
+
+    /** One sequential pass over the mapping, in file order. */
+    @Override
+    public Map<String, CompanyProfile> preload() {
+        State current = state;
+        Map<String, CompanyProfile> profiles = new LinkedHashMap<>();
+        current.index().entrySet().stream()
+                .sorted(Comparator.comparingInt(entry -> entry.getValue().offset()))
+                .forEach(entry -> {
+                    try {
+                        profiles.put(entry.getKey(), read(current, entry.getValue()));
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, String.format("Unreadable profile for %s: %s",
+                                entry.getKey(), e.getMessage()));
+                    }
+                });
+        return profiles;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        try {
+            // Leaves no headroom behind in the file at rest
+            channel.truncate(end);
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, String.format("Error closing %s: %s", path, e.getMessage()));
+        }
+    }
+}
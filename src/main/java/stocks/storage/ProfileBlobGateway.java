@@ -0,0 +1,125 @@
+package stocks.storage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.azure.core.util.BinaryData;
+import com.azure.storage.blob.BlobContainerAsyncClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.BlobErrorCode;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import reactor.core.publisher.Mono;
+import stocks.models.CompanyProfile;
+
+/**
+ * Company profile blobs, one {@code companydetails_<SYMBOL>.json} per symbol,
+ * through a single async container client. Reads are a plain download with
+ * BlobNotFound meaning "no profile", so there is no existence check first.
+ * Downloads are parsed chunk by chunk as they stream in, and uploads are
+ * written from the serialized bytes, without intermediate strings.
+ * <p>
+ * The container is addressed either by a container SAS URL or, e.g. for
+ * Azurite, by a connection string plus container name.
+ */
+@ApplicationScoped
+@Typed(ProfileBlobGateway.class)
+public class ProfileBlobGateway implements ProfileStore {
+    private static final Logger logger = Logger.getLogger(ProfileBlobGateway.class.getName());
+
+    @ConfigProperty(name = "stocks.profiles.blob.sas-url")
+    Optional<String> sasUrl;
+
+    @ConfigProperty(name = "stocks.profiles.blob.connection-string")
+    Optional<String> connectionString;
+
+    @ConfigProperty(name = "stocks.profiles.blob.container", defaultValue = "companydetails")
+    String containerName;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private BlobContainerAsyncClient container;
+
+    @PostConstruct
+    void init() {
+        BlobContainerClientBuilder builder = new BlobContainerClientBuilder();
+        if (connectionString.isPresent()) {
+            builder.connectionString(connectionString.get()).containerName(containerName);
+        } else if (sasUrl.isPresent()) {
+            builder.endpoint(sasUrl.get());
+        } else {
+            throw new IllegalStateException(
+                    "Set stocks.profiles.blob.sas-url or stocks.profiles.blob.connection-string");
+        }
+        container = builder.buildAsyncClient();
+        if (connectionString.isPresent()) {
+            // An emulator such as Azurite starts empty; a SAS URL names a container that must already exist
+            container.createIfNotExists().block(Duration.ofSeconds(30));
+        }
+    }
+
+    static String blobName(String symbol) {
+        return "companydetails_" + symbol.toUpperCase() + ".json";
+    }
+
+    @Override
+    public CompletableFuture<CompanyProfile> find(String symbol) {
+        return Mono.defer(() -> {
+                    ChunkedJsonReader json;
+                    try {
+                        json = new ChunkedJsonReader(objectMapper);
+                    } catch (IOException e) {
+                        return Mono.<CompanyProfile>error(parseError(e));
+                    }
+                    return container.getBlobAsyncClient(blobName(symbol)).downloadStream()
+                            .doOnNext(chunk -> {
+                                try {
+                                    json.feed(chunk);
+                                } catch (IOException e) {
+                                    throw parseError(e);
+                                }
+                            })
+                            .then(Mono.fromCallable(() -> {
+                                try {
+                                    return json.finish(CompanyProfile.class);
+                                } catch (IOException e) {
+                                    throw parseError(e);
+                                }
+                            }));
+                })
+                // Only a missing blob means "no profile"; a missing container is a configuration error
+                .onErrorResume(BlobStorageException.class,
+                        e -> BlobErrorCode.BLOB_NOT_FOUND.equals(e.getErrorCode()) ? Mono.empty() : Mono.error(e))
+                .toFuture();
+    }
+
+    private static RuntimeException parseError(IOException e) {
+        return new RuntimeException("Error parsing company profile from Azure Blob Storage", e);
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(String symbol, CompanyProfile profile) {
+        BinaryData content;
+        try {
+            content = BinaryData.fromBytes(objectMapper.writeValueAsBytes(profile));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Error converting company profile to JSON", e));
+        }
+        return container.getBlobAsyncClient(blobName(symbol)).upload(content, true)
+                .doOnSuccess(item -> logger.log(Level.FINE, String.format("Uploaded %s", blobName(symbol))))
+                .then()
+                .toFuture();
+    }
+}
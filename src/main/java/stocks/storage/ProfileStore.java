@@ -0,0 +1,28 @@
+package stocks.storage;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import stocks.models.CompanyProfile;
+
+/**
+ * Durable storage for company profiles, the tier below Redis in
+ * {@code ProfileCache}. {@code stocks.profiles.store} selects the
+ * implementation: {@code azure} (one blob per symbol) or {@code local} (a
+ * packed file on this machine).
+ */
+public interface ProfileStore {
+
+    /** The stored profile, or null when there is none. */
+    CompletableFuture<CompanyProfile> find(String symbol);
+
+    CompletableFuture<Void> upload(String symbol, CompanyProfile profile);
+
+    /**
+     * Every stored profile, when the store can produce them cheaply enough to
+     * load at startup; empty for remote stores.
+     */
+    default Map<String, CompanyProfile> preload() {
+        return Map.of();
+    }
+}
@@ -0,0 +1,32 @@
+package stocks.storage;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class ProfileStoreProducer {
+
+    @ConfigProperty(name = "stocks.profiles.store", defaultValue = "azure")
+    String store;
+
+    @Inject
+    Instance<ProfileBlobGateway> azure;
+
+    @Inject
+    Instance<PackedFileProfileStore> local;
+
+    // Only the selected implementation is ever created
+    @Produces
+    @ApplicationScoped
+    public ProfileStore produceProfileStore() {
+        return switch (store.toLowerCase()) {
+            case "azure" -> azure.get();
+            case "local" -> local.get();
+            default -> throw new IllegalArgumentException("Unknown stocks.profiles.store: " + store);
+        };
+    }
+}
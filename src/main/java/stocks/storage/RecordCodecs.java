@@ -0,0 +1,82 @@
+package stocks.storage;
+
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import stocks.models.ChatData;
+import stocks.models.GameData;
+import stocks.models.UserData;
+import stocks.models.UserSummary;
+
+/**
+ * Codecs for the user-data structures in Redis. {@code stocks.records.format}
+ * selects what new writes look like ({@code compact} or {@code json}); reads
+ * understand both, so the setting can be flipped either way at any time.
+ */
+@ApplicationScoped
+public class RecordCodecs {
+
+    @Inject
+    RedissonClient redissonClient;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "stocks.records.format", defaultValue = "compact")
+    String recordFormat;
+
+    private Codec games;
+    private Codec chats;
+    private Codec conversations;
+    private Codec users;
+    private Codec userSummaries;
+
+    @PostConstruct
+    void init() {
+        Codec legacy = redissonClient.getConfig().getCodec();
+        boolean compact = !"json".equalsIgnoreCase(recordFormat);
+        games = new CompactRecordCodec<>(RecordFormat.GAME, legacy, objectMapper,
+                objectMapper.constructType(GameData.class), compact);
+        chats = new CompactRecordCodec<>(RecordFormat.CHAT, legacy, objectMapper,
+                objectMapper.constructType(ChatData.class), compact);
+        conversations = new CompactRecordCodec<>(RecordFormat.listOf(RecordFormat.CHAT), legacy, objectMapper,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, ChatData.class), compact);
+        users = new CompactRecordCodec<>(RecordFormat.USER, legacy, objectMapper,
+                objectMapper.constructType(UserData.class), compact);
+        userSummaries = new CompactRecordCodec<>(RecordFormat.USER_SUMMARY, legacy, objectMapper,
+                objectMapper.constructType(UserSummary.class), compact);
+    }
+
+    /** {@link GameData} values. */
+    public Codec games() {
+        return games;
+    }
+
+    /** Single {@link ChatData} values. */
+    public Codec chats() {
+        return chats;
+    }
+
+    /** Whole conversations stored as a {@code List<ChatData>}. */
+    public Codec conversations() {
+        return conversations;
+    }
+
+    /** {@link UserData} values. */
+    public Codec users() {
+        return users;
+    }
+
+    /** {@link UserSummary} projections used by the user directory. */
+    public Codec userSummaries() {
+        return userSummaries;
+    }
+}
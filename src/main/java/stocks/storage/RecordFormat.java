@@ -0,0 +1,200 @@
+package stocks.storage;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import stocks.models.ChatData;
+import stocks.models.GameData;
+import stocks.models.UserData;
+import stocks.models.UserSummary;
+
+/**
+ * Binary layout of one record type. Field numbers are part of the stored
+ * format: never reuse one, only add new ones and bump {@link #version()} when
+ * the meaning of an existing field changes.
+ */
+public interface RecordFormat<T> {
+
+    int version();
+
+    void write(T value, CompactWriter out);
+
+    T read(CompactReader in, int version) throws IOException;
+
+    RecordFormat<GameData> GAME = new RecordFormat<>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(GameData game, CompactWriter out) {
+            out.writeString(1, game.getGameId());
+            out.writeString(2, game.getEmail());
+            out.writeString(3, game.getSymbol());
+            out.writeString(4, game.getUserPrediction());
+            out.writeBoolean(5, game.isWon());
+            out.writeLong(6, game.getCoinsEarned());
+        }
+
+        @Override
+        public GameData read(CompactReader in, int version) throws IOException {
+            GameData game = new GameData();
+            for (int field = in.nextField(); field != -1; field = in.nextField()) {
+                switch (field) {
+                    case 1 -> game.setGameId(in.readString());
+                    case 2 -> game.setEmail(in.readString());
+                    case 3 -> game.setSymbol(in.readString());
+                    case 4 -> game.setUserPrediction(in.readString());
+                    case 5 -> game.setWon(in.readBoolean());
+                    case 6 -> game.setCoinsEarned((int) in.readLong());
+                    default -> in.skipField();
+                }
+            }
+            return game;
+        }
+    };
+
+    RecordFormat<ChatData> CHAT = new RecordFormat<>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(ChatData chat, CompactWriter out) {
+            out.writeString(1, chat.getChatId());
+            out.writeString(2, chat.getSenderEmail());
+            out.writeString(3, chat.getRecipientEmail());
+            out.writeString(4, chat.getMessage());
+            out.writeBoolean(5, chat.isAI());
+            if (chat.getTimestamp() != null) {
+                out.writeLong(6, chat.getTimestamp().getEpochSecond());
+                out.writeLong(7, chat.getTimestamp().getNano());
+            }
+        }
+
+        @Override
+        public ChatData read(CompactReader in, int version) throws IOException {
+            ChatData chat = new ChatData();
+            chat.setTimestamp(null);
+            long seconds = 0;
+            long nanos = 0;
+            boolean hasTimestamp = false;
+            for (int field = in.nextField(); field != -1; field = in.nextField()) {
+                switch (field) {
+                    case 1 -> chat.setChatId(in.readString());
+                    case 2 -> chat.setSenderEmail(in.readString());
+                    case 3 -> chat.setRecipientEmail(in.readString());
+                    case 4 -> chat.setMessage(in.readString());
+                    case 5 -> chat.setAI(in.readBoolean());
+                    case 6 -> {
+                        seconds = in.readLong();
+                        hasTimestamp = true;
+                    }
+                    case 7 -> nanos = in.readLong();
+                    default -> in.skipField();
+                }
+            }
+            if (hasTimestamp) {
+                chat.setTimestamp(Instant.ofEpochSecond(seconds, nanos));
+            }
+            return chat;
+        }
+    };
+
+    RecordFormat<UserData> USER = new RecordFormat<>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(UserData user, CompactWriter out) {
+            out.writeString(1, user.getEmail());
+            out.writeString(2, user.getPassword());
+            out.writeString(3, user.getDisplayName());
+            out.writeString(4, user.getPhotoURL());
+            out.writeString(5, user.getBirthdate());
+        }
+
+        @Override
+        public UserData read(CompactReader in, int version) throws IOException {
+            UserData user = new UserData();
+            for (int field = in.nextField(); field != -1; field = in.nextField()) {
+                switch (field) {
+                    case 1 -> user.setEmail(in.readString());
+                    case 2 -> user.setPassword(in.readString());
+                    case 3 -> user.setDisplayName(in.readString());
+                    case 4 -> user.setPhotoURL(in.readString());
+                    case 5 -> user.setBirthdate(in.readString());
+                    default -> in.skipField();
+                }
+            }
+            return user;
+        }
+    };
+
+    RecordFormat<UserSummary> USER_SUMMARY = new RecordFormat<>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(UserSummary summary, CompactWriter out) {
+            out.writeString(1, summary.getEmail());
+            out.writeString(2, summary.getDisplayName());
+            out.writeString(3, summary.getPhotoURL());
+        }
+
+        @Override
+        public UserSummary read(CompactReader in, int version) throws IOException {
+            UserSummary summary = new UserSummary();
+            for (int field = in.nextField(); field != -1; field = in.nextField()) {
+                switch (field) {
+                    case 1 -> summary.setEmail(in.readString());
+                    case 2 -> summary.setDisplayName(in.readString());
+                    case 3 -> summary.setPhotoURL(in.readString());
+                    default -> in.skipField();
+                }
+            }
+            return summary;
+        }
+    };
+
+    /** A list stored as repeated field 1, each element a nested record. */
+    static <E> RecordFormat<List<E>> listOf(RecordFormat<E> element) {
+        return new RecordFormat<>() {
+            @Override
+            public int version() {
+                return element.version();
+            }
+
+            @Override
+            public void write(List<E> values, CompactWriter out) {
+                CompactWriter nested = new CompactWriter();
+                for (E value : values) {
+                    nested.reset();
+                    element.write(value, nested);
+                    out.writeNested(1, nested);
+                }
+            }
+
+            @Override
+            public List<E> read(CompactReader in, int version) throws IOException {
+                List<E> values = new ArrayList<>();
+                for (int field = in.nextField(); field != -1; field = in.nextField()) {
+                    if (field == 1) {
+                        values.add(element.read(in.readNested(), version));
+                    } else {
+                        in.skipField();
+                    }
+                }
+                return values;
+            }
+        };
+    }
+}
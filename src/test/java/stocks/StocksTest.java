@@ -0,0 +1,87 @@
+package stocks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.qute.Engine;
+import io.quarkus.qute.ReflectionValueResolver;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import stocks.models.StockData;
+import stocks.services.MarketSnapshots;
+
+/**
+ * The rendered-page cache: a page is rendered once per snapshot version and
+ * replaced as soon as the category is republished.
+ */
+class StocksTest {
+
+    private Stocks page;
+    private MarketSnapshots.Snapshot current;
+
+    @BeforeEach
+    void setUp() {
+        page = new Stocks();
+        page.homepagestocks = Engine.builder().addDefaults().addValueResolver(new ReflectionValueResolver()).build()
+                .parse("{selectedCategory} {selectedStock} {stocks.get(selectedStock).price}");
+        page.marketSnapshots = new MarketSnapshots() {
+            @Override
+            public Snapshot current(String category) {
+                return current;
+            }
+        };
+    }
+
+    private static MarketSnapshots.Snapshot snapshot(long version, String price) {
+        StockData stock = new StockData("AAPL", "Apple Inc.", price, "+1.00", "+1.0%", "1M", "1M", "1B", "10.0");
+        return new MarketSnapshots.Snapshot(version, List.of(stock), System.currentTimeMillis());
+    }
+
+    private static HttpHeaders headers(Map<String, String> values) {
+        return (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(),
+                new Class<?>[] {HttpHeaders.class},
+                (proxy, method, args) -> method.getName().equals("getHeaderString") ? values.get(args[0]) : null);
+    }
+
+    private Response get(Map<String, String> requestHeaders) {
+        return page.getStocks("gainers", "", headers(requestHeaders));
+    }
+
+    private static String body(Response response) {
+        return new String((byte[]) response.getEntity(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void servesTheStoredPageUntilTheVersionChanges() {
+        current = snapshot(1, "100");
+        assertEquals("gainers AAPL 100", body(get(Map.of())));
+
+        // Same version: the stored render is served, not a new one
+        current = snapshot(1, "101");
+        assertEquals("gainers AAPL 100", body(get(Map.of())));
+
+        current = snapshot(2, "102");
+        assertEquals("gainers AAPL 102", body(get(Map.of())));
+    }
+
+    @Test
+    void aRepublishedCategoryNoLongerMatchesTheOldETag() {
+        current = snapshot(1, "100");
+        String etag = get(Map.of()).getHeaderString(HttpHeaders.ETAG);
+        assertEquals(304, get(Map.of(HttpHeaders.IF_NONE_MATCH, etag)).getStatus());
+
+        current = snapshot(2, "102");
+        Response republished = get(Map.of(HttpHeaders.IF_NONE_MATCH, etag));
+
+        assertEquals(200, republished.getStatus());
+        assertNotEquals(etag, republished.getHeaderString(HttpHeaders.ETAG));
+    }
+}
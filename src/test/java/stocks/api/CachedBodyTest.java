@@ -0,0 +1,96 @@
+package stocks.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+class CachedBodyTest {
+
+    private static final byte[] JSON = "[{\"symbol\":\"AAPL\",\"price\":\"255.59\"}]".getBytes(StandardCharsets.UTF_8);
+
+    private static HttpHeaders headers(Map<String, String> values) {
+        return (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(),
+                new Class<?>[] {HttpHeaders.class},
+                (proxy, method, args) -> method.getName().equals("getHeaderString") ? values.get(args[0]) : null);
+    }
+
+    private static Response respond(CachedBody body, Map<String, String> requestHeaders) {
+        return body.respond(MediaType.APPLICATION_JSON, headers(requestHeaders));
+    }
+
+    private static String etag(CachedBody body, Map<String, String> requestHeaders) {
+        return respond(body, requestHeaders).getHeaderString(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void servesThePlainBytesWithoutGzipInAcceptEncoding() {
+        Response response = respond(CachedBody.of(JSON), Map.of(HttpHeaders.ACCEPT_ENCODING, "br, deflate"));
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(JSON, (byte[]) response.getEntity());
+        assertNull(response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaderString(HttpHeaders.VARY));
+    }
+
+    @Test
+    void servesTheGzipVariantUnderItsOwnETag() throws Exception {
+        CachedBody body = CachedBody.of(JSON);
+        Response response = respond(body, Map.of(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"));
+
+        assertEquals("gzip", response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) response.getEntity()))) {
+            assertArrayEquals(JSON, in.readAllBytes());
+        }
+        String identityTag = etag(body, Map.of());
+        assertNotEquals(identityTag, response.getHeaderString(HttpHeaders.ETAG));
+        assertTrue(response.getHeaderString(HttpHeaders.ETAG).endsWith("-gz\""));
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWith304() {
+        CachedBody body = CachedBody.of(JSON);
+        String identityTag = etag(body, Map.of());
+        String gzipTag = etag(body, Map.of(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        assertEquals(304, respond(body, Map.of(HttpHeaders.IF_NONE_MATCH, identityTag)).getStatus());
+        assertEquals(304, respond(body, Map.of(HttpHeaders.IF_NONE_MATCH, gzipTag)).getStatus());
+        // Weak comparison, as If-None-Match requires
+        assertEquals(304, respond(body, Map.of(HttpHeaders.IF_NONE_MATCH, "W/" + identityTag)).getStatus());
+        assertEquals(304, respond(body, Map.of(HttpHeaders.IF_NONE_MATCH, "\"other\", " + gzipTag)).getStatus());
+        assertEquals(304, respond(body, Map.of(HttpHeaders.IF_NONE_MATCH, "*")).getStatus());
+    }
+
+    @Test
+    void answersAnyOtherTagWithTheBody() {
+        CachedBody body = CachedBody.of(JSON);
+
+        Response response = respond(body, Map.of(HttpHeaders.IF_NONE_MATCH, "\"other\", W/\"stale\""));
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(JSON, (byte[]) response.getEntity());
+    }
+
+    @Test
+    void versionedTagsChangeWithTheVersion() {
+        String first = etag(CachedBody.of(JSON, "v1"), Map.of());
+        String second = etag(CachedBody.of(JSON, "v2"), Map.of());
+
+        assertTrue(first.startsWith("\"v1-"));
+        assertNotEquals(first, second);
+        assertEquals(200, respond(CachedBody.of(JSON, "v2"), Map.of(HttpHeaders.IF_NONE_MATCH, first)).getStatus());
+    }
+}
@@ -0,0 +1,119 @@
+package stocks.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.JsonJacksonCodec;
+import org.redisson.config.Config;
+import org.redisson.config.SingleServerConfig;
+
+import io.vertx.core.Vertx;
+import stocks.config.RedisConfig;
+
+class RedissonProducerTest {
+
+    private final Vertx vertx = Vertx.vertx();
+
+    @AfterEach
+    void close() {
+        vertx.close();
+    }
+
+    private RedissonProducer producer(String codec, boolean shareEventLoop) {
+        RedissonProducer producer = new RedissonProducer();
+        producer.vertx = vertx;
+        producer.redisConfig = new RedisConfig() {
+            @Override
+            public String getAddress() {
+                return "redis://cache:6380";
+            }
+
+            @Override
+            public String getPassword() {
+                return null;
+            }
+
+            @Override
+            public int getDatabase() {
+                return 2;
+            }
+
+            @Override
+            public int getConnectionPoolSize() {
+                return 24;
+            }
+
+            @Override
+            public int getConnectionMinimumIdleSize() {
+                return 4;
+            }
+
+            @Override
+            public int getSubscriptionConnectionPoolSize() {
+                return 3;
+            }
+
+            @Override
+            public int getTimeoutMillis() {
+                return 1500;
+            }
+
+            @Override
+            public String getCodec() {
+                return codec;
+            }
+
+            @Override
+            public boolean isShareEventLoop() {
+                return shareEventLoop;
+            }
+
+            @Override
+            public int getNettyThreads() {
+                return 8;
+            }
+
+            @Override
+            public int getThreads() {
+                return 4;
+            }
+        };
+        return producer;
+    }
+
+    @Test
+    void appliesTheConnectionSettings() {
+        Config config = producer("default", true).config();
+
+        SingleServerConfig server = config.useSingleServer();
+        assertEquals("redis://cache:6380", server.getAddress());
+        assertEquals(2, server.getDatabase());
+        assertEquals(24, server.getConnectionPoolSize());
+        assertEquals(4, server.getConnectionMinimumIdleSize());
+        assertEquals(3, server.getSubscriptionConnectionPoolSize());
+        assertEquals(1500, server.getTimeout());
+        assertEquals(4, config.getThreads());
+    }
+
+    @Test
+    void runsOnTheVertxEventLoopsWhenShared() {
+        assertSame(vertx.nettyEventLoopGroup(), producer("default", true).config().getEventLoopGroup());
+
+        Config ownLoops = producer("default", false).config();
+        assertNull(ownLoops.getEventLoopGroup());
+        assertEquals(8, ownLoops.getNettyThreads());
+    }
+
+    @Test
+    void selectsTheConfiguredCodec() {
+        assertInstanceOf(JsonJacksonCodec.class, producer("json", true).config().getCodec());
+        assertInstanceOf(StringCodec.class, producer("STRING", true).config().getCodec());
+        assertThrows(IllegalArgumentException.class, () -> producer("kryo4", true).config());
+    }
+}
@@ -0,0 +1,116 @@
+package stocks.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import stocks.models.StockData;
+import stocks.services.MarketSnapshots;
+
+class StocksApiTest {
+
+    private MarketSnapshots.Snapshot current;
+
+    private StocksApi api() {
+        StocksApi api = new StocksApi();
+        api.objectMapper = new ObjectMapper();
+        api.marketSnapshots = new MarketSnapshots() {
+            @Override
+            public Snapshot current(String category) {
+                return current;
+            }
+        };
+        return api;
+    }
+
+    private static HttpHeaders headers(Map<String, String> values) {
+        return (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(),
+                new Class<?>[] {HttpHeaders.class},
+                (proxy, method, args) -> method.getName().equals("getHeaderString") ? values.get(args[0]) : null);
+    }
+
+    private static String body(Response response) {
+        return new String((byte[]) response.getEntity(), StandardCharsets.UTF_8);
+    }
+
+    private static StockData stock(String symbol, String price) {
+        return new StockData(symbol, symbol + " Inc.", price, "+1.00", "+1.0%", "1M", "1M", "1B", "10.0");
+    }
+
+    private static List<String> symbols(List<StockData> stocks) {
+        return stocks.stream().map(StockData::getSymbol).collect(Collectors.toList());
+    }
+
+    @Test
+    void firstScrapeIsPublishedAsIs() {
+        List<StockData> fresh = List.of(stock("AAPL", "1"), stock("MSFT", "2"));
+
+        assertEquals(fresh, StocksApi.merge("gainers", fresh, null));
+    }
+
+    @Test
+    void symbolsThatDropOutAreNotCarriedOver() {
+        List<StockData> previous = new ArrayList<>(List.of(stock("AAPL", "1"), stock("MSFT", "2"), stock("NVDA", "3")));
+        List<StockData> fresh = List.of(stock("NVDA", "4"), stock("AMD", "5"), stock("AAPL", "6"));
+
+        List<StockData> merged = StocksApi.merge("gainers", fresh, previous);
+
+        // In scrape order, with fresh prices, and without MSFT
+        assertEquals(List.of("NVDA", "AMD", "AAPL"), symbols(merged));
+        assertEquals(List.of("4", "5", "6"), merged.stream().map(StockData::getPrice).collect(Collectors.toList()));
+        // The previous snapshot may be shared with readers, so it is left as it was
+        assertEquals(List.of("AAPL", "MSFT", "NVDA"), symbols(previous));
+        assertEquals("1", previous.get(0).getPrice());
+    }
+
+    @Test
+    void servesOneSerializedBodyPerSnapshotVersion() {
+        StocksApi api = api();
+        current = new MarketSnapshots.Snapshot(1, List.of(stock("AAPL", "1")), System.currentTimeMillis());
+        Response first = api.getGainers(null, headers(Map.of()));
+
+        // Same version: the stored bytes, even though this copy of the list differs
+        current = new MarketSnapshots.Snapshot(1, List.of(stock("AAPL", "2")), System.currentTimeMillis());
+        Response again = api.getGainers(null, headers(Map.of()));
+        assertSame(first.getEntity(), again.getEntity());
+        assertEquals(304, api.getGainers(null,
+                headers(Map.of(HttpHeaders.IF_NONE_MATCH, first.getHeaderString(HttpHeaders.ETAG)))).getStatus());
+
+        current = new MarketSnapshots.Snapshot(2, List.of(stock("AAPL", "3")), System.currentTimeMillis());
+        Response republished = api.getGainers(null, headers(Map.of()));
+        assertEquals(List.of("3"), prices(body(republished)));
+        assertNotEquals(first.getHeaderString(HttpHeaders.ETAG), republished.getHeaderString(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void filtersBySymbolFromTheSnapshot() {
+        current = new MarketSnapshots.Snapshot(1, List.of(stock("AAPL", "1"), stock("MSFT", "2")),
+                System.currentTimeMillis());
+
+        Response response = api().getGainers("MSFT", headers(Map.of()));
+
+        assertEquals(List.of("MSFT"), symbols((List<StockData>) response.getEntity()));
+    }
+
+    private static List<String> prices(String json) {
+        try {
+            return new ObjectMapper().readTree(json).findValuesAsText("price");
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BatchLoaderTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loadsKeysRequestedTogetherInOneBulkCall() {
+        List<Set<String>> calls = new ArrayList<>();
+        BatchLoader<String, String> loader = BatchLoader.bulk(keys -> {
+            synchronized (calls) {
+                calls.add(Set.copyOf(keys));
+            }
+            return keys.stream().collect(Collectors.toMap(Function.identity(), String::toLowerCase));
+        }, executor, 20);
+
+        CompletableFuture<String> aapl = loader.load("AAPL");
+        CompletableFuture<String> msft = loader.load("MSFT");
+        CompletableFuture<String> again = loader.load("AAPL");
+
+        assertEquals("aapl", aapl.join());
+        assertEquals("msft", msft.join());
+        assertSame(aapl, again);
+        assertEquals(List.of(Set.of("AAPL", "MSFT")), calls);
+    }
+
+    @Test
+    void memoizesAcrossBatches() {
+        AtomicInteger loads = new AtomicInteger();
+        BatchLoader<String, Integer> loader = BatchLoader.bulk(keys -> {
+            loads.incrementAndGet();
+            return keys.stream().collect(Collectors.toMap(Function.identity(), String::length));
+        }, executor, 1);
+
+        assertEquals(4, loader.load("AAPL").join());
+        assertEquals(4, loader.load("AAPL").join());
+        assertEquals(1, loads.get());
+
+        assertEquals(3, loader.load("AMD").join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void keysMissingFromTheBulkResultLoadAsNull() {
+        BatchLoader<String, String> loader = BatchLoader.bulk(keys -> Map.of("AAPL", "Apple"), executor, 5);
+
+        CompletableFuture<String> known = loader.load("AAPL");
+        CompletableFuture<String> unknown = loader.load("NOPE");
+
+        assertEquals("Apple", known.join());
+        assertNull(unknown.join());
+    }
+
+    @Test
+    void aFailedBulkCallFailsEveryKeyOfTheBatch() {
+        BatchLoader<String, String> loader = BatchLoader.bulk(keys -> {
+            throw new IllegalStateException("Redis down");
+        }, executor, 5);
+
+        CompletableFuture<String> aapl = loader.load("AAPL");
+        CompletableFuture<String> msft = loader.load("MSFT");
+
+        assertEquals("Redis down", assertThrows(CompletionException.class, aapl::join).getCause().getMessage());
+        assertEquals("Redis down", assertThrows(CompletionException.class, msft::join).getCause().getMessage());
+    }
+
+    @Test
+    void perKeyLoadsEachDistinctKeyOnceAndKeepsFailuresApart() {
+        AtomicInteger loads = new AtomicInteger();
+        BatchLoader<String, String> loader = BatchLoader.perKey(key -> {
+            loads.incrementAndGet();
+            if (key.equals("BAD")) {
+                throw new IllegalArgumentException("no such symbol");
+            }
+            return key + "!";
+        }, executor, 5);
+
+        CompletableFuture<String> aapl = loader.load("AAPL");
+        CompletableFuture<String> bad = loader.load("BAD");
+        CompletableFuture<String> twice = loader.load("AAPL");
+
+        assertEquals("AAPL!", aapl.join());
+        assertSame(aapl, twice);
+        assertThrows(CompletionException.class, bad::join);
+        assertEquals(2, loads.get());
+    }
+}
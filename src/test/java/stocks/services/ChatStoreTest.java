@@ -0,0 +1,125 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import stocks.models.ChatData;
+import stocks.models.ChatFeed;
+
+class ChatStoreTest {
+
+    private static final Instant T0 = Instant.parse("2024-12-03T14:30:00Z");
+
+    /** Conversation logs in memory, read the way ChatStore reads them from Redis. */
+    private final Map<String, List<ChatData>> logs = new LinkedHashMap<>();
+
+    private void append(String chatId, long second, String message) {
+        ChatData chat = new ChatData(chatId, "a@b.com", null, message, false);
+        chat.setTimestamp(T0.plusSeconds(second));
+        logs.computeIfAbsent(chatId, id -> new ArrayList<>()).add(chat);
+    }
+
+    private List<ChatStore.Tail> read(List<String> chatIds, int window) {
+        List<ChatStore.Tail> tails = new ArrayList<>();
+        for (String chatId : chatIds) {
+            List<ChatData> log = logs.get(chatId);
+            tails.add(new ChatStore.Tail(new ArrayList<>(log.subList(Math.max(0, log.size() - window), log.size())),
+                    log.size()));
+        }
+        return tails;
+    }
+
+    private ChatFeed page(String before, int limit) {
+        return ChatStore.feed(new ArrayList<>(logs.keySet()), ChatStore.FeedCursor.parse(before), limit, this::read);
+    }
+
+    private static List<String> messagesOf(ChatFeed feed) {
+        List<String> messages = new ArrayList<>();
+        feed.getMessages().forEach(chat -> messages.add(chat.getMessage()));
+        return messages;
+    }
+
+    @Test
+    void keepsPagingWhenAConversationHasMoreThanItsWindow() {
+        for (int i = 0; i < 10; i++) {
+            append("a:b", i, "m" + i);
+        }
+
+        ChatFeed first = page(null, 3);
+
+        assertEquals(List.of("m9", "m8", "m7"), messagesOf(first));
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of("m6", "m5", "m4"), messagesOf(page(first.getNextCursor(), 3)));
+    }
+
+    @Test
+    void pagesThroughEveryMessageOnceIncludingSharedTimestamps() {
+        // Messages in different conversations, and within one, share timestamps across page boundaries
+        for (int i = 0; i < 12; i++) {
+            append("a:b", i / 3, "ab" + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            append("a:c", i / 2, "ac" + i);
+        }
+        append("a:d", 1, "ad0");
+        append("a:d", 1, "ad1");
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ChatFeed feed = page(cursor, 4);
+            seen.addAll(messagesOf(feed));
+            cursor = feed.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 20);
+
+        // Newest first; equal timestamps by chatId, then by position, both descending
+        assertEquals(List.of(
+                "ab11", "ab10", "ab9",
+                "ac4", "ab8", "ab7", "ab6",
+                "ad1", "ad0", "ac3", "ac2", "ab5", "ab4", "ab3",
+                "ac1", "ac0", "ab2", "ab1", "ab0"), seen);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        append("a:b", 0, "m0");
+        append("a:c", 1, "m1");
+
+        ChatFeed feed = page(null, 2);
+
+        assertEquals(List.of("m1", "m0"), messagesOf(feed));
+        assertNull(feed.getNextCursor());
+    }
+
+    @Test
+    void bareInstantCursorsStillMeanStrictlyOlder() {
+        append("a:b", 0, "m0");
+        append("a:b", 1, "m1");
+        append("a:c", 1, "other");
+
+        ChatFeed feed = page(T0.plusSeconds(1).toString(), 10);
+
+        assertEquals(List.of("m0"), messagesOf(feed));
+    }
+
+    @Test
+    void mergesEachUsersConversationTailsNewestFirst() {
+        // Each tail is oldest first, as LRANGE returns a log's last messages
+        List<List<Integer>> tails = List.of(List.of(1, 4, 9), List.of(), List.of(2, 3, 8), List.of(7));
+
+        assertEquals(List.of(9, 8, 7, 4, 3), ChatStore.mergeNewestFirst(tails, 5, (a, b) -> b - a));
+        assertEquals(List.of(9, 8, 7, 4, 3, 2, 1), ChatStore.mergeNewestFirst(tails, 100, (a, b) -> b - a));
+        assertEquals(List.of(), ChatStore.mergeNewestFirst(List.of(List.<Integer>of()), 5, (a, b) -> b - a));
+    }
+}
@@ -0,0 +1,40 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import stocks.models.HistoricalStockData;
+
+class GameSettlementServiceTest {
+
+    private static HistoricalStockData row(String date, String close) {
+        return new HistoricalStockData(date, close, close, close, close, close, "1,000");
+    }
+
+    @Test
+    void usesTheEvaluationDaySessionWhenItTraded() {
+        List<HistoricalStockData> rows = List.of(row("Dec 27, 2024", "255.59"), row("Dec 26, 2024", "259.02"));
+
+        assertEquals("259.02", GameSettlementService.firstSession(rows, LocalDate.of(2024, 12, 26)).getClose());
+    }
+
+    @Test
+    void rollsAHolidayForwardToTheNextSession() {
+        // Christmas Day 2024: no row for the 25th, newest first as Yahoo lists them
+        List<HistoricalStockData> rows = List.of(row("Dec 27, 2024", "255.59"), row("Dec 26, 2024", "259.02"),
+                row("not a date", "1"));
+
+        assertEquals("Dec 26, 2024", GameSettlementService.firstSession(rows, LocalDate.of(2024, 12, 25)).getDate());
+    }
+
+    @Test
+    void returnsNullUntilASessionHasClosed() {
+        assertNull(GameSettlementService.firstSession(List.of(), LocalDate.of(2024, 12, 25)));
+        assertNull(GameSettlementService.firstSession(List.of(row("Dec 24, 2024", "258.20")), LocalDate.of(2024, 12, 25)));
+    }
+}
@@ -0,0 +1,117 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.config.Config;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import stocks.models.GameData;
+import stocks.storage.CompactRecordCodec;
+import stocks.storage.RecordCodecs;
+import stocks.storage.RecordFormat;
+
+/**
+ * Reads through the per-user game indexes against a real Redis: each user
+ * sees only their own games, newest first, and games that have expired are
+ * skipped.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class GameStoreTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static RedissonClient client;
+
+    private GameStore games;
+    private long now;
+
+    @BeforeAll
+    static void connect() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        client = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client.getKeys().flushall();
+        ObjectMapper objectMapper = new ObjectMapper();
+        Codec codec = new CompactRecordCodec<>(RecordFormat.GAME, client.getConfig().getCodec(), objectMapper,
+                objectMapper.constructType(GameData.class), true);
+        games = new GameStore();
+        games.redissonClient = client;
+        games.codecs = new RecordCodecs() {
+            @Override
+            public Codec games() {
+                return codec;
+            }
+        };
+        now = System.currentTimeMillis();
+    }
+
+    private void record(String email, long ageMillis) {
+        games.record(new GameData(String.valueOf(now - ageMillis), email, "AAPL", "UP", false, 0), LocalDate.now());
+    }
+
+    private static List<Long> ages(List<GameData> played, long now) {
+        return played.stream().map(game -> now - Long.parseLong(game.getGameId())).collect(Collectors.toList());
+    }
+
+    @Test
+    void eachUserGetsTheirOwnLatestGames() {
+        record("alice@example.com", 3_000);
+        record("alice@example.com", 1_000);
+        record("alice@example.com", 2_000);
+        record("bob@example.com", 5_000);
+
+        List<List<GameData>> latest = games.latestByUsers(
+                List.of("alice@example.com", "bob@example.com", "nobody@example.com"), 2);
+
+        assertEquals(List.of(1_000L, 2_000L), ages(latest.get(0), now));
+        assertEquals(List.of(5_000L), ages(latest.get(1), now));
+        assertEquals(List.of(), latest.get(2));
+    }
+
+    @Test
+    void skipsIndexedGamesThatHaveExpired() {
+        record("alice@example.com", 2_000);
+        record("alice@example.com", 1_000);
+        client.getMapCache(GameStore.GAMES_CACHE).fastRemove(String.valueOf(now - 1_000));
+
+        List<List<GameData>> latest = games.latestByUsers(List.of("alice@example.com"), 10);
+
+        assertEquals(List.of(2_000L), ages(latest.get(0), now));
+    }
+
+    @Test
+    void pagesThroughOneUsersHistory() {
+        for (int i = 1; i <= 5; i++) {
+            record("alice@example.com", i * 1_000L);
+        }
+
+        assertEquals(List.of(3_000L, 4_000L), ages(games.findByUser("alice@example.com", null, null, 2, 2), now));
+        assertEquals(List.of(2_000L, 3_000L),
+                ages(games.findByUser("alice@example.com", now - 3_500, now - 1_500, 0, 10), now));
+    }
+}
@@ -0,0 +1,28 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class HotSymbolsTest {
+
+    @Test
+    void acceptsTickerShapedSymbols() {
+        assertEquals("AAPL", HotSymbols.normalize("aapl"));
+        assertEquals("BRK-B", HotSymbols.normalize(" brk-b "));
+        assertEquals("^GSPC", HotSymbols.normalize("^GSPC"));
+        assertEquals("0700.HK", HotSymbols.normalize("0700.hk"));
+        assertEquals("EURUSD=X", HotSymbols.normalize("EURUSD=X"));
+    }
+
+    @Test
+    void rejectsAnythingElse() {
+        assertNull(HotSymbols.normalize(null));
+        assertNull(HotSymbols.normalize(""));
+        assertNull(HotSymbols.normalize("A".repeat(13)));
+        assertNull(HotSymbols.normalize("AAPL MSFT"));
+        assertNull(HotSymbols.normalize("<script>"));
+        assertNull(HotSymbols.normalize("AAPL/../x"));
+    }
+}
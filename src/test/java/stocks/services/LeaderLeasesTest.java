@@ -0,0 +1,118 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Two nodes competing for one lease against a real Redis, so the Lua scripts
+ * run as they do in production.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class LeaderLeasesTest {
+
+    private static final long TTL_MS = 300;
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static RedissonClient client;
+
+    @BeforeAll
+    static void connect() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        client = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.shutdown();
+    }
+
+    @BeforeEach
+    void emptyRedis() {
+        client.getKeys().flushall();
+    }
+
+    private static LeaderLeases node() {
+        LeaderLeases leases = new LeaderLeases();
+        leases.redissonClient = client;
+        leases.ttlMillis = TTL_MS;
+        return leases;
+    }
+
+    private static long remainingMillis(String name) {
+        return client.getBucket("lease:{" + name + "}", StringCodec.INSTANCE).remainTimeToLive();
+    }
+
+    @Test
+    void onlyOneNodeAcquires() {
+        LeaderLeases a = node();
+        LeaderLeases b = node();
+
+        long token = a.tryAcquire("markets");
+
+        assertTrue(token > 0);
+        assertEquals(0, b.tryAcquire("markets"));
+    }
+
+    @Test
+    void renewingKeepsTheTokenAndExtendsTheLease() throws Exception {
+        LeaderLeases a = node();
+        long token = a.tryAcquire("markets");
+        Thread.sleep(TTL_MS / 2);
+        long beforeRenewal = remainingMillis("markets");
+
+        assertEquals(token, a.tryAcquire("markets"));
+        assertTrue(remainingMillis("markets") > beforeRenewal);
+    }
+
+    @Test
+    void anotherNodeTakesOverWithAHigherTokenOnceTheLeaseExpires() throws Exception {
+        LeaderLeases a = node();
+        LeaderLeases b = node();
+        long first = a.tryAcquire("markets");
+
+        Thread.sleep(TTL_MS * 2);
+        long second = b.tryAcquire("markets");
+
+        assertTrue(second > first);
+        assertEquals(0, a.tryAcquire("markets"));
+    }
+
+    @Test
+    void onlyTheHolderCanRelease() {
+        LeaderLeases a = node();
+        LeaderLeases b = node();
+        a.tryAcquire("markets");
+
+        b.release("markets");
+        assertEquals(0, b.tryAcquire("markets"));
+
+        a.release("markets");
+        assertFalse(client.getBucket("lease:{markets}", StringCodec.INSTANCE).isExists());
+        assertTrue(b.tryAcquire("markets") > 0);
+    }
+
+    @Test
+    void leasesAreIndependentPerName() {
+        LeaderLeases a = node();
+        LeaderLeases b = node();
+
+        assertTrue(a.tryAcquire("markets") > 0);
+        assertTrue(b.tryAcquire("gainers") > 0);
+    }
+}
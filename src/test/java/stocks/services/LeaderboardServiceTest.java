@@ -0,0 +1,113 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import stocks.models.GameData;
+import stocks.models.LeaderboardEntry;
+import stocks.models.LeaderboardPeriod;
+
+/**
+ * Settled games feeding the boards against a real Redis: coin totals, the
+ * resulting order, and the per-period boards with their retention.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class LeaderboardServiceTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static RedissonClient client;
+
+    private LeaderboardService leaderboards;
+
+    @BeforeAll
+    static void connect() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        client = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client.getKeys().flushall();
+        leaderboards = new LeaderboardService();
+        leaderboards.redissonClient = client;
+    }
+
+    private static GameData game(long recordedAt, String email, int coins) {
+        return new GameData(String.valueOf(recordedAt), email, "AAPL", "UP", coins > 0, coins);
+    }
+
+    private void settle(List<GameData> games) {
+        RBatch batch = client.createBatch();
+        leaderboards.addSettledGames(batch, games);
+        batch.execute();
+    }
+
+    @Test
+    void totalsCoinsAndRanksByThem() {
+        long now = System.currentTimeMillis();
+        settle(List.of(game(now, "alice@example.com", 10), game(now + 1, "bob@example.com", 12),
+                game(now + 2, "carol@example.com", 0)));
+        settle(List.of(game(now + 3, "alice@example.com", 5)));
+
+        List<LeaderboardEntry> top = leaderboards.top(LeaderboardPeriod.ALL_TIME, 10);
+
+        assertEquals(List.of("alice@example.com", "bob@example.com"),
+                top.stream().map(LeaderboardEntry::getEmail).collect(Collectors.toList()));
+        assertEquals(List.of(15L, 12L), top.stream().map(LeaderboardEntry::getCoins).collect(Collectors.toList()));
+        assertEquals(List.of(1, 2), top.stream().map(LeaderboardEntry::getRank).collect(Collectors.toList()));
+
+        LeaderboardEntry bob = leaderboards.rankOf(LeaderboardPeriod.ALL_TIME, "bob@example.com");
+        assertEquals(2, bob.getRank());
+        assertEquals(12, bob.getCoins());
+        // Games that earned nothing leave no entry
+        assertNull(leaderboards.rankOf(LeaderboardPeriod.ALL_TIME, "carol@example.com"));
+    }
+
+    @Test
+    void periodBoardsFollowTheEvaluationDateAndExpire() {
+        // Recorded on a Saturday, so the game is evaluated on Monday's session
+        long saturday = ZonedDateTime.of(2024, 12, 28, 12, 0, 0, 0, ZoneId.of("America/New_York"))
+                .toInstant().toEpochMilli();
+        LocalDate monday = LocalDate.of(2024, 12, 30);
+        settle(List.of(game(saturday, "alice@example.com", 7), game(saturday + 1, "alice@example.com", 3)));
+
+        RScoredSortedSet<String> daily = client.getScoredSortedSet(
+                LeaderboardService.boardKey(LeaderboardPeriod.DAILY, monday));
+        RScoredSortedSet<String> weekly = client.getScoredSortedSet(
+                LeaderboardService.boardKey(LeaderboardPeriod.WEEKLY, monday));
+
+        assertEquals(10.0, daily.getScore("alice@example.com"));
+        assertEquals(10.0, weekly.getScore("alice@example.com"));
+        assertTrue(daily.remainTimeToLive() > TimeUnit.DAYS.toMillis(7));
+        assertTrue(weekly.remainTimeToLive() > TimeUnit.DAYS.toMillis(34));
+    }
+}
@@ -0,0 +1,51 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LogSamplerTest {
+
+    @Test
+    void letsTheFirstEventsOfAWindowThroughAndCountsTheRest() {
+        LogSampler sampler = new LogSampler(2, 1, TimeUnit.HOURS);
+
+        assertTrue(sampler.sample());
+        assertTrue(sampler.sample());
+        assertFalse(sampler.sample());
+        assertFalse(sampler.sample());
+
+        assertEquals(2, sampler.drainSuppressed());
+    }
+
+    @Test
+    void drainingResetsTheSuppressedCount() {
+        LogSampler sampler = new LogSampler(0, 1, TimeUnit.HOURS);
+        sampler.sample();
+        sampler.sample();
+
+        assertEquals(2, sampler.drainSuppressed());
+        assertEquals(0, sampler.drainSuppressed());
+
+        sampler.sample();
+        assertEquals(1, sampler.drainSuppressed());
+    }
+
+    @Test
+    void aNewWindowStartsCountingAgain() throws Exception {
+        LogSampler sampler = new LogSampler(1, 50, TimeUnit.MILLISECONDS);
+        assertTrue(sampler.sample());
+        assertFalse(sampler.sample());
+
+        Thread.sleep(80);
+
+        assertTrue(sampler.sample());
+        assertFalse(sampler.sample());
+        // Suppressed events are kept across windows until drained
+        assertEquals(2, sampler.drainSuppressed());
+    }
+}
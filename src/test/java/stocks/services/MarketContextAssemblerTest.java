@@ -0,0 +1,48 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import stocks.models.CompanyProfile;
+
+class MarketContextAssemblerTest {
+
+    private static final String HISTORY = "[{\"date\":\"2024-12-27\",\"close\":255.59},{\"date\":\"2024-12-26\",\"close\":259.02}]";
+
+    private MarketContextAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        assembler = new MarketContextAssembler();
+        assembler.objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    void rendersEveryCachedPart() {
+        String section = assembler.section("AAPL", new CompanyProfile("Apple", "Designs phones."),
+                "{\"previousClose\":254.49,\"peRatio\":41.2}", HISTORY,
+                "{\"predictedClosingPrice\":260.5,\"predictedChange\":1.9,\"lastKnownDate\":\"2024-12-27\"}");
+
+        assertEquals("AAPL: Apple. Designs phones. prev close 254.49, P/E 41.2, "
+                + "recent closes: 2024-12-27 255.59; 2024-12-26 259.02; "
+                + "model predicts close 260.50 (+1.90%) after 2024-12-27.", section);
+    }
+
+    @Test
+    void anUnreadableValueOnlyDropsItsOwnPart() {
+        String section = assembler.section("AAPL", null, "{\"previousClose\":", HISTORY, "not json");
+
+        assertEquals("AAPL: recent closes: 2024-12-27 255.59; 2024-12-26 259.02;", section);
+    }
+
+    @Test
+    void nothingUsableIsNoSection() {
+        assertNull(assembler.section("AAPL", null, null, null, null));
+        assertNull(assembler.section("AAPL", null, "[", null, null));
+    }
+}
@@ -0,0 +1,112 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import stocks.models.StockData;
+
+/**
+ * Fenced publishing against a real Redis: a write carrying an older lease
+ * token than the last accepted one must not replace the newer list.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MarketSnapshotsTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static RedissonClient client;
+
+    private MarketSnapshots snapshots;
+
+    @BeforeAll
+    static void connect() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        client = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client.getKeys().flushall();
+        CacheBatches batches = new CacheBatches();
+        batches.redissonClient = client;
+        batches.pipeline = true;
+        snapshots = new MarketSnapshots();
+        snapshots.cacheBatches = batches;
+        snapshots.redissonClient = client;
+        snapshots.objectMapper = new ObjectMapper();
+        snapshots.localTtlMillis = 0;
+        snapshots.init();
+    }
+
+    private static List<StockData> list(String symbol, String price) {
+        StockData stock = new StockData();
+        stock.setSymbol(symbol);
+        stock.setPrice(price);
+        return List.of(stock);
+    }
+
+    private String publishedPrice(String category) {
+        return snapshots.readAll(List.of(category)).get(category).stocks().get(0).getPrice();
+    }
+
+    @Test
+    void acceptsTheCurrentAndNewerTokens() throws Exception {
+        assertTrue(snapshots.publishAll(Map.of("most-active", list("AAPL", "1")), Map.of("most-active", 1L)).isEmpty());
+        long first = snapshots.readAll(List.of("most-active")).get("most-active").version();
+
+        // The same leader renews and republishes under its token; a successor has a higher one
+        assertTrue(snapshots.publishAll(Map.of("most-active", list("AAPL", "2")), Map.of("most-active", 1L)).isEmpty());
+        assertTrue(snapshots.publishAll(Map.of("most-active", list("AAPL", "3")), Map.of("most-active", 2L)).isEmpty());
+
+        MarketSnapshots.Snapshot latest = snapshots.readAll(List.of("most-active")).get("most-active");
+        assertEquals("3", latest.stocks().get(0).getPrice());
+        assertEquals(first + 2, latest.version());
+    }
+
+    @Test
+    void rejectsAStaleToken() throws Exception {
+        snapshots.publishAll(Map.of("most-active", list("AAPL", "new")), Map.of("most-active", 5L));
+
+        List<String> fenced = snapshots.publishAll(Map.of("most-active", list("AAPL", "stale")),
+                Map.of("most-active", 4L));
+
+        assertEquals(List.of("most-active"), fenced);
+        assertEquals("new", publishedPrice("most-active"));
+    }
+
+    @Test
+    void fencesEachCategoryOnItsOwn() throws Exception {
+        snapshots.publishAll(Map.of("gainers", list("NVDA", "new")), Map.of("gainers", 3L));
+
+        List<String> fenced = snapshots.publishAll(
+                Map.of("gainers", list("NVDA", "stale"), "losers", list("INTC", "first")),
+                Map.of("gainers", 2L, "losers", 1L));
+
+        assertEquals(List.of("gainers"), fenced);
+        assertEquals("new", publishedPrice("gainers"));
+        assertEquals("first", publishedPrice("losers"));
+    }
+}
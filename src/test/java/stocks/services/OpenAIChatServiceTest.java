@@ -0,0 +1,123 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import stocks.models.ChatData;
+
+class OpenAIChatServiceTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String chunk : List.of(
+                        "{\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}",
+                        "{\"choices\":[{\"delta\":{\"content\":\"Hello\"}}]}",
+                        "{\"choices\":[{\"delta\":{\"content\":\", world\"}}]}",
+                        "{\"choices\":[{\"delta\":{},\"finish_reason\":\"stop\"}]}")) {
+                    out.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/broken", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    private OpenAIChatService service(String path, int maxMessages, int maxChars) {
+        String endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + path;
+        return new OpenAIChatService(endpoint, null, "test-model", maxMessages, maxChars,
+                Duration.ofSeconds(5), new ObjectMapper());
+    }
+
+    @Test
+    void streamsFragmentsInOrderAndSendsBoundedHistory() throws Exception {
+        List<ChatData> history = new ArrayList<>();
+        // As ChatApi.sendMessage stores them: the user's messages to the AI are flagged isAI too
+        for (int i = 0; i < 5; i++) {
+            history.add(new ChatData("AI:a@b.com", "a@b.com", "AI", "question " + i, true));
+        }
+
+        List<String> fragments = service("/v1/chat/completions", 2, 1000)
+                .streamResponse("latest", history)
+                .collect().asList()
+                .await().atMost(Duration.ofSeconds(5));
+
+        assertEquals(List.of("Hello", ", world"), fragments);
+        String body = requestBody.get();
+        assertTrue(body.contains("\"stream\":true"));
+        assertTrue(body.contains("question 3") && body.contains("question 4"));
+        assertTrue(!body.contains("question 2"));
+    }
+
+    @Test
+    void rolesFollowTheSenderNotTheAiFlag() throws Exception {
+        List<ChatData> history = List.of(
+                new ChatData("AI:a@b.com", "a@b.com", "AI", "Should I buy?", true),
+                new ChatData("AI:a@b.com", "AI", "a@b.com", "Maybe.", true));
+
+        service("/v1/chat/completions", 10, 1000)
+                .streamResponse("Why?", history)
+                .collect().asList()
+                .await().atMost(Duration.ofSeconds(5));
+
+        List<String> roles = new ArrayList<>();
+        new ObjectMapper().readTree(requestBody.get()).get("messages")
+                .forEach(message -> roles.add(message.get("role").asText()));
+        assertEquals(List.of("system", "user", "assistant", "user"), roles);
+    }
+
+    @Test
+    void historyRespectsCharacterBudget() {
+        List<ChatData> history = List.of(
+                new ChatData("c", "a", "AI", "x".repeat(50), true),
+                new ChatData("c", "AI", "a", "y".repeat(30), true),
+                new ChatData("c", "a", "AI", "z".repeat(30), true));
+
+        List<ChatData> kept = service("/v1/chat/completions", 10, 70).promptHistory(history);
+
+        assertEquals(2, kept.size());
+        assertEquals("y".repeat(30), kept.get(0).getMessage());
+    }
+
+    @Test
+    void failsOnErrorStatus() {
+        assertThrows(Exception.class, () -> service("/broken", 5, 1000)
+                .streamResponse("hi", List.of())
+                .collect().asList()
+                .await().atMost(Duration.ofSeconds(5)));
+    }
+}
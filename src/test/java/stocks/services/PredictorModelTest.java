@@ -0,0 +1,69 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+class PredictorModelTest {
+
+    @Test
+    void parsesHistoricalDataIntoChronologicalBars() throws Exception {
+        String json = """
+            {"data":{"historicalData":[
+              {"date":"Dec 19, 2024","open":"1,234.50","close":"1,240.25","high":"1,250.00","low":"1,230.10","volume":"12,345,678"},
+              {"date":"Dec 18, 2024","open":"1,200.00","close":"1,233.75","high":"1,236.00","low":"1,199.00","volume":"9,876,543"}
+            ]}}""";
+
+        HistoricalBars bars = PredictorModel.parseBars(json);
+        bars.sortByDate();
+
+        assertEquals(2, bars.size());
+        assertEquals(LocalDate.of(2024, 12, 18), bars.date(0));
+        assertEquals(1200.00, bars.open(0));
+        assertEquals(1240.25, bars.close(1));
+        assertEquals(12345678d, bars.volume(1));
+    }
+
+    @Test
+    void toleratesEscapesUnknownFieldsAndBadRows() throws Exception {
+        String json = """
+            {"extensions":{"note":"a \\"quoted\\" ] } value"},
+             "data":{"other":[{"x":"]"}],"historicalData":[
+              {"date":"Jan 2, 2024","open":1.5,"close":2,"high":"3.25","low":"1","volume":"100","adjClose":{"nested":[1,2]}},
+              {"date":"Jan 3, 2024","open":"--","close":"2","high":"3","low":"1","volume":"100"},
+              {"date":"not a date","open":"1","close":"2","high":"3","low":"1","volume":"100"}
+            ]}}""";
+
+        HistoricalBars bars = PredictorModel.parseBars(json);
+
+        assertEquals(1, bars.size());
+        assertEquals(LocalDate.of(2024, 1, 2), bars.date(0));
+        assertEquals(1.5, bars.open(0));
+        assertEquals(3.25, bars.high(0));
+    }
+
+    @Test
+    void skipsRowsWithNonScalarDates() throws Exception {
+        String json = """
+            {"data":{"historicalData":[
+              {"date":{"raw":"Jan 2, 2024","parts":[1,2]},"open":"1","close":"2","high":"3","low":"1","volume":"100"},
+              {"date":["Jan 3, 2024"],"open":"1","close":"2","high":"3","low":"1","volume":"100"},
+              {"date":"Jan 4, 2024","open":"4","close":"5","high":"6","low":"3","volume":"200"}
+            ]}}""";
+
+        HistoricalBars bars = PredictorModel.parseBars(json);
+
+        assertEquals(1, bars.size());
+        assertEquals(LocalDate.of(2024, 1, 4), bars.date(0));
+        assertEquals(5, bars.close(0));
+    }
+
+    @Test
+    void returnsEmptyForErrorResponses() throws Exception {
+        assertTrue(PredictorModel.parseBars("{\"errors\":[{\"message\":\"boom\"}],\"data\":null}").isEmpty());
+        assertTrue(PredictorModel.parseResponse("{\"data\":{\"historicalData\":[]}}").isEmpty());
+    }
+}
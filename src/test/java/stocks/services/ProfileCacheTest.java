@@ -0,0 +1,136 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import stocks.models.CompanyProfile;
+import stocks.storage.ProfileStore;
+
+/**
+ * The in-process tier against a real Redis: a replica keeps serving its own
+ * copy of a profile until another replica announces a change on the topic.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ProfileCacheTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static RedissonClient client;
+
+    private final Map<String, CompanyProfile> stored = new ConcurrentHashMap<>();
+
+    @BeforeAll
+    static void connect() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        client = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.shutdown();
+    }
+
+    @BeforeEach
+    void emptyRedis() {
+        client.getKeys().flushall();
+        stored.clear();
+    }
+
+    private ProfileCache replica() {
+        ProfileCache cache = new ProfileCache();
+        cache.redissonClient = client;
+        cache.objectMapper = new ObjectMapper();
+        cache.store = new ProfileStore() {
+            @Override
+            public CompletableFuture<CompanyProfile> find(String symbol) {
+                return CompletableFuture.completedFuture(stored.get(symbol));
+            }
+
+            @Override
+            public CompletableFuture<Void> upload(String symbol, CompanyProfile profile) {
+                stored.put(symbol, profile);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        cache.l1Size = 100;
+        cache.init();
+        return cache;
+    }
+
+    private static RMapCache<String, CompanyProfile> l2() {
+        return client.getMapCache(ProfileCache.COMPANY_PROFILES);
+    }
+
+    private static String nameOf(ProfileCache cache, String symbol) {
+        return cache.get(symbol).toCompletableFuture().join().getName();
+    }
+
+    @Test
+    void servesTheLocalCopyUntilAChangeIsAnnounced() throws Exception {
+        ProfileCache replica = replica();
+        l2().fastPut(ProfileCache.cacheKey("AAPL"), new CompanyProfile("Apple", "Old description"));
+        assertEquals("Apple", nameOf(replica, "aapl"));
+
+        // Another replica rewrites Redis: this one still answers from memory
+        l2().fastPut(ProfileCache.cacheKey("AAPL"), new CompanyProfile("Apple Inc.", "New description"));
+        assertEquals("Apple", nameOf(replica, "AAPL"));
+
+        client.getTopic(ProfileCache.CHANGED_TOPIC).publish("AAPL");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!"Apple Inc.".equals(nameOf(replica, "AAPL")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("Apple Inc.", nameOf(replica, "AAPL"));
+    }
+
+    @Test
+    void aChangeOnlyDropsTheAnnouncedSymbol() throws Exception {
+        ProfileCache replica = replica();
+        l2().fastPut(ProfileCache.cacheKey("AAPL"), new CompanyProfile("Apple", "Phones"));
+        l2().fastPut(ProfileCache.cacheKey("MSFT"), new CompanyProfile("Microsoft", "Software"));
+        nameOf(replica, "AAPL");
+        nameOf(replica, "MSFT");
+        l2().fastPut(ProfileCache.cacheKey("AAPL"), new CompanyProfile("Apple Inc.", "Phones"));
+        l2().fastPut(ProfileCache.cacheKey("MSFT"), new CompanyProfile("Microsoft Corp.", "Software"));
+
+        client.getTopic(ProfileCache.CHANGED_TOPIC).publish("AAPL");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!"Apple Inc.".equals(nameOf(replica, "AAPL")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals("Apple Inc.", nameOf(replica, "AAPL"));
+        assertEquals("Microsoft", nameOf(replica, "MSFT"));
+    }
+
+    @Test
+    void fallsThroughToTheStoreAndKeepsTheResult() {
+        ProfileCache replica = replica();
+        stored.put("NVDA", new CompanyProfile("NVIDIA", "Chips"));
+        assertEquals("NVIDIA", nameOf(replica, "nvda"));
+
+        stored.clear();
+
+        assertEquals("NVIDIA", nameOf(replica, "NVDA"));
+    }
+}
@@ -0,0 +1,67 @@
+package stocks.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The meters are registered in the global registry at class load; a registry
+ * added to it afterwards, as Quarkus does with Prometheus, sees everything
+ * recorded from then on.
+ */
+class StocksMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void bind() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void unbind() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    private double cacheRequests(String cache, String result) {
+        return registry.get("stocks.cache.requests").tags("cache", cache, "result", result).counter().count();
+    }
+
+    @Test
+    void countsCacheHitsAndMissesPerTier() {
+        StocksMetrics.PROFILES_L1.record(true);
+        StocksMetrics.PROFILES_L1.record(true);
+        StocksMetrics.PROFILES_L1.record(false);
+
+        assertEquals(2, cacheRequests("profiles-l1", "hit"));
+        assertEquals(1, cacheRequests("profiles-l1", "miss"));
+        assertEquals(0, cacheRequests("profiles-l2", "hit"));
+    }
+
+    @Test
+    void countsErrorsPerUpstream() {
+        StocksMetrics.YAHOO_QUOTE.errors.increment();
+
+        assertEquals(1, registry.get("stocks.upstream.errors").tag("upstream", "yahoo-quote").counter().count());
+        assertEquals(0, registry.get("stocks.upstream.errors").tag("upstream", "yahoo-history").counter().count());
+    }
+
+    @Test
+    void recordsTheTimeSinceTheGivenStart() {
+        StocksMetrics.recordSince(StocksMetrics.WARMUP, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(50));
+
+        Timer warmup = registry.get("stocks.warmup").timer();
+        assertEquals(1, warmup.count());
+        assertTrue(warmup.totalTime(TimeUnit.MILLISECONDS) >= 50);
+    }
+}
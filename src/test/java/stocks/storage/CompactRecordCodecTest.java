@@ -0,0 +1,133 @@
+package stocks.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.JsonJacksonCodec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.netty.buffer.ByteBuf;
+import stocks.models.ChatData;
+import stocks.models.GameData;
+
+/**
+ * Values written before the compact format existed are JSON text stored
+ * through the client's codec; they must keep decoding next to compact ones.
+ */
+class CompactRecordCodecTest {
+
+    // Configured like the Quarkus ObjectMapper the legacy values were written with
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final String LEGACY_GAME =
+            "{\"gameId\":\"1700000000000\",\"email\":\"a@b.com\",\"symbol\":\"AAPL\","
+            + "\"userPrediction\":\"189.50\",\"won\":true,\"coinsEarned\":200}";
+
+    private static final String LEGACY_CONVERSATION =
+            "[{\"chatId\":\"AI:a@b.com\",\"senderEmail\":\"a@b.com\",\"recipientEmail\":\"AI\","
+            + "\"message\":\"Should I buy?\",\"ai\":true,\"timestamp\":\"2023-11-14T22:13:20Z\"},"
+            + "{\"chatId\":\"AI:a@b.com\",\"senderEmail\":\"AI\",\"recipientEmail\":\"a@b.com\","
+            + "\"message\":\"Maybe.\",\"ai\":true,\"timestamp\":\"2023-11-14T22:13:25.5Z\"}]";
+
+    private static CompactRecordCodec<GameData> games(Codec legacy, boolean writeCompact) {
+        return new CompactRecordCodec<>(RecordFormat.GAME, legacy, MAPPER, MAPPER.constructType(GameData.class),
+                writeCompact);
+    }
+
+    private static CompactRecordCodec<List<ChatData>> conversations(Codec legacy) {
+        return new CompactRecordCodec<>(RecordFormat.listOf(RecordFormat.CHAT), legacy, MAPPER,
+                MAPPER.getTypeFactory().constructCollectionType(List.class, ChatData.class), true);
+    }
+
+    /** What the previous code stored: the JSON text, encoded by the client's codec. */
+    private static ByteBuf legacyValue(Codec legacy, String json) throws Exception {
+        return legacy.getMapValueEncoder().encode(json);
+    }
+
+    private static void assertLegacyGame(GameData game) {
+        assertEquals("1700000000000", game.getGameId());
+        assertEquals("a@b.com", game.getEmail());
+        assertEquals("AAPL", game.getSymbol());
+        assertEquals("189.50", game.getUserPrediction());
+        assertTrue(game.isWon());
+        assertEquals(200, game.getCoinsEarned());
+    }
+
+    @Test
+    void decodesLegacyJsonStoredAsPlainStrings() throws Exception {
+        Codec legacy = StringCodec.INSTANCE;
+
+        Object map = games(legacy, true).getMapValueDecoder().decode(legacyValue(legacy, LEGACY_GAME), null);
+        Object bucket = games(legacy, true).getValueDecoder().decode(legacyValue(legacy, LEGACY_GAME), null);
+
+        assertLegacyGame((GameData) map);
+        assertLegacyGame((GameData) bucket);
+    }
+
+    @Test
+    void decodesLegacyJsonStoredThroughAJsonCodec() throws Exception {
+        Codec legacy = new JsonJacksonCodec();
+
+        Object decoded = games(legacy, true).getMapValueDecoder().decode(legacyValue(legacy, LEGACY_GAME), null);
+
+        assertLegacyGame((GameData) decoded);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void decodesLegacyConversations() throws Exception {
+        Codec legacy = StringCodec.INSTANCE;
+
+        List<ChatData> conversation = (List<ChatData>) conversations(legacy).getMapValueDecoder()
+                .decode(legacyValue(legacy, LEGACY_CONVERSATION), null);
+
+        assertEquals(2, conversation.size());
+        assertEquals("Should I buy?", conversation.get(0).getMessage());
+        assertTrue(conversation.get(0).isAI());
+        assertEquals(Instant.parse("2023-11-14T22:13:25.5Z"), conversation.get(1).getTimestamp());
+    }
+
+    @Test
+    void compactValuesRoundTripAndStartWithTheMagicPrefix() throws Exception {
+        CompactRecordCodec<GameData> codec = games(StringCodec.INSTANCE, true);
+        GameData game = new GameData("1700000000001", "c@d.com", "MSFT", "down", false, -10);
+
+        ByteBuf encoded = codec.getMapValueEncoder().encode(game);
+        assertEquals(CompactRecordCodec.MAGIC_0, encoded.getByte(0));
+        assertEquals(CompactRecordCodec.MAGIC_1, encoded.getByte(1));
+        GameData decoded = (GameData) codec.getMapValueDecoder().decode(encoded, null);
+
+        assertEquals("1700000000001", decoded.getGameId());
+        assertFalse(decoded.isWon());
+        assertEquals(-10, decoded.getCoinsEarned());
+        assertEquals(0, encoded.readableBytes());
+    }
+
+    @Test
+    void jsonWriteModeStaysReadableByBothCodecs() throws Exception {
+        Codec legacy = StringCodec.INSTANCE;
+        GameData game = new GameData("1700000000002", "e@f.com", "NVDA", "up", true, 100);
+
+        ByteBuf encoded = games(legacy, false).getMapValueEncoder().encode(game);
+        String text = (String) legacy.getMapValueDecoder().decode(encoded.duplicate(), null);
+        GameData decoded = (GameData) games(legacy, true).getMapValueDecoder().decode(encoded, null);
+
+        assertEquals("NVDA", MAPPER.readValue(text, GameData.class).getSymbol());
+        assertEquals(100, decoded.getCoinsEarned());
+        assertEquals("up", decoded.getUserPrediction());
+    }
+}
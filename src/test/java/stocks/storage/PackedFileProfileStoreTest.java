@@ -0,0 +1,151 @@
+package stocks.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import stocks.models.CompanyProfile;
+
+class PackedFileProfileStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void newestRecordWinsAcrossReopen() throws Exception {
+        Path file = dir.resolve("profiles.pack");
+        PackedFileProfileStore store = new PackedFileProfileStore(file, objectMapper);
+        store.upload("aapl", new CompanyProfile("Apple", "old")).join();
+        store.upload("MSFT", new CompanyProfile("Microsoft", "software")).join();
+        store.upload("AAPL", new CompanyProfile("Apple", "new")).join();
+        store.close();
+
+        PackedFileProfileStore reopened = new PackedFileProfileStore(file, objectMapper);
+
+        assertEquals("new", reopened.find("AAPL").join().getDescription());
+        assertEquals("Microsoft", reopened.find("msft").join().getName());
+        assertNull(reopened.find("TSLA").join());
+        assertEquals(2, reopened.preload().size());
+    }
+
+    @Test
+    void incompleteTrailingRecordIsDropped() throws Exception {
+        Path file = dir.resolve("profiles.pack");
+        PackedFileProfileStore store = new PackedFileProfileStore(file, objectMapper);
+        store.upload("AAPL", new CompanyProfile("Apple", "phones")).join();
+        store.close();
+        long complete = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // symbol length 4, "MSFT", then a JSON length with no JSON behind it
+            channel.write(ByteBuffer.allocate(12).putInt(4).put("MSFT".getBytes()).putInt(100).flip());
+        }
+
+        PackedFileProfileStore reopened = new PackedFileProfileStore(file, objectMapper);
+
+        assertEquals(complete, reopened.size());
+        assertEquals("phones", reopened.find("AAPL").join().getDescription());
+        assertNull(reopened.find("MSFT").join());
+        reopened.close();
+        assertEquals(complete, Files.size(file));
+    }
+
+    @Test
+    void compactionKeepsOnlyNewestRecords() throws Exception {
+        Path file = dir.resolve("profiles.pack");
+        PackedFileProfileStore store = new PackedFileProfileStore(file, objectMapper);
+        for (int i = 0; i < 100; i++) {
+            store.upload("AAPL", new CompanyProfile("Apple", "version " + i)).join();
+        }
+        store.upload("MSFT", new CompanyProfile("Microsoft", "software")).join();
+        long before = store.size();
+
+        store.compact();
+
+        assertTrue(store.size() < before / 10);
+        Map<String, CompanyProfile> all = store.preload();
+        assertEquals(2, all.size());
+        assertEquals("version 99", all.get("AAPL").getDescription());
+        assertEquals("version 99", new PackedFileProfileStore(file, objectMapper).find("AAPL").join().getDescription());
+    }
+
+    @Test
+    void appendsWithinTheHeadroomDoNotGrowTheFile() throws Exception {
+        Path file = dir.resolve("profiles.pack");
+        PackedFileProfileStore store = new PackedFileProfileStore(file, objectMapper);
+        long mapped = Files.size(file);
+
+        for (int i = 0; i < 100; i++) {
+            store.upload("SYM" + i, new CompanyProfile("Company " + i, "description")).join();
+        }
+
+        assertEquals(mapped, Files.size(file));
+        assertEquals("Company 42", store.find("SYM42").join().getName());
+        store.close();
+        assertEquals(store.size(), Files.size(file));
+    }
+
+    @Test
+    void outgrowingTheMappingRemapsWithoutLosingRecords() throws Exception {
+        Path file = dir.resolve("profiles.pack");
+        PackedFileProfileStore store = new PackedFileProfileStore(file, objectMapper);
+        long mapped = Files.size(file);
+        String description = "x".repeat(64 * 1024);
+
+        for (int i = 0; i < 40; i++) {
+            store.upload("SYM" + i, new CompanyProfile("Company " + i, description)).join();
+        }
+
+        assertTrue(Files.size(file) > mapped);
+        assertEquals(40, store.preload().size());
+        assertEquals("Company 0", store.find("SYM0").join().getName());
+    }
+
+    @Test
+    void storeThatWasNotClosedReopensWithoutItsHeadroom() throws Exception {
+        Path file = dir.resolve("profiles.pack");
+        PackedFileProfileStore crashed = new PackedFileProfileStore(file, objectMapper);
+        crashed.upload("AAPL", new CompanyProfile("Apple", "phones")).join();
+        crashed.upload("MSFT", new CompanyProfile("Microsoft", "software")).join();
+
+        PackedFileProfileStore reopened = new PackedFileProfileStore(file, objectMapper);
+
+        assertEquals(crashed.size(), reopened.size());
+        assertEquals(2, reopened.preload().size());
+        reopened.upload("NVDA", new CompanyProfile("Nvidia", "chips")).join();
+        assertEquals("chips", reopened.find("NVDA").join().getDescription());
+    }
+
+    @Test
+    void failedCompactionLeavesTheStoreUsable() throws Exception {
+        Path file = dir.resolve("profiles.pack");
+        PackedFileProfileStore store = new PackedFileProfileStore(file, objectMapper);
+        store.upload("AAPL", new CompanyProfile("Apple", "old")).join();
+        store.upload("AAPL", new CompanyProfile("Apple", "new")).join();
+        // A directory where the compacted file would go makes compaction fail
+        Files.createDirectories(dir.resolve("profiles.pack.compacting").resolve("blocked"));
+
+        assertThrows(IOException.class, store::compact);
+
+        store.upload("MSFT", new CompanyProfile("Microsoft", "software")).join();
+        assertEquals("new", store.find("AAPL").join().getDescription());
+        assertEquals("software", store.find("MSFT").join().getDescription());
+        store.close();
+        assertEquals("software", new PackedFileProfileStore(file, objectMapper).find("MSFT").join().getDescription());
+    }
+}
@@ -0,0 +1,113 @@
+package stocks.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.azure.core.util.BinaryData;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import stocks.models.CompanyProfile;
+
+/**
+ * The gateway against Azurite: streamed reads, a missing blob as "no
+ * profile", and failures that must not be mistaken for one.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ProfileBlobGatewayTest {
+
+    // Azurite's well-known development account
+    private static final String ACCOUNT_KEY =
+            "Eby8vdM02xNOcqFlqUwJPLlmEtlCDXJ1OUzFT50uSRZ6IFsuFq2UVErCz4I6tq/K1SZFPTOtr/KBHBeksoGMGw==";
+
+    @Container
+    static final GenericContainer<?> azurite = new GenericContainer<>("mcr.microsoft.com/azure-storage/azurite")
+            .withCommand("azurite-blob", "--blobHost", "0.0.0.0")
+            .withExposedPorts(10000);
+
+    private ProfileBlobGateway gateway;
+
+    private static String connectionString() {
+        return "DefaultEndpointsProtocol=http;AccountName=devstoreaccount1;AccountKey=" + ACCOUNT_KEY
+                + ";BlobEndpoint=http://" + azurite.getHost() + ":" + azurite.getMappedPort(10000) + "/devstoreaccount1;";
+    }
+
+    private static ProfileBlobGateway gateway(String containerName) {
+        ProfileBlobGateway gateway = new ProfileBlobGateway();
+        gateway.connectionString = Optional.of(connectionString());
+        gateway.sasUrl = Optional.empty();
+        gateway.containerName = containerName;
+        gateway.objectMapper = new ObjectMapper();
+        gateway.init();
+        return gateway;
+    }
+
+    private static BlobContainerClient container(String containerName) {
+        return new BlobContainerClientBuilder().connectionString(connectionString()).containerName(containerName)
+                .buildClient();
+    }
+
+    @BeforeEach
+    void setUp() {
+        gateway = gateway("companydetails");
+    }
+
+    @Test
+    void uploadedProfilesReadBack() {
+        gateway.upload("aapl", new CompanyProfile("Apple", "Designs phones. ".repeat(20_000))).join();
+
+        CompanyProfile found = gateway.find("AAPL").join();
+
+        assertEquals("Apple", found.getName());
+        assertEquals("Designs phones. ".repeat(20_000), found.getDescription());
+    }
+
+    @Test
+    void missingBlobIsNoProfile() {
+        assertNull(gateway.find("NOPE").join());
+    }
+
+    @Test
+    void missingContainerIsAnError() {
+        // init() creates the container on an emulator, so remove it afterwards
+        ProfileBlobGateway misconfigured = gateway("companydetails-gone");
+        container("companydetails-gone").delete();
+
+        CompletionException failure = assertThrows(CompletionException.class, () -> misconfigured.find("AAPL").join());
+
+        assertInstanceOf(BlobStorageException.class, failure.getCause());
+    }
+
+    @Test
+    void unreadableBlobIsAnError() {
+        container("companydetails").getBlobClient(ProfileBlobGateway.blobName("BAD"))
+                .upload(BinaryData.fromString("{\"name\":\"Truncat"), true);
+
+        CompletionException failure = assertThrows(CompletionException.class, () -> gateway.find("BAD").join());
+
+        assertEquals("Error parsing company profile from Azure Blob Storage", failure.getCause().getMessage());
+    }
+
+    @Test
+    void readsNonAsciiProfiles() {
+        container("companydetails").getBlobClient(ProfileBlobGateway.blobName("SAN"))
+                .upload(BinaryData.fromBytes("{\"name\":\"Société Générale\",\"description\":\"Banque\"}"
+                        .getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals("Société Générale", gateway.find("SAN").join().getName());
+    }
+}
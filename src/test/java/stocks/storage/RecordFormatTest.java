@@ -0,0 +1,69 @@
+package stocks.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import stocks.models.ChatData;
+import stocks.models.GameData;
+
+class RecordFormatTest {
+
+    private static <T> T roundTrip(RecordFormat<T> format, T value) throws Exception {
+        CompactWriter out = new CompactWriter();
+        format.write(value, out);
+        return format.read(new CompactReader(out.toByteArray()), format.version());
+    }
+
+    @Test
+    void gameSurvivesRoundTripIncludingNegativeCoins() throws Exception {
+        GameData game = new GameData("g-1", "a@b.com", "AAPL", "up", false, -10);
+
+        GameData read = roundTrip(RecordFormat.GAME, game);
+
+        assertEquals("g-1", read.getGameId());
+        assertEquals("a@b.com", read.getEmail());
+        assertEquals("AAPL", read.getSymbol());
+        assertEquals("up", read.getUserPrediction());
+        assertFalse(read.isWon());
+        assertEquals(-10, read.getCoinsEarned());
+    }
+
+    @Test
+    void conversationKeepsOrderNullsAndTimestamps() throws Exception {
+        ChatData first = new ChatData("c-1", "a@b.com", null, "h\u00e9llo", true);
+        first.setTimestamp(Instant.ofEpochSecond(1_700_000_000L, 123_456_789));
+        ChatData second = new ChatData("c-1", "b@c.com", "a@b.com", "", false);
+        second.setTimestamp(null);
+
+        List<ChatData> read = roundTrip(RecordFormat.listOf(RecordFormat.CHAT), List.of(first, second));
+
+        assertEquals(2, read.size());
+        assertEquals("h\u00e9llo", read.get(0).getMessage());
+        assertNull(read.get(0).getRecipientEmail());
+        assertTrue(read.get(0).isAI());
+        assertEquals(first.getTimestamp(), read.get(0).getTimestamp());
+        assertEquals("", read.get(1).getMessage());
+        assertNull(read.get(1).getTimestamp());
+    }
+
+    @Test
+    void unknownFieldsAreSkipped() throws Exception {
+        CompactWriter out = new CompactWriter();
+        out.writeString(1, "g-2");
+        out.writeString(42, "added later");
+        out.writeLong(43, 7);
+        out.writeLong(6, 200);
+
+        GameData read = RecordFormat.GAME.read(new CompactReader(out.toByteArray()), 1);
+
+        assertEquals("g-2", read.getGameId());
+        assertEquals(200, read.getCoinsEarned());
+    }
+}